@@ -0,0 +1,263 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.util.Base64;
+import java.util.Random;
+
+/**
+ * Deterministic document corpora for the benchmarks. Documents are built as
+ * Delta JSON resembling real editor content (formatted paragraphs, lists,
+ * placeholders, tabs, readonly sections, tables and images); the HTML
+ * variants are rendered with {@link DeltaHtmlRenderer} so they match the
+ * values the editor produces.
+ * <p>
+ * Every method uses a fixed seed, so repeated runs measure the same input.
+ */
+public final class BenchmarkCorpus {
+
+    /** Template class assigned to the tables of the table corpus. */
+    public static final String TEMPLATE_CLASS = "template1";
+
+    private static final String[] WORDS = { "lorem", "ipsum", "dolor",
+            "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do",
+            "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore",
+            "magna", "aliqua", "Vaadin", "Position", "Beschreibung", "Menge",
+            "Preis" };
+
+    private BenchmarkCorpus() {
+        // Utility class
+    }
+
+    /** The available document kinds, as used by {@code @Param} values. */
+    public enum Kind {
+        /** A short letter: a few formatted paragraphs. */
+        SMALL,
+        /** A long document of mixed content, roughly 150 KB of Delta. */
+        LARGE,
+        /** A document dominated by tables with template classes. */
+        TABLES,
+        /** A document with many embedded data URL and remote images. */
+        IMAGES
+    }
+
+    /**
+     * Returns the Delta JSON of the given kind of document.
+     *
+     * @param kind the document kind
+     * @return the Delta as a JSON array string
+     */
+    public static String delta(Kind kind) {
+        Random random = new Random(42);
+        StringBuilder ops = new StringBuilder("[");
+        switch (kind) {
+        case SMALL -> {
+            for (int i = 0; i < 5; i++) {
+                paragraph(ops, random);
+            }
+        }
+        case LARGE -> {
+            for (int i = 0; i < 400; i++) {
+                mixedBlock(ops, random, i);
+            }
+        }
+        case TABLES -> {
+            for (int t = 0; t < 40; t++) {
+                paragraph(ops, random);
+                table(ops, random, "t" + t, 8, 5);
+            }
+        }
+        case IMAGES -> {
+            for (int i = 0; i < 60; i++) {
+                paragraph(ops, random);
+                image(ops, random, i);
+            }
+        }
+        }
+        ops.setLength(ops.length() - 1);
+        return ops.append(']').toString();
+    }
+
+    /**
+     * Returns the HTML value of the given kind of document.
+     *
+     * @param kind the document kind
+     * @return the HTML as the editor would report it
+     */
+    public static String html(Kind kind) {
+        return DeltaHtmlRenderer.create().withPlaceholderTags("{{", "}}")
+                .render(delta(kind));
+    }
+
+    /**
+     * Returns a Delta in the pre-6.0 tab format ({@code tab},
+     * {@code line-part}, {@code tabs-cont}) of about the given number of
+     * lines, such as documents stored by older ERTE versions.
+     *
+     * @param lines the number of tabbed lines
+     * @return the legacy Delta as a JSON array string
+     */
+    public static String legacyTabDelta(int lines) {
+        Random random = new Random(42);
+        StringBuilder ops = new StringBuilder("[");
+        for (int i = 0; i < lines; i++) {
+            int columns = 2 + random.nextInt(3);
+            for (int c = 1; c <= columns; c++) {
+                ops.append("{\"attributes\":{\"tab\":\"").append(c)
+                        .append("\"},\"insert\":\"\\uFEFF\"},");
+                ops.append("{\"attributes\":{\"line-part\":true},\"insert\":\"")
+                        .append(words(random, 1 + random.nextInt(3)))
+                        .append("\"},");
+            }
+            ops.append("{\"attributes\":{\"tabs-cont\":\"TABS-CONT\"},\"insert\":\"\\n\"},");
+            if (i % 10 == 0) {
+                paragraph(ops, random);
+            }
+        }
+        ops.setLength(ops.length() - 1);
+        return ops.append(']').toString();
+    }
+
+    /**
+     * Returns a table templates JSON with the given number of templates, each
+     * styling the table, columns, rows and single cells.
+     *
+     * @param count the number of templates
+     * @return the templates JSON object string
+     */
+    public static String templates(int count) {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("\"template").append(i).append("\":{")
+                    .append("\"name\":\"Template ").append(i).append("\",")
+                    .append("\"table\":{\"color\":\"blue\",\"border\":\"1px solid #ccc\",\"width\":\"100%\"},")
+                    .append("\"cols\":[{\"index\":\"1\",\"declarations\":{\"color\":\"#666\",\"bgColor\":\"lightgray\",\"width\":\"5rem\"}},")
+                    .append("{\"index\":\"2n\",\"declarations\":{\"bgColor\":\"whitesmoke\"}}],")
+                    .append("\"rows\":[{\"index\":\"0n+1\",\"declarations\":{\"color\":\"white\",\"bgColor\":\"#333\"}},")
+                    .append("{\"index\":\"2n\",\"declarations\":{\"bgColor\":\"rgb(240, 240, 240)\",\"height\":\"2em\"}},")
+                    .append("{\"index\":\"0n+1\",\"last\":true,\"declarations\":{\"color\":\"white\",\"bgColor\":\"#333\"}}],")
+                    .append("\"cells\":[{\"x\":\"1\",\"y\":\"1\",\"declarations\":{\"bgColor\":\"var(--lumo-primary-color)\",\"border\":\"2px solid red\"}}]")
+                    .append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    private static void mixedBlock(StringBuilder ops, Random random, int i) {
+        switch (i % 8) {
+        case 0 -> line(ops, words(random, 4), "{\"header\":" + (1 + random.nextInt(3)) + "}");
+        case 1, 2 -> paragraph(ops, random);
+        case 3 -> {
+            for (int j = 0; j < 4; j++) {
+                text(ops, words(random, 6), null);
+                line(ops, null, "{\"list\":\"" + (j % 2 == 0 ? "bullet" : "ordered")
+                        + "\",\"indent\":" + (j / 2) + "}");
+            }
+        }
+        case 4 -> {
+            text(ops, words(random, 2), null);
+            ops.append("{\"insert\":{\"tab\":true}},");
+            text(ops, words(random, 2), "{\"bold\":true}");
+            ops.append("{\"insert\":{\"tab\":true}},");
+            text(ops, String.valueOf(random.nextInt(1000)), null);
+            line(ops, null, null);
+        }
+        case 5 -> {
+            text(ops, words(random, 5), "{\"readonly\":true}");
+            line(ops, null, "{\"align\":\"center\"}");
+        }
+        case 6 -> table(ops, random, "m" + i, 3, 3);
+        default -> {
+            text(ops, words(random, 12), null);
+            ops.append("{\"insert\":{\"soft-break\":true}},");
+            text(ops, words(random, 8), "{\"italic\":true}");
+            line(ops, null, "{\"align\":\"justify\"}");
+        }
+        }
+    }
+
+    private static void paragraph(StringBuilder ops, Random random) {
+        text(ops, words(random, 10 + random.nextInt(20)) + ' ', null);
+        text(ops, words(random, 3), "{\"bold\":true,\"color\":\"#e60000\"}");
+        text(ops, " " + words(random, 8) + ' ', null);
+        ops.append("{\"insert\":{\"placeholder\":{\"text\":\"N-")
+                .append(random.nextInt(50))
+                .append("=Customer\",\"format\":{\"italic\":true}}}},");
+        text(ops, ' ' + words(random, 4), "{\"link\":\"https://vaadin.com/docs\"}");
+        ops.append("{\"insert\":{\"nbsp\":true}},");
+        text(ops, words(random, 10) + '.', "{\"underline\":true}");
+        line(ops, null, null);
+    }
+
+    private static void table(StringBuilder ops, Random random, String id,
+            int rows, int columns) {
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                text(ops, words(random, 1 + random.nextInt(4)), null);
+                line(ops, null, "{\"td\":\"" + id + "|r" + r + '|' + id
+                        + 'c' + (r * columns + c) + "||||"
+                        + (r == 0 && c == 0 ? TEMPLATE_CLASS : "") + "\"}");
+            }
+        }
+    }
+
+    private static void image(StringBuilder ops, Random random, int i) {
+        if (i % 3 == 0) {
+            ops.append("{\"insert\":{\"image\":\"https://example.com/images/")
+                    .append(i).append(".png\"},\"attributes\":{\"width\":\"320\"}},");
+        } else {
+            // 6-12 KB of image data, as pasted screenshots typically are
+            byte[] data = new byte[6144 + random.nextInt(6144)];
+            random.nextBytes(data);
+            ops.append("{\"insert\":{\"image\":\"data:image/")
+                    .append(i % 2 == 0 ? "png" : "jpeg").append(";base64,")
+                    .append(Base64.getEncoder().encodeToString(data))
+                    .append("\"}},");
+        }
+        line(ops, null, null);
+    }
+
+    private static void text(StringBuilder ops, String text,
+            String attributes) {
+        ops.append("{\"insert\":\"").append(text).append('"');
+        if (attributes != null) {
+            ops.append(",\"attributes\":").append(attributes);
+        }
+        ops.append("},");
+    }
+
+    private static void line(StringBuilder ops, String text,
+            String attributes) {
+        if (text != null) {
+            text(ops, text, null);
+        }
+        text(ops, "\\n", attributes);
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                words.append(' ');
+            }
+            words.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return words.toString();
+    }
+}
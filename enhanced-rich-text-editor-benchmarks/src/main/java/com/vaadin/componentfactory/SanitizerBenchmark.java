@@ -0,0 +1,62 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link EnhancedRichTextEditor#erteSanitize(String, Set, Map, Set)},
+ * which runs on every value the client sends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SanitizerBenchmark {
+
+    @Param({ "SMALL", "LARGE", "TABLES", "IMAGES" })
+    public BenchmarkCorpus.Kind kind;
+
+    private String html;
+
+    @Setup
+    public void setUp() {
+        html = BenchmarkCorpus.html(kind);
+    }
+
+    @Benchmark
+    public String sanitize() {
+        return EnhancedRichTextEditor.erteSanitize(html,
+                Set.of(BenchmarkCorpus.TEMPLATE_CLASS), Map.of(), Set.of());
+    }
+}
@@ -0,0 +1,78 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link TabConverter#convertIfNeeded(String)}, which runs on every
+ * Delta value set on the editor. Current-format documents take the marker
+ * scan only; legacy documents are converted. {@link #detectBytes()}
+ * measures the marker scan of {@link LegacyTabDetector} on the encoded
+ * document, as read from storage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TabConverterBenchmark {
+
+    @Param({ "current", "legacy" })
+    public String format;
+
+    @Param({ "SMALL", "LARGE" })
+    public BenchmarkCorpus.Kind kind;
+
+    private String delta;
+    private byte[] deltaBytes;
+
+    @Setup
+    public void setUp() {
+        if ("legacy".equals(format)) {
+            delta = BenchmarkCorpus.legacyTabDelta(
+                    kind == BenchmarkCorpus.Kind.SMALL ? 10 : 2000);
+        } else {
+            delta = BenchmarkCorpus.delta(kind);
+        }
+        deltaBytes = delta.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String convertIfNeeded() {
+        return TabConverter.convertIfNeeded(delta);
+    }
+
+    @Benchmark
+    public boolean detectBytes() {
+        return LegacyTabDetector.mayContainLegacyTabs(deltaBytes);
+    }
+}
@@ -0,0 +1,62 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory.erte.tables;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.componentfactory.BenchmarkCorpus;
+import com.vaadin.componentfactory.erte.tables.templates.TemplateParser;
+
+/**
+ * Measures {@link TemplateParser#convertToCss(String)}, which regenerates the
+ * template stylesheet on every template change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TemplateParserBenchmark {
+
+    @Param({ "3", "50" })
+    public int templateCount;
+
+    private String templates;
+
+    @Setup
+    public void setUp() {
+        templates = BenchmarkCorpus.templates(templateCount);
+    }
+
+    @Benchmark
+    public String convertToCss() {
+        return TemplateParser.convertToCss(templates);
+    }
+}
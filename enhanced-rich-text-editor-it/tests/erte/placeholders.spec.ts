@@ -277,6 +277,30 @@ test.describe('Placeholder functionality', () => {
     expect(joined).toContain('2024-01-01');
   });
 
+  test('12b - Alt appearance toggle is not an undo step', async ({ page }) => {
+    await focusEditor(page);
+    await insertPlaceholder(page, 'N-1=Company Name');
+    // Let the history start a new entry for the typing
+    await page.waitForTimeout(1100);
+    const getText = () => page.evaluate(() =>
+      (document.getElementById('test-editor') as any)._editor.getText());
+    const textBefore = await getText();
+    await page.keyboard.type('x');
+
+    await getAppearanceToggleButton(page).click();
+    await page.waitForTimeout(500);
+    await focusEditor(page);
+    await page.keyboard.press('Control+z');
+    await page.waitForTimeout(500);
+
+    // Undo takes back the typing, not the toggle
+    expect(await getText()).toBe(textBefore);
+    await expect(getPlaceholderBlots(page)).toHaveCount(1);
+    const text = await getPlaceholderBlots(page).first().textContent();
+    expect(text).toContain('Company Name');
+    expect(text).not.toContain('N-1=');
+  });
+
   // ──────────────────────────────────────────────────────────────────────────
   // 13–15. Placeholder formatting
   // ──────────────────────────────────────────────────────────────────────────
@@ -161,6 +161,34 @@ test.describe('ERTE Readonly Sections', () => {
     expect(readonlyCountAfter).toBe(readonlyCountBefore);
   });
 
+  // ==========================================================================
+  // 4b. Reverted Backspace leaves no undo step
+  // ==========================================================================
+  test('Backspace on readonly, then Ctrl+Z undoes the preceding typing', async ({ page }) => {
+    const deltaBefore = await getEditorDelta(page);
+
+    // Type right after the first readonly section, then move back to its end
+    const readonlySpan = getReadonlySpans(page).first();
+    const box = await readonlySpan.boundingBox();
+    await page.mouse.click(box!.x + box!.width + 2, box!.y + box!.height / 2);
+    await page.waitForTimeout(100);
+    await page.keyboard.type('ab');
+    await page.keyboard.press('ArrowLeft');
+    await page.keyboard.press('ArrowLeft');
+
+    // The Backspace is reverted; it must not leave a step in the history,
+    // even though it falls into the same history entry as the typing
+    await page.keyboard.press('Backspace');
+    await waitForDeltaUpdate(page);
+    const deltaTyped = await getEditorDelta(page);
+    expect(JSON.stringify(deltaTyped)).toContain('ab');
+    expect(countReadonly(deltaTyped)).toBe(countReadonly(deltaBefore));
+
+    await page.keyboard.press('Control+z');
+    await waitForDeltaUpdate(page);
+    expect(await getEditorDelta(page)).toEqual(deltaBefore);
+  });
+
   // ==========================================================================
   // 5. Select-all + Delete prevented
   // ==========================================================================
@@ -0,0 +1,960 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Immutable server-side representation of a Quill delta.
+ * <p>
+ * A delta is a list of operations. A <em>document</em> delta consists of
+ * inserts only; a <em>change</em> delta may also contain retains and
+ * deletes. Text length is counted in UTF-16 code units and every embed
+ * (tab, placeholder, image, …) counts as one, matching Quill on the client.
+ * <p>
+ * Deltas are created from the JSON form used by Quill (see
+ * {@link #fromJson(String)}) or with a {@link Builder}, which normalizes
+ * operations the same way {@code quill-delta} does (adjacent operations with
+ * equal attributes are merged, deletes are ordered after inserts).
+ *
+ * @since 6.1.0
+ */
+public final class Delta implements Serializable {
+
+    private static final JsonMapper MAPPER = JsonMapper.shared();
+
+    private static final Delta EMPTY = new Delta(List.of());
+
+    private static final int FNV_OFFSET_BASIS = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    /** Character used in checksums and plain text for embeds. */
+    static final char EMBED_CHAR = '\uFFFC';
+
+    private final List<Op> ops;
+
+    private Delta(List<Op> ops) {
+        this.ops = ops;
+    }
+
+    /**
+     * Returns an empty delta.
+     *
+     * @return the empty delta
+     */
+    public static Delta empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a new builder for composing a delta operation by operation.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Parses a delta from its JSON form. Both the array form
+     * ({@code [{"insert":"a"}]}) and the object form
+     * ({@code {"ops":[...]}}) are accepted.
+     *
+     * @param json the delta JSON
+     * @return the parsed delta
+     * @throws IllegalArgumentException if the JSON is not a valid delta
+     */
+    public static Delta fromJson(String json) {
+        Objects.requireNonNull(json, "Delta JSON must not be null");
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(json);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid delta JSON", e);
+        }
+        return fromJson(node);
+    }
+
+    /**
+     * Parses a delta from a JSON node, either an array of operations or an
+     * object with an {@code ops} array.
+     *
+     * @param json the delta JSON node
+     * @return the parsed delta
+     * @throws IllegalArgumentException if the JSON is not a valid delta
+     */
+    public static Delta fromJson(JsonNode json) {
+        JsonNode opsNode = json != null && json.isObject() ? json.get("ops")
+                : json;
+        if (opsNode == null || !opsNode.isArray()) {
+            throw new IllegalArgumentException(
+                    "Delta JSON must be an array or contain an ops array");
+        }
+        Builder builder = new Builder();
+        for (JsonNode opNode : opsNode) {
+            builder.push(Op.fromJson(opNode));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the operations of this delta.
+     *
+     * @return an unmodifiable list of operations
+     */
+    public List<Op> getOps() {
+        return ops;
+    }
+
+    /**
+     * Returns whether this delta has no operations.
+     *
+     * @return {@code true} if empty
+     */
+    public boolean isEmpty() {
+        return ops.isEmpty();
+    }
+
+    /**
+     * Returns whether this delta consists of inserts only, i.e. describes a
+     * document rather than a change.
+     *
+     * @return {@code true} if every operation is an insert
+     */
+    public boolean isDocument() {
+        for (Op op : ops) {
+            if (!op.isInsert()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the total length of all operations. For a document delta this
+     * is the document length, including Quill's trailing newline.
+     *
+     * @return the length in UTF-16 code units, embeds counting as one
+     */
+    public int length() {
+        int length = 0;
+        for (Op op : ops) {
+            length += op.length();
+        }
+        return length;
+    }
+
+    /**
+     * Returns the length of the document this change delta can be applied
+     * to at minimum, i.e. the number of characters it retains or deletes.
+     *
+     * @return the base length required by this change
+     */
+    int baseLength() {
+        int length = 0;
+        for (Op op : ops) {
+            if (!op.isInsert()) {
+                length += op.length();
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Cuts this change down to fit a document of the given length. Inserts
+     * and deletes stay before Quill's trailing newline; only a final
+     * formatting retain may cover it, e.g. to format the last line.
+     *
+     * @param length the document length, including the trailing newline
+     * @return a change that can be applied to the document
+     */
+    Delta clampTo(int length) {
+        Builder builder = new Builder();
+        int base = 0;
+        for (int i = 0; i < ops.size(); i++) {
+            Op op = ops.get(i);
+            if (op.isInsert()) {
+                builder.push(op);
+                continue;
+            }
+            int limit = i == ops.size() - 1 && op.isRetain() ? length
+                    : length - 1;
+            int n = Math.min(op.length(), limit - base);
+            if (n > 0) {
+                builder.push(op.isRetain() ? Op.retain(n, op.attributes)
+                        : Op.delete(n));
+                base += n;
+            }
+        }
+        return builder.chop().build();
+    }
+
+    /**
+     * Returns a delta equivalent to applying this delta and then
+     * {@code other}, following Quill's {@code Delta#compose} semantics.
+     *
+     * @param other the delta to apply after this one
+     * @return the composed delta
+     */
+    public Delta compose(Delta other) {
+        Objects.requireNonNull(other, "Delta must not be null");
+        OpIterator thisIter = new OpIterator(ops);
+        OpIterator otherIter = new OpIterator(other.ops);
+        Builder builder = new Builder();
+        while (thisIter.hasNext() || otherIter.hasNext()) {
+            if (otherIter.peekType() == Op.Type.INSERT) {
+                builder.push(otherIter.next());
+            } else if (thisIter.peekType() == Op.Type.DELETE) {
+                builder.push(thisIter.next());
+            } else {
+                int length = Math.min(thisIter.peekLength(),
+                        otherIter.peekLength());
+                Op thisOp = thisIter.next(length);
+                Op otherOp = otherIter.next(length);
+                if (otherOp.isRetain()) {
+                    ObjectNode attributes = composeAttributes(
+                            thisOp.attributes, otherOp.attributes,
+                            thisOp.isRetain());
+                    if (thisOp.isRetain()) {
+                        builder.push(Op.retain(length, attributes));
+                    } else {
+                        builder.push(new Op(thisOp.text, thisOp.embed, 0, 0,
+                                attributes));
+                    }
+                } else if (otherOp.isDelete() && thisOp.isRetain()) {
+                    builder.push(otherOp);
+                }
+                // else: insert followed by delete cancels out
+            }
+        }
+        return builder.chop().build();
+    }
+
+    /**
+     * Transforms {@code other} against this delta, following Quill's
+     * {@code Delta#transform} semantics: both deltas were made against the
+     * same document, and the result is {@code other} rewritten to apply
+     * after this delta.
+     *
+     * @param other    the concurrent delta to transform
+     * @param priority {@code true} if this delta is considered to have
+     *                 happened first (its inserts win ties at the same
+     *                 position)
+     * @return the transformed delta
+     */
+    public Delta transform(Delta other, boolean priority) {
+        Objects.requireNonNull(other, "Delta must not be null");
+        OpIterator thisIter = new OpIterator(ops);
+        OpIterator otherIter = new OpIterator(other.ops);
+        Builder builder = new Builder();
+        while (thisIter.hasNext() || otherIter.hasNext()) {
+            if (thisIter.peekType() == Op.Type.INSERT && (priority
+                    || otherIter.peekType() != Op.Type.INSERT)) {
+                builder.retain(thisIter.next().length());
+            } else if (otherIter.peekType() == Op.Type.INSERT) {
+                builder.push(otherIter.next());
+            } else {
+                int length = Math.min(thisIter.peekLength(),
+                        otherIter.peekLength());
+                Op thisOp = thisIter.next(length);
+                Op otherOp = otherIter.next(length);
+                if (thisOp.isDelete()) {
+                    // Our delete makes their operation redundant
+                    continue;
+                }
+                if (otherOp.isDelete()) {
+                    builder.push(otherOp);
+                } else {
+                    builder.push(Op.retain(length, transformAttributes(
+                            thisOp.attributes, otherOp.attributes,
+                            priority)));
+                }
+            }
+        }
+        return builder.chop().build();
+    }
+
+    /**
+     * Transforms a document position against this change, e.g. to keep a
+     * cursor or placeholder index stable across a concurrent edit.
+     *
+     * @param index    the position before this change
+     * @param priority {@code true} if this delta is considered to have
+     *                 happened first, i.e. inserts at {@code index} do not
+     *                 shift it
+     * @return the position after this change
+     */
+    public int transformPosition(int index, boolean priority) {
+        OpIterator iter = new OpIterator(ops);
+        int offset = 0;
+        while (iter.hasNext() && offset <= index) {
+            int length = iter.peekLength();
+            Op.Type type = iter.peekType();
+            iter.next();
+            if (type == Op.Type.DELETE) {
+                index -= Math.min(length, index - offset);
+                continue;
+            }
+            if (type == Op.Type.INSERT && (offset < index || !priority)) {
+                index += length;
+            }
+            offset += length;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the operations covering the range {@code [start, end)}.
+     *
+     * @param start the start position, inclusive
+     * @param end   the end position, exclusive
+     * @return the sliced delta
+     */
+    public Delta slice(int start, int end) {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException(
+                    "Invalid range: " + start + ".." + end);
+        }
+        Builder builder = new Builder();
+        OpIterator iter = new OpIterator(ops);
+        int index = 0;
+        while (index < end && iter.hasNext()) {
+            Op next;
+            if (index < start) {
+                next = iter.next(start - index);
+            } else {
+                next = iter.next(end - index);
+                builder.push(next);
+            }
+            index += next.length();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Serializes this delta to a JSON array of operations.
+     *
+     * @return a new JSON array
+     */
+    public ArrayNode toJson() {
+        ArrayNode array = MAPPER.createArrayNode();
+        for (Op op : ops) {
+            array.add(op.toJson());
+        }
+        return array;
+    }
+
+    /**
+     * Serializes this delta to its JSON array form, as used by Quill and by
+     * {@code RichTextEditor.asDelta()}.
+     *
+     * @return the JSON string
+     */
+    public String toJsonString() {
+        return MAPPER.writeValueAsString(toJson());
+    }
+
+    /**
+     * Computes a 32-bit FNV-1a checksum of a document delta over its text,
+     * embed types and attributes. The client computes the same value in
+     * {@code _deltaChecksum()} so that both sides can detect drift without
+     * transferring the document.
+     *
+     * @return the unsigned checksum
+     */
+    long checksum() {
+        int hash = FNV_OFFSET_BASIS;
+        for (Op op : ops) {
+            if (!op.isInsert()) {
+                continue;
+            }
+            if (op.text != null) {
+                hash = fnv(hash, op.text);
+            } else {
+                hash = fnv(hash, EMBED_CHAR);
+                hash = fnv(hash, op.getEmbedType());
+            }
+            if (op.attributes != null) {
+                Map<String, JsonNode> sorted = new TreeMap<>();
+                op.attributes.properties()
+                        .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+                for (Map.Entry<String, JsonNode> e : sorted.entrySet()) {
+                    hash = fnv(hash, '\u0001');
+                    hash = fnv(hash, e.getKey());
+                    hash = fnv(hash, '=');
+                    if (e.getValue().isValueNode() && !e.getValue().isNull()) {
+                        hash = fnv(hash, e.getValue().asText());
+                    }
+                }
+            }
+        }
+        return Integer.toUnsignedLong(hash);
+    }
+
+    private static int fnv(int hash, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            hash = fnv(hash, s.charAt(i));
+        }
+        return hash;
+    }
+
+    private static int fnv(int hash, char c) {
+        return (hash ^ c) * FNV_PRIME;
+    }
+
+    static ObjectNode composeAttributes(ObjectNode a, ObjectNode b,
+            boolean keepNull) {
+        ObjectNode result = MAPPER.createObjectNode();
+        if (b != null) {
+            b.properties().forEach(e -> {
+                if (keepNull || !e.getValue().isNull()) {
+                    result.set(e.getKey(), e.getValue());
+                }
+            });
+        }
+        if (a != null) {
+            a.properties().forEach(e -> {
+                if (!e.getValue().isNull() && (b == null
+                        || !b.has(e.getKey()))) {
+                    result.set(e.getKey(), e.getValue());
+                }
+            });
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    static ObjectNode transformAttributes(ObjectNode a, ObjectNode b,
+            boolean priority) {
+        if (a == null || b == null || !priority) {
+            return b;
+        }
+        ObjectNode result = MAPPER.createObjectNode();
+        b.properties().forEach(e -> {
+            if (!a.has(e.getKey())) {
+                result.set(e.getKey(), e.getValue());
+            }
+        });
+        return result.isEmpty() ? null : result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        return ops.equals(((Delta) o).ops);
+    }
+
+    @Override
+    public int hashCode() {
+        return ops.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toJsonString();
+    }
+
+    /**
+     * A single delta operation: an insert of text or of an embed, a retain
+     * or a delete. Instances are immutable; JSON nodes returned by the
+     * getters are copies.
+     */
+    public static final class Op implements Serializable {
+
+        /**
+         * Operation type.
+         */
+        public enum Type {
+            INSERT, RETAIN, DELETE
+        }
+
+        // Exactly one of text/embed is set for inserts; retain/delete are
+        // positive for the respective types and zero otherwise.
+        final String text;
+        final ObjectNode embed;
+        final int retain;
+        final int delete;
+        final ObjectNode attributes;
+
+        private Op(String text, ObjectNode embed, int retain, int delete,
+                ObjectNode attributes) {
+            this.text = text;
+            this.embed = embed;
+            this.retain = retain;
+            this.delete = delete;
+            this.attributes = attributes == null || attributes.isEmpty()
+                    ? null : attributes;
+        }
+
+        static Op insert(String text, ObjectNode attributes) {
+            return new Op(text, null, 0, 0, attributes);
+        }
+
+        static Op insertEmbed(ObjectNode embed, ObjectNode attributes) {
+            return new Op(null, embed, 0, 0, attributes);
+        }
+
+        static Op retain(int length, ObjectNode attributes) {
+            return new Op(null, null, length, 0, attributes);
+        }
+
+        static Op delete(int length) {
+            return new Op(null, null, 0, length, null);
+        }
+
+        static Op withAttributes(Op op, ObjectNode attributes) {
+            return new Op(op.text, op.embed, op.retain, op.delete,
+                    attributes);
+        }
+
+        static Op fromJson(JsonNode node) {
+            if (node == null || !node.isObject()) {
+                throw new IllegalArgumentException(
+                        "Delta operation must be an object: " + node);
+            }
+            JsonNode attrs = node.get("attributes");
+            ObjectNode attributes = null;
+            if (attrs != null && !attrs.isNull()) {
+                if (!attrs.isObject()) {
+                    throw new IllegalArgumentException(
+                            "Delta attributes must be an object: " + node);
+                }
+                attributes = (ObjectNode) attrs.deepCopy();
+            }
+            JsonNode insert = node.get("insert");
+            if (insert != null) {
+                if (insert.isTextual()) {
+                    return insert(insert.asText(), attributes);
+                }
+                if (insert.isObject() && insert.size() == 1) {
+                    return insertEmbed((ObjectNode) insert.deepCopy(),
+                            attributes);
+                }
+                throw new IllegalArgumentException(
+                        "Delta insert must be a string or an embed object: "
+                                + node);
+            }
+            JsonNode retain = node.get("retain");
+            if (retain != null) {
+                if (!retain.isIntegralNumber() || !retain.canConvertToInt()
+                        || retain.asInt() <= 0) {
+                    throw new IllegalArgumentException(
+                            "Delta retain must be a positive integer: "
+                                    + node);
+                }
+                return retain(retain.asInt(), attributes);
+            }
+            JsonNode delete = node.get("delete");
+            if (delete != null) {
+                if (!delete.isIntegralNumber() || !delete.canConvertToInt()
+                        || delete.asInt() <= 0) {
+                    throw new IllegalArgumentException(
+                            "Delta delete must be a positive integer: "
+                                    + node);
+                }
+                return delete(delete.asInt());
+            }
+            throw new IllegalArgumentException(
+                    "Delta operation must be an insert, retain or delete: "
+                            + node);
+        }
+
+        public Type getType() {
+            if (retain > 0) {
+                return Type.RETAIN;
+            }
+            if (delete > 0) {
+                return Type.DELETE;
+            }
+            return Type.INSERT;
+        }
+
+        public boolean isInsert() {
+            return retain == 0 && delete == 0;
+        }
+
+        public boolean isRetain() {
+            return retain > 0;
+        }
+
+        public boolean isDelete() {
+            return delete > 0;
+        }
+
+        /**
+         * Returns the inserted text, or {@code null} if this is not a text
+         * insert.
+         *
+         * @return the inserted text or null
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Returns a copy of the inserted embed (e.g. {@code {"tab":true}}),
+         * or {@code null} if this is not an embed insert.
+         *
+         * @return the embed object or null
+         */
+        public ObjectNode getEmbed() {
+            return embed == null ? null : embed.deepCopy();
+        }
+
+        /**
+         * Returns the embed type (the single key of the embed object, e.g.
+         * {@code "tab"} or {@code "placeholder"}), or {@code null} if this
+         * is not an embed insert.
+         *
+         * @return the embed type or null
+         */
+        public String getEmbedType() {
+            return embed == null ? null
+                    : embed.properties().iterator().next().getKey();
+        }
+
+        /**
+         * Returns a copy of the attributes of this operation, or
+         * {@code null} if it has none.
+         *
+         * @return the attributes or null
+         */
+        public ObjectNode getAttributes() {
+            return attributes == null ? null : attributes.deepCopy();
+        }
+
+        /**
+         * Returns the length of this operation.
+         *
+         * @return the length in UTF-16 code units, embeds counting as one
+         */
+        public int length() {
+            if (retain > 0) {
+                return retain;
+            }
+            if (delete > 0) {
+                return delete;
+            }
+            return text != null ? text.length() : 1;
+        }
+
+        ObjectNode toJson() {
+            ObjectNode node = MAPPER.createObjectNode();
+            if (retain > 0) {
+                node.put("retain", retain);
+            } else if (delete > 0) {
+                node.put("delete", delete);
+            } else if (text != null) {
+                node.put("insert", text);
+            } else {
+                node.set("insert", embed.deepCopy());
+            }
+            if (attributes != null) {
+                node.set("attributes", attributes.deepCopy());
+            }
+            return node;
+        }
+
+        /**
+         * Returns the part of this operation starting at {@code offset}
+         * with the given length. Embeds cannot be split.
+         */
+        Op slice(int offset, int length) {
+            if (retain > 0) {
+                return new Op(null, null, length, 0, attributes);
+            }
+            if (delete > 0) {
+                return new Op(null, null, 0, length, null);
+            }
+            if (text != null) {
+                return new Op(text.substring(offset, offset + length), null,
+                        0, 0, attributes);
+            }
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            Op op = (Op) o;
+            return retain == op.retain && delete == op.delete
+                    && Objects.equals(text, op.text)
+                    && Objects.equals(embed, op.embed)
+                    && Objects.equals(attributes, op.attributes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text, embed, retain, delete, attributes);
+        }
+
+        @Override
+        public String toString() {
+            return toJson().toString();
+        }
+    }
+
+    /**
+     * Builds a delta from individual operations, normalizing them the way
+     * Quill does.
+     */
+    public static final class Builder {
+
+        private final List<Op> ops = new ArrayList<>();
+        // Text being merged into the op at mergedIndex; avoids repeated
+        // string concatenation when many small inserts are pushed
+        private StringBuilder mergedText;
+        private int mergedIndex = -1;
+
+        private Builder() {
+        }
+
+        /**
+         * Appends a text insert without attributes.
+         *
+         * @param text the text to insert
+         * @return this builder
+         */
+        public Builder insert(String text) {
+            return insert(text, null);
+        }
+
+        /**
+         * Appends a text insert. Empty text is ignored.
+         *
+         * @param text       the text to insert
+         * @param attributes the attributes, or {@code null}
+         * @return this builder
+         */
+        public Builder insert(String text, ObjectNode attributes) {
+            Objects.requireNonNull(text, "Text must not be null");
+            if (!text.isEmpty()) {
+                push(Op.insert(text, copy(attributes)));
+            }
+            return this;
+        }
+
+        /**
+         * Appends an embed insert such as {@code {"tab":true}}.
+         *
+         * @param embed      an object with exactly one property
+         * @param attributes the attributes, or {@code null}
+         * @return this builder
+         */
+        public Builder insertEmbed(ObjectNode embed, ObjectNode attributes) {
+            Objects.requireNonNull(embed, "Embed must not be null");
+            if (embed.size() != 1) {
+                throw new IllegalArgumentException(
+                        "Embed must have exactly one property: " + embed);
+            }
+            push(Op.insertEmbed(embed.deepCopy(), copy(attributes)));
+            return this;
+        }
+
+        /**
+         * Appends a retain without attributes.
+         *
+         * @param length the number of characters to retain
+         * @return this builder
+         */
+        public Builder retain(int length) {
+            return retain(length, null);
+        }
+
+        /**
+         * Appends a retain, optionally formatting the retained range. A
+         * {@code null} attribute value removes that format.
+         *
+         * @param length     the number of characters to retain
+         * @param attributes the attributes, or {@code null}
+         * @return this builder
+         */
+        public Builder retain(int length, ObjectNode attributes) {
+            if (length > 0) {
+                push(Op.retain(length, copy(attributes)));
+            }
+            return this;
+        }
+
+        /**
+         * Appends a delete.
+         *
+         * @param length the number of characters to delete
+         * @return this builder
+         */
+        public Builder delete(int length) {
+            if (length > 0) {
+                push(Op.delete(length));
+            }
+            return this;
+        }
+
+        /**
+         * Returns the built delta.
+         *
+         * @return an immutable delta
+         */
+        public Delta build() {
+            materialize();
+            return ops.isEmpty() ? EMPTY
+                    : new Delta(Collections.unmodifiableList(
+                            new ArrayList<>(ops)));
+        }
+
+        Builder push(Op newOp) {
+            if (mergedText != null && newOp.text != null
+                    && mergedIndex == ops.size() - 1
+                    && Objects.equals(newOp.attributes,
+                            ops.get(mergedIndex).attributes)) {
+                mergedText.append(newOp.text);
+                return this;
+            }
+            materialize();
+            int index = ops.size();
+            Op lastOp = index > 0 ? ops.get(index - 1) : null;
+            if (lastOp != null) {
+                if (newOp.isDelete() && lastOp.isDelete()) {
+                    ops.set(index - 1,
+                            Op.delete(lastOp.delete + newOp.delete));
+                    return this;
+                }
+                // Inserts go before a trailing delete, as in quill-delta
+                if (lastOp.isDelete() && newOp.isInsert()) {
+                    index -= 1;
+                    lastOp = index > 0 ? ops.get(index - 1) : null;
+                    if (lastOp == null) {
+                        ops.add(0, newOp);
+                        return this;
+                    }
+                }
+                if (Objects.equals(newOp.attributes, lastOp.attributes)) {
+                    if (newOp.text != null && lastOp.text != null) {
+                        mergedText = new StringBuilder(lastOp.text)
+                                .append(newOp.text);
+                        mergedIndex = index - 1;
+                        return this;
+                    }
+                    if (newOp.isRetain() && lastOp.isRetain()) {
+                        ops.set(index - 1, Op.retain(
+                                lastOp.retain + newOp.retain,
+                                newOp.attributes));
+                        return this;
+                    }
+                }
+            }
+            ops.add(index, newOp);
+            return this;
+        }
+
+        Builder chop() {
+            materialize();
+            if (!ops.isEmpty()) {
+                Op last = ops.get(ops.size() - 1);
+                if (last.isRetain() && last.attributes == null) {
+                    ops.remove(ops.size() - 1);
+                }
+            }
+            return this;
+        }
+
+        private void materialize() {
+            if (mergedText != null) {
+                Op op = ops.get(mergedIndex);
+                ops.set(mergedIndex,
+                        Op.insert(mergedText.toString(), op.attributes));
+                mergedText = null;
+                mergedIndex = -1;
+            }
+        }
+
+        private static ObjectNode copy(ObjectNode attributes) {
+            return attributes == null ? null : attributes.deepCopy();
+        }
+    }
+
+    /**
+     * Iterates over operations, splitting them on demand.
+     */
+    private static final class OpIterator {
+
+        private final List<Op> ops;
+        private int index;
+        private int offset;
+
+        OpIterator(List<Op> ops) {
+            this.ops = ops;
+        }
+
+        boolean hasNext() {
+            return peekLength() < Integer.MAX_VALUE;
+        }
+
+        int peekLength() {
+            if (index < ops.size()) {
+                return ops.get(index).length() - offset;
+            }
+            return Integer.MAX_VALUE;
+        }
+
+        Op.Type peekType() {
+            if (index < ops.size()) {
+                return ops.get(index).getType();
+            }
+            return Op.Type.RETAIN;
+        }
+
+        Op next() {
+            return next(Integer.MAX_VALUE);
+        }
+
+        Op next(int length) {
+            if (index >= ops.size()) {
+                return Op.retain(length, null);
+            }
+            Op op = ops.get(index);
+            int offset = this.offset;
+            int opLength = op.length();
+            if (length >= opLength - offset) {
+                length = opLength - offset;
+                index++;
+                this.offset = 0;
+            } else {
+                this.offset += length;
+            }
+            if (offset == 0 && length == opLength) {
+                return op;
+            }
+            return op.slice(offset, length);
+        }
+    }
+}
@@ -0,0 +1,863 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Renders ERTE deltas to HTML on the server, without a browser.
+ * <p>
+ * The output has the structure of the editor's HTML value: Quill's semantic
+ * HTML with ERTE's embeds ({@code tab}, {@code soft-break},
+ * {@code placeholder}, {@code nbsp}), {@code readonly} spans and table
+ * cells, after the server-side sanitizer has been applied. Elements and
+ * attributes the sanitizer would remove are not produced in the first
+ * place, so the result is safe to embed as-is. Zero-width cursor guards
+ * and layout-dependent tab widths, which only exist in the browser, are
+ * omitted. Inline formats are nested in Quill's canonical order.
+ * <p>
+ * The delta is processed in a single pass without building a DOM.
+ * Instances are immutable and thread-safe, and can be shared by batch jobs
+ * rendering many documents.
+ * <p>
+ * Usage:
+ * <pre>
+ * DeltaHtmlRenderer renderer = DeltaHtmlRenderer.create()
+ *         .withPlaceholderTags("[", "]");
+ * String html = renderer.render(storedDeltaJson);
+ * </pre>
+ *
+ * @since 6.1.0
+ */
+public final class DeltaHtmlRenderer implements Serializable {
+
+    private static final DeltaHtmlRenderer DEFAULT = new DeltaHtmlRenderer(
+            "", "", null, Set.of());
+
+    private static final Set<String> LINK_PROTOCOLS = Set.of("ftp", "http",
+            "https", "mailto");
+    // Further link protocols Quill accepts; rendered without href
+    private static final Set<String> EDITOR_LINK_PROTOCOLS = Set.of("sms",
+            "tel");
+    // What Quill links to in place of a link with another protocol
+    private static final String SANITIZED_LINK = "about:blank";
+    private static final Set<String> IMAGE_PROTOCOLS = Set.of("data",
+            "http", "https");
+    private static final Set<String> REMOTE_IMAGE_PROTOCOLS = Set.of("http",
+            "https");
+    private static final Set<String> ALIGNMENTS = Set.of("right", "center",
+            "justify");
+
+    private static final Pattern PROTOCOL = Pattern
+            .compile("^\\s*([A-Za-z][A-Za-z0-9+.\\-]*):");
+    // Characters browsers ignore in URLs, e.g. in "java\tscript:"
+    private static final Pattern URL_IGNORED = Pattern
+            .compile("[\\x00-\\x20\\x7F]+");
+    private static final Pattern CSS_VALUE = Pattern
+            .compile("[#\\w\\s,.%()\\-]+");
+    private static final Pattern CSS_FUNCTION = Pattern.compile("\\w+\\s*\\(");
+    private static final Pattern DIMENSION = Pattern
+            .compile("\\d+(\\.\\d+)?(px|%)?");
+    private static final Pattern CLASS_NAME = Pattern
+            .compile("-?[A-Za-z_][\\w\\-]*");
+
+    private final String placeholderTagStart;
+    private final String placeholderTagEnd;
+    private final Pattern altAppearancePattern;
+    private final Set<String> allowedClasses;
+
+    private DeltaHtmlRenderer(String placeholderTagStart,
+            String placeholderTagEnd, Pattern altAppearancePattern,
+            Set<String> allowedClasses) {
+        this.placeholderTagStart = placeholderTagStart;
+        this.placeholderTagEnd = placeholderTagEnd;
+        this.altAppearancePattern = altAppearancePattern;
+        this.allowedClasses = allowedClasses;
+    }
+
+    /**
+     * Returns a renderer with the editor's default settings.
+     *
+     * @return the default renderer
+     */
+    public static DeltaHtmlRenderer create() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a copy that surrounds placeholder texts with the given tags,
+     * like {@link EnhancedRichTextEditor#setPlaceholderTags(String, String)}.
+     *
+     * @param start the start tag (not null)
+     * @param end   the end tag (not null)
+     * @return a new renderer
+     */
+    public DeltaHtmlRenderer withPlaceholderTags(String start, String end) {
+        Objects.requireNonNull(start, "Start tag cannot be null");
+        Objects.requireNonNull(end, "End tag cannot be null");
+        return new DeltaHtmlRenderer(start, end, altAppearancePattern,
+                allowedClasses);
+    }
+
+    /**
+     * Returns a copy that renders the part of placeholder texts matching
+     * the given pattern as alternative appearance, like
+     * {@link EnhancedRichTextEditor#setPlaceholderAltAppearancePattern(String)}.
+     *
+     * @param regex the pattern, or {@code null} to disable
+     * @return a new renderer
+     */
+    public DeltaHtmlRenderer withPlaceholderAltAppearancePattern(
+            String regex) {
+        return new DeltaHtmlRenderer(placeholderTagStart, placeholderTagEnd,
+                regex == null ? null : Pattern.compile(regex),
+                allowedClasses);
+    }
+
+    /**
+     * Returns a copy that keeps the given table classes (e.g. table
+     * template IDs), like
+     * {@link EnhancedRichTextEditor#addAllowedHtmlClasses(String...)}.
+     * Other classes are dropped, as the sanitizer would do.
+     *
+     * @param classes the classes to keep
+     * @return a new renderer
+     */
+    public DeltaHtmlRenderer withAllowedClasses(Set<String> classes) {
+        return new DeltaHtmlRenderer(placeholderTagStart, placeholderTagEnd,
+                altAppearancePattern, Set.copyOf(classes));
+    }
+
+    /**
+     * Renders a delta given as JSON.
+     *
+     * @param deltaJson a JSON array of operations, or an object with an
+     *                  {@code ops} array
+     * @return the HTML
+     * @throws IllegalArgumentException if the JSON is not a valid delta
+     */
+    public String render(String deltaJson) {
+        return render(Delta.fromJson(deltaJson));
+    }
+
+    /**
+     * Renders a document delta.
+     *
+     * @param document the document, consisting of inserts
+     * @return the HTML
+     */
+    public String render(Delta document) {
+        StringBuilder out = new StringBuilder(document.length() * 2 + 16);
+        render(document, out);
+        return out.toString();
+    }
+
+    /**
+     * Renders a document delta into the given buffer, e.g. to reuse it
+     * across documents in batch jobs.
+     *
+     * @param document the document, consisting of inserts
+     * @param out      the buffer to append to
+     */
+    public void render(Delta document, StringBuilder out) {
+        Objects.requireNonNull(document, "Delta cannot be null");
+        Writer writer = new Writer(out);
+        for (Delta.Op op : document.getOps()) {
+            if (op.text != null) {
+                String text = op.text;
+                int start = 0;
+                int newline;
+                while ((newline = text.indexOf('\n', start)) >= 0) {
+                    writer.appendText(text, start, newline, op.attributes);
+                    writer.endLine(op.attributes);
+                    start = newline + 1;
+                }
+                writer.appendText(text, start, text.length(), op.attributes);
+            } else if (op.embed != null) {
+                writer.embed(op.embed, op.attributes);
+            }
+        }
+        // A document always ends with a newline; tolerate one that does not
+        if (writer.hasPendingLine()) {
+            writer.endLine(null);
+        }
+        writer.finish();
+    }
+
+    /**
+     * Per-call rendering state: the current line and the open list, code
+     * block and table.
+     */
+    private final class Writer {
+        private final StringBuilder out;
+        private final StringBuilder line = new StringBuilder();
+        private final StringBuilder code = new StringBuilder();
+        private final StringBuilder embedHtml = new StringBuilder();
+        private final List<String> openTags = new ArrayList<>();
+        private final List<String> closeTags = new ArrayList<>();
+        private final List<String> wantedOpen = new ArrayList<>();
+        private final List<String> wantedClose = new ArrayList<>();
+        private boolean lineHasContent;
+
+        private final List<String> listTypes = new ArrayList<>();
+        private int listIndent = -1;
+        private boolean inCode;
+        private String tableId;
+        private String rowId;
+        private String cellId;
+
+        Writer(StringBuilder out) {
+            this.out = out;
+        }
+
+        boolean hasPendingLine() {
+            return lineHasContent;
+        }
+
+        void appendText(String text, int start, int end, ObjectNode attributes) {
+            if (start == end) {
+                return;
+            }
+            // Code blocks are plain text; the line's formats are unknown
+            // until its newline, so keep the raw text as well
+            code.append(text, start, end);
+            openInline(attributes);
+            escapeText(line, text, start, end);
+            lineHasContent = true;
+        }
+
+        void embed(ObjectNode embed, ObjectNode attributes) {
+            String type = embed.properties().iterator().next().getKey();
+            JsonNode value = embed.get(type);
+            embedHtml.setLength(0);
+            switch (type) {
+            case "tab" -> embedHtml.append(
+                    "<span class=\"ql-tab\"><span contenteditable=\"false\"></span></span>");
+            case "soft-break" -> embedHtml.append(
+                    "<span class=\"ql-soft-break\"><span contenteditable=\"false\"><br></span></span>");
+            case "nbsp" -> embedHtml.append(
+                    "<span class=\"ql-nbsp\"><span contenteditable=\"false\">&nbsp;</span></span>");
+            case "placeholder" -> placeholder(embedHtml, value);
+            case "image" -> image(embedHtml, value, attributes);
+            default -> {
+                // Unknown embeds have no HTML representation
+            }
+            }
+            if (!embedHtml.isEmpty()) {
+                openInline(attributes);
+                line.append(embedHtml);
+                lineHasContent = true;
+            }
+        }
+
+        void endLine(ObjectNode attributes) {
+            closeInline(0);
+            // Lines in table cells are rendered as plain blocks
+            String td = text(attributes, "td");
+            String list = td == null ? text(attributes, "list") : null;
+            boolean codeBlock = td == null && list == null
+                    && isSet(attributes, "code-block");
+            if (list == null) {
+                closeList();
+            }
+            if (!codeBlock) {
+                closeCode();
+            }
+            if (td != null) {
+                cell(td);
+            } else {
+                closeTable();
+            }
+            if (list != null) {
+                listItem(list, integer(attributes, "indent"));
+            } else if (codeBlock) {
+                if (!inCode) {
+                    out.append("<pre>\n");
+                    inCode = true;
+                } else {
+                    out.append('\n');
+                }
+                escapeText(out, code, 0, code.length());
+            } else {
+                block(attributes);
+            }
+            line.setLength(0);
+            code.setLength(0);
+            lineHasContent = false;
+        }
+
+        void finish() {
+            closeList();
+            closeCode();
+            closeTable();
+        }
+
+        // ---- Blocks ----
+
+        private void block(ObjectNode attributes) {
+            String tag = "p";
+            int header = integer(attributes, "header");
+            if (header >= 1 && header <= 3) {
+                tag = "h" + header;
+            } else if (header > 3) {
+                // Not in the sanitizer's safelist, which unwraps it
+                tag = null;
+            } else if (attributes != null
+                    && attributes.path("blockquote").asBoolean()) {
+                tag = "blockquote";
+            }
+            if (tag == null) {
+                out.append(line);
+                return;
+            }
+            out.append('<').append(tag);
+            blockAttributes(attributes);
+            out.append('>');
+            appendLine();
+            out.append("</").append(tag).append('>');
+        }
+
+        private void blockAttributes(ObjectNode attributes) {
+            String align = text(attributes, "align");
+            int indent = integer(attributes, "indent");
+            boolean alignClass = align != null && ALIGNMENTS.contains(align);
+            if (alignClass && indent <= 0) {
+                // The editor turns a lone alignment class into a style
+                out.append(" style=\"text-align: ").append(align)
+                        .append('"');
+            } else if (alignClass || indent > 0) {
+                out.append(" class=\"");
+                if (alignClass) {
+                    out.append("ql-align-").append(align);
+                }
+                if (indent > 0) {
+                    out.append(alignClass ? " " : "").append("ql-indent-")
+                            .append(indent);
+                }
+                out.append('"');
+            }
+        }
+
+        private void appendLine() {
+            if (lineHasContent) {
+                out.append(line);
+            } else {
+                out.append("<br>");
+            }
+        }
+
+        private void listItem(String type, int indent) {
+            // Mirrors Quill's convertListHTML(): nesting by indent, a new
+            // list whenever the type changes
+            String tag = "ordered".equals(type) ? "ol" : "ul";
+            while (true) {
+                if (indent > listIndent) {
+                    listTypes.add(type);
+                    out.append('<').append(tag).append("><li>");
+                    listIndent++;
+                    if (listIndent == indent) {
+                        appendLine();
+                        return;
+                    }
+                } else if (indent == listIndent
+                        && type.equals(listTypes.get(listTypes.size() - 1))) {
+                    out.append("</li><li>");
+                    appendLine();
+                    return;
+                } else {
+                    popList();
+                }
+            }
+        }
+
+        private void popList() {
+            String type = listTypes.remove(listTypes.size() - 1);
+            out.append("</li></").append("ordered".equals(type) ? "ol" : "ul")
+                    .append('>');
+            listIndent--;
+        }
+
+        private void closeList() {
+            while (!listTypes.isEmpty()) {
+                popList();
+            }
+            listIndent = -1;
+        }
+
+        private void closeCode() {
+            if (inCode) {
+                out.append("\n</pre>");
+                inCode = false;
+            }
+        }
+
+        // ---- Tables ----
+
+        private void cell(String td) {
+            String[] fields = td.split("\\|", -1);
+            String table = field(fields, 0);
+            String row = field(fields, 1);
+            String cell = field(fields, 2);
+            if (!table.equals(tableId)) {
+                closeTable();
+                out.append("<table table_id=\"");
+                escapeAttribute(out, table);
+                out.append('"');
+                String classes = allowedClasses(field(fields, 6));
+                if (!classes.isEmpty()) {
+                    out.append(" class=\"").append(classes).append('"');
+                }
+                // The sanitizer's parser adds the implicit tbody
+                out.append("><tbody>");
+                tableId = table;
+            }
+            if (!row.equals(rowId)) {
+                closeRow();
+                out.append("<tr row_id=\"");
+                escapeAttribute(out, row);
+                out.append("\">");
+                rowId = row;
+            }
+            if (!cell.equals(cellId)) {
+                closeCell();
+                out.append("<td class=\"td-q\" table_id=\"");
+                escapeAttribute(out, table);
+                out.append("\" row_id=\"");
+                escapeAttribute(out, row);
+                out.append("\" cell_id=\"");
+                escapeAttribute(out, cell);
+                out.append('"');
+                cellAttribute("merge_id", field(fields, 3));
+                cellAttribute("colspan", field(fields, 4));
+                cellAttribute("rowspan", field(fields, 5));
+                out.append('>');
+                cellId = cell;
+            }
+        }
+
+        private void cellAttribute(String name, String value) {
+            if (!value.isEmpty()) {
+                out.append(' ').append(name).append("=\"");
+                escapeAttribute(out, value);
+                out.append('"');
+            }
+        }
+
+        private void closeCell() {
+            if (cellId != null) {
+                out.append("</td>");
+                cellId = null;
+            }
+        }
+
+        private void closeRow() {
+            closeCell();
+            if (rowId != null) {
+                out.append("</tr>");
+                rowId = null;
+            }
+        }
+
+        private void closeTable() {
+            closeRow();
+            if (tableId != null) {
+                out.append("</tbody></table>");
+                tableId = null;
+            }
+        }
+
+        private String allowedClasses(String classes) {
+            StringBuilder result = new StringBuilder();
+            for (String cls : classes.split("\\s+")) {
+                if (CLASS_NAME.matcher(cls).matches()
+                        && (allowedClasses.contains(cls)
+                                || ErteSanitizer.ALLOWED_ERTE_CLASSES
+                                        .contains(cls))) {
+                    result.append(result.isEmpty() ? "" : " ").append(cls);
+                }
+            }
+            return result.toString();
+        }
+
+        // ---- Inline formats ----
+
+        /**
+         * Opens the inline elements for the given formats, keeping those
+         * the previous operation left open when they match, as Quill merges
+         * adjacent equal formats.
+         */
+        private void openInline(ObjectNode attributes) {
+            wantedOpen.clear();
+            wantedClose.clear();
+            inlineWrappers(attributes, wantedOpen, wantedClose);
+            int common = 0;
+            while (common < openTags.size() && common < wantedOpen.size()
+                    && openTags.get(common).equals(wantedOpen.get(common))) {
+                common++;
+            }
+            closeInline(common);
+            for (int i = common; i < wantedOpen.size(); i++) {
+                line.append(wantedOpen.get(i));
+                openTags.add(wantedOpen.get(i));
+                closeTags.add(wantedClose.get(i));
+            }
+        }
+
+        private void closeInline(int keep) {
+            for (int i = openTags.size() - 1; i >= keep; i--) {
+                line.append(closeTags.remove(i));
+                openTags.remove(i);
+            }
+        }
+
+        /**
+         * Computes the inline elements for the given formats, outermost
+         * first, following Quill's {@code Inline.order}. Color and
+         * background go on the outermost element.
+         */
+        private void inlineWrappers(ObjectNode a, List<String> opens,
+                List<String> closes) {
+            if (a == null || a.isEmpty()) {
+                return;
+            }
+            if (a.path("code").asBoolean()) {
+                add(opens, closes, "<code", "code");
+            }
+            String script = text(a, "script");
+            if ("sub".equals(script) || "super".equals(script)) {
+                String tag = "sub".equals(script) ? "sub" : "sup";
+                add(opens, closes, "<" + tag, tag);
+            }
+            if (a.path("bold").asBoolean()) {
+                add(opens, closes, "<strong", "strong");
+            }
+            if (a.path("italic").asBoolean()) {
+                add(opens, closes, "<em", "em");
+            }
+            if (a.path("strike").asBoolean()) {
+                add(opens, closes, "<s", "s");
+            }
+            if (a.path("underline").asBoolean()) {
+                add(opens, closes, "<u", "u");
+            }
+            String link = text(a, "link");
+            if (link != null) {
+                StringBuilder open = new StringBuilder("<a");
+                if (hasProtocol(link, LINK_PROTOCOLS)) {
+                    open.append(" href=\"");
+                    escapeAttribute(open, link);
+                    open.append('"');
+                }
+                open.append(" rel=\"nofollow\"");
+                add(opens, closes, open.toString(), "a");
+            }
+            if (a.path("readonly").asBoolean()) {
+                add(opens, closes,
+                        "<span class=\"ql-readonly\" contenteditable=\"false\" aria-readonly=\"true\"",
+                        "span");
+            }
+            String style = declaration(null, "color", text(a, "color"));
+            style = declaration(style, "background-color",
+                    text(a, "background"));
+            if (style != null) {
+                if (opens.isEmpty()) {
+                    add(opens, closes, "<span", "span");
+                }
+                opens.set(0, opens.get(0) + " style=\"" + style + "\"");
+            }
+            for (int i = 0; i < opens.size(); i++) {
+                opens.set(i, opens.get(i) + ">");
+            }
+        }
+
+        private void add(List<String> opens, List<String> closes,
+                String open, String tag) {
+            opens.add(open);
+            closes.add("</" + tag + ">");
+        }
+
+        // ---- Embeds ----
+
+        private void placeholder(StringBuilder line, JsonNode value) {
+            if (!(value instanceof ObjectNode placeholder)) {
+                return;
+            }
+            line.append("<span class=\"ql-placeholder\" data-placeholder=\"");
+            escapeAttribute(line, placeholder.toString());
+            line.append("\"><span contenteditable=\"false\"");
+            StringBuilder inner = new StringBuilder();
+            String style = placeholderContent(placeholder, inner);
+            if (style != null) {
+                line.append(" style=\"").append(style).append('"');
+            }
+            line.append('>').append(inner).append("</span></span>");
+        }
+
+        /**
+         * Renders the placeholder text like the client's
+         * {@code PlaceholderBlot.setText()} and {@code applyFormat()}.
+         *
+         * @return the style of the content element, or {@code null}
+         */
+        private String placeholderContent(ObjectNode placeholder,
+                StringBuilder inner) {
+            String text = placeholder.path("text").asText("");
+            boolean alt = placeholder.path("altAppearance").asBoolean();
+            Matcher match = altAppearancePattern != null && !text.isEmpty()
+                    ? altAppearancePattern.matcher(text)
+                    : null;
+            if (match != null && match.find()) {
+                String altStyle = formatStyle(placeholder.get("altFormat"));
+                if (!alt) {
+                    escapeText(inner, placeholderTagStart
+                            + text.substring(0, match.start()));
+                }
+                inner.append("<span");
+                if (altStyle != null) {
+                    inner.append(" style=\"").append(altStyle).append('"');
+                }
+                inner.append('>');
+                escapeText(inner, match.group());
+                inner.append("</span>");
+                if (!alt) {
+                    escapeText(inner, text.substring(match.end())
+                            + placeholderTagEnd);
+                }
+            } else if (!alt || match == null) {
+                escapeText(inner, alt ? text
+                        : placeholderTagStart + text + placeholderTagEnd);
+            }
+            JsonNode format = placeholder.get("format");
+            if (format instanceof ObjectNode f) {
+                wrapContent(inner, f);
+            }
+            return formatStyle(format);
+        }
+
+        private void wrapContent(StringBuilder inner, ObjectNode format) {
+            String link = text(format, "link");
+            if (link != null && hasProtocol(link, Set.of("http", "https",
+                    "mailto"))) {
+                StringBuilder open = new StringBuilder("<a href=\"");
+                escapeAttribute(open, link);
+                inner.insert(0, open.append("\" rel=\"nofollow\">"))
+                        .append("</a>");
+            }
+            String script = text(format, "script");
+            if ("super".equals(script) || "sub".equals(script)) {
+                String tag = "sub".equals(script) ? "sub" : "sup";
+                inner.insert(0, "<" + tag + ">").append("</" + tag + ">");
+            }
+            if (format.path("code").asBoolean()) {
+                inner.insert(0, "<code>").append("</code>");
+            }
+        }
+
+        private String formatStyle(JsonNode format) {
+            if (!(format instanceof ObjectNode f)) {
+                return null;
+            }
+            String style = null;
+            for (var entry : f.properties()) {
+                String key = entry.getKey();
+                JsonNode value = entry.getValue();
+                switch (key) {
+                case "bold" -> style = declaration(style, "font-weight",
+                        value.asBoolean() ? "bold" : "normal");
+                case "italic" -> style = declaration(style, "font-style",
+                        value.asBoolean() ? "italic" : "normal");
+                case "font" -> style = declaration(style, "font-family",
+                        value.asText());
+                case "code", "link", "script" -> {
+                    // Rendered as wrapping elements
+                }
+                default -> {
+                    if (ErteSanitizer.ALLOWED_CSS_PROPERTIES.contains(key)
+                            && value.isValueNode()) {
+                        style = declaration(style, key, value.asText());
+                    }
+                }
+                }
+            }
+            return style;
+        }
+
+        private void image(StringBuilder line, JsonNode value,
+                ObjectNode attributes) {
+            String src = value.isTextual() ? value.asText().trim() : "";
+            if (!hasProtocol(src, IMAGE_PROTOCOLS)
+                    || !ErteSanitizer.isSafeDataUrl(src)) {
+                return;
+            }
+            line.append("<img src=\"");
+            escapeAttribute(line, src);
+            line.append('"');
+            String alt = text(attributes, "alt");
+            if (alt != null) {
+                line.append(" alt=\"");
+                escapeAttribute(line, alt);
+                line.append('"');
+            }
+            for (String name : new String[] { "height", "width" }) {
+                String dimension = text(attributes, name);
+                if (dimension != null
+                        && DIMENSION.matcher(dimension).matches()) {
+                    line.append(' ').append(name).append("=\"")
+                            .append(dimension).append('"');
+                }
+            }
+            line.append('>');
+        }
+    }
+
+    // ---- Helpers ----
+
+    private static String field(String[] fields, int index) {
+        return index < fields.length ? fields[index] : "";
+    }
+
+    private static String text(ObjectNode attributes, String name) {
+        if (attributes == null) {
+            return null;
+        }
+        JsonNode value = attributes.get(name);
+        return value != null && value.isValueNode() && !value.isNull()
+                ? value.asText()
+                : null;
+    }
+
+    private static boolean isSet(ObjectNode attributes, String name) {
+        if (attributes == null) {
+            return false;
+        }
+        JsonNode value = attributes.get(name);
+        return value != null && !value.isNull()
+                && !(value.isBoolean() && !value.asBoolean());
+    }
+
+    private static int integer(ObjectNode attributes, String name) {
+        return attributes == null ? 0 : attributes.path(name).asInt(0);
+    }
+
+    /**
+     * Returns whether a {@code link} format value may be kept in a
+     * document: a relative URL, a URL with a protocol the renderer links
+     * to or Quill accepts, or Quill's replacement for other links. Others,
+     * such as {@code javascript:} URLs, are rejected also when disguised
+     * with characters that browsers ignore.
+     */
+    static boolean isSafeLink(String link) {
+        String url = URL_IGNORED.matcher(link).replaceAll("");
+        Matcher m = PROTOCOL.matcher(url);
+        if (!m.lookingAt()) {
+            return true;
+        }
+        String protocol = m.group(1).toLowerCase(Locale.ROOT);
+        return LINK_PROTOCOLS.contains(protocol)
+                || EDITOR_LINK_PROTOCOLS.contains(protocol)
+                || SANITIZED_LINK.equalsIgnoreCase(url);
+    }
+
+    /**
+     * Returns whether an image source may be kept in a document: an
+     * {@code http} or {@code https} URL, or a {@code data:} URL that passes
+     * {@link ErteSanitizer#isSafeDataUrl(String)}. The protocol is checked
+     * with the characters that browsers ignore in URLs removed.
+     */
+    static boolean isSafeImageSource(String src) {
+        String url = URL_IGNORED.matcher(src).replaceAll("");
+        return hasProtocol(url, IMAGE_PROTOCOLS)
+                && ErteSanitizer.isSafeDataUrl(url);
+    }
+
+    /**
+     * Returns whether an image source is an {@code http} or {@code https}
+     * URL, checked like {@link #isSafeImageSource(String)}.
+     */
+    static boolean isRemoteImageSource(String src) {
+        return hasProtocol(URL_IGNORED.matcher(src).replaceAll(""),
+                REMOTE_IMAGE_PROTOCOLS);
+    }
+
+    private static boolean hasProtocol(String url, Set<String> protocols) {
+        Matcher m = PROTOCOL.matcher(url);
+        return m.lookingAt()
+                && protocols.contains(m.group(1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Appends a CSS declaration in the sanitizer's output format, if the
+     * value is plain (no functions other than the safe ones).
+     */
+    private static String declaration(String style, String property,
+            String value) {
+        if (value == null || value.isBlank()
+                || !CSS_VALUE.matcher(value).matches()) {
+            return style;
+        }
+        Matcher functions = CSS_FUNCTION
+                .matcher(value.toLowerCase(Locale.ROOT));
+        while (functions.find()) {
+            if (!ErteSanitizer.SAFE_CSS_FUNCTIONS
+                    .contains(functions.group())) {
+                return style;
+            }
+        }
+        String declaration = property + ": " + value.trim();
+        return style == null ? declaration : style + "; " + declaration;
+    }
+
+    private static void escapeText(StringBuilder out, CharSequence text) {
+        escapeText(out, text, 0, text.length());
+    }
+
+    private static void escapeText(StringBuilder out, CharSequence text,
+            int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+            case '&' -> out.append("&amp;");
+            case '<' -> out.append("&lt;");
+            case '>' -> out.append("&gt;");
+            case '\u00A0' -> out.append("&nbsp;");
+            default -> out.append(c);
+            }
+        }
+    }
+
+    private static void escapeAttribute(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '&' -> out.append("&amp;");
+            case '"' -> out.append("&quot;");
+            case '\u00A0' -> out.append("&nbsp;");
+            default -> out.append(c);
+            }
+        }
+    }
+}
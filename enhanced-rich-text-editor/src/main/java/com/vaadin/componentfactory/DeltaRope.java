@@ -0,0 +1,259 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Mutable document model backed by a rope of insert operations.
+ * <p>
+ * The operations are kept in an implicit treap ordered by document
+ * position, with the text length of every subtree cached in its root. This
+ * makes locating, inserting, deleting and formatting at a position
+ * {@code O(log n)} in the number of operations instead of the
+ * {@code O(n)} of {@link Delta#compose(Delta)}, and keeps
+ * {@link #length()} constant time. Splitting operations fragments the rope
+ * over time, so it is rebuilt from its normalized form once it has grown
+ * well beyond that.
+ * <p>
+ * Not thread-safe; used from the session thread only.
+ *
+ * @since 6.1.0
+ */
+final class DeltaRope implements Serializable {
+
+    private static final int MIN_COMPACT_NODES = 64;
+
+    private static final class Node implements Serializable {
+        Delta.Op op;
+        final int priority;
+        int length;
+        int size;
+        Node left;
+        Node right;
+
+        Node(Delta.Op op, int priority) {
+            this.op = op;
+            this.priority = priority;
+            this.length = op.length();
+            this.size = 1;
+        }
+    }
+
+    private Node root;
+    private int seed = 0x2545F491;
+    private int compactThreshold = MIN_COMPACT_NODES;
+
+    /**
+     * Creates a rope holding the given document.
+     *
+     * @param document an insert-only delta
+     */
+    DeltaRope(Delta document) {
+        if (!document.isDocument()) {
+            throw new IllegalArgumentException(
+                    "Rope content must consist of inserts only");
+        }
+        build(document);
+    }
+
+    /**
+     * Returns the document length, including Quill's trailing newline.
+     */
+    int length() {
+        return length(root);
+    }
+
+    /**
+     * Applies a change delta in place. Each operation costs
+     * {@code O(log n)}, plus the number of operations it formats.
+     *
+     * @param change the change to apply
+     * @throws IllegalArgumentException if the change retains or deletes
+     *                                  beyond the end of the document
+     */
+    void apply(Delta change) {
+        if (change.baseLength() > length()) {
+            throw new IllegalArgumentException("Change of base length "
+                    + change.baseLength() + " does not fit document of length "
+                    + length());
+        }
+        int position = 0;
+        for (Delta.Op op : change.getOps()) {
+            if (op.isRetain()) {
+                if (op.attributes != null) {
+                    format(position, op.retain, op.attributes);
+                }
+                position += op.retain;
+            } else if (op.isDelete()) {
+                delete(position, op.delete);
+            } else {
+                insert(position, op);
+                position += op.length();
+            }
+        }
+        if (size(root) > compactThreshold) {
+            build(toDelta());
+        }
+    }
+
+    /**
+     * Returns the document content in the range {@code [start, end)}.
+     */
+    Delta slice(int start, int end) {
+        Node[] lr = split(root, Math.max(0, start));
+        Node[] mr = split(lr[1], Math.max(0, end - start));
+        Delta.Builder builder = Delta.builder();
+        appendTo(mr[0], builder);
+        root = merge(lr[0], merge(mr[0], mr[1]));
+        return builder.build();
+    }
+
+    /**
+     * Returns the whole document as a normalized delta.
+     */
+    Delta toDelta() {
+        Delta.Builder builder = Delta.builder();
+        appendTo(root, builder);
+        return builder.build();
+    }
+
+    private void build(Delta document) {
+        root = null;
+        for (Delta.Op op : document.getOps()) {
+            root = merge(root, newNode(op));
+        }
+        compactThreshold = Math.max(MIN_COMPACT_NODES, size(root) * 4);
+    }
+
+    private void insert(int position, Delta.Op op) {
+        Node[] lr = split(root, position);
+        root = merge(merge(lr[0], newNode(op)), lr[1]);
+    }
+
+    private void delete(int position, int length) {
+        Node[] lr = split(root, position);
+        Node[] mr = split(lr[1], length);
+        root = merge(lr[0], mr[1]);
+    }
+
+    private void format(int position, int length, ObjectNode attributes) {
+        Node[] lr = split(root, position);
+        Node[] mr = split(lr[1], length);
+        formatAll(mr[0], attributes);
+        root = merge(lr[0], merge(mr[0], mr[1]));
+    }
+
+    private static void formatAll(Node node, ObjectNode attributes) {
+        if (node == null) {
+            return;
+        }
+        formatAll(node.left, attributes);
+        Delta.Op op = node.op;
+        node.op = Delta.Op.withAttributes(op, Delta.composeAttributes(
+                op.attributes, attributes, false));
+        formatAll(node.right, attributes);
+    }
+
+    private static void appendTo(Node node, Delta.Builder builder) {
+        // In-order traversal with an explicit stack; a fragmented rope can
+        // be deep enough for recursion to matter
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        Node current = node;
+        while (current != null || !stack.isEmpty()) {
+            while (current != null) {
+                stack.push(current);
+                current = current.left;
+            }
+            current = stack.pop();
+            builder.push(current.op);
+            current = current.right;
+        }
+    }
+
+    /**
+     * Splits the tree so that the left part holds exactly the first
+     * {@code position} characters. An operation spanning the split point
+     * is cut in two.
+     */
+    private Node[] split(Node node, int position) {
+        if (node == null) {
+            return new Node[] { null, null };
+        }
+        int leftLength = length(node.left);
+        int opLength = node.op.length();
+        if (position <= leftLength) {
+            Node[] lr = split(node.left, position);
+            node.left = lr[1];
+            update(node);
+            return new Node[] { lr[0], node };
+        }
+        if (position >= leftLength + opLength) {
+            Node[] lr = split(node.right, position - leftLength - opLength);
+            node.right = lr[0];
+            update(node);
+            return new Node[] { node, lr[1] };
+        }
+        int offset = position - leftLength;
+        Node head = newNode(node.op.slice(0, offset));
+        Node tail = newNode(node.op.slice(offset, opLength - offset));
+        return new Node[] { merge(node.left, head),
+                merge(tail, node.right) };
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private Node newNode(Delta.Op op) {
+        // xorshift32; deterministic so that the rope stays serializable
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return new Node(op, seed);
+    }
+
+    private static void update(Node node) {
+        node.length = length(node.left) + node.op.length()
+                + length(node.right);
+        node.size = size(node.left) + 1 + size(node.right);
+    }
+
+    private static int length(Node node) {
+        return node == null ? 0 : node.length;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
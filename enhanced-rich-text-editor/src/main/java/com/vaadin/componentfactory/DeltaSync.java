@@ -0,0 +1,303 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import tools.jackson.databind.JsonNode;
+
+/**
+ * Server-side state of the opt-in delta sync mode (see
+ * {@link EnhancedRichTextEditor#setDeltaSyncEnabled(boolean)}).
+ * <p>
+ * Holds the document model in a {@link DeltaRope} and applies the change
+ * deltas sent by the client. Only the received operations are validated;
+ * the document is never re-parsed as a whole. Whenever the state cannot be
+ * trusted (version gap, invalid change, checksum mismatch) the caller is
+ * told to request a full snapshot from the client.
+ * <p>
+ * Changes can also originate on the server ({@link #applyLocal(Delta)}).
+ * Such changes and client changes made before the client saw them are
+ * concurrent; both sides reconcile them with {@link Delta#transform} in
+ * the same way (server changes win ties), so that they converge. Every
+ * client message reports the last server change it has applied, which
+ * acknowledges all server changes up to it.
+ *
+ * @since 6.1.0
+ */
+final class DeltaSync implements Serializable {
+
+    private static final Pattern VALID_NAME = Pattern
+            .compile("[A-Za-z][A-Za-z0-9\\-_]*");
+    // Formats of the editor, whose values are strings, numbers or booleans
+    private static final Set<String> SCALAR_FORMATS = Set.of("align",
+            "background", "blockquote", "bold", "code", "code-block", "color",
+            "direction", "font", "header", "indent", "italic", "link", "list",
+            "readonly", "script", "size", "strike", "underline");
+
+    /**
+     * Outcome of applying a message from the client.
+     */
+    enum Result {
+        /** The message was applied and the model is consistent. */
+        APPLIED,
+        /** The model is out of sync; a snapshot must be requested. */
+        RESYNC_REQUIRED
+    }
+
+    /**
+     * A server change not yet acknowledged by the client.
+     */
+    private static final class Outstanding implements Serializable {
+        final long seq;
+        Delta change;
+
+        Outstanding(long seq, Delta change) {
+            this.seq = seq;
+            this.change = change;
+        }
+    }
+
+    private DeltaRope document;
+    private long version;
+    private long serverSeq;
+    private final List<Outstanding> outstanding = new ArrayList<>();
+    private long appliedChanges;
+    private long resyncCount;
+    private long revision;
+
+    /**
+     * Returns the synchronized document, or {@code null} if no snapshot has
+     * been received yet. Builds a new delta; prefer {@link #length()} where
+     * only the length is needed.
+     */
+    Delta getDocument() {
+        return document != null ? document.toDelta() : null;
+    }
+
+    /**
+     * Returns whether a synchronized document is available.
+     */
+    boolean hasDocument() {
+        return document != null;
+    }
+
+    /**
+     * Returns the document length including the trailing newline, in
+     * constant time.
+     *
+     * @throws IllegalStateException if no document is available
+     */
+    int length() {
+        requireDocument();
+        return document.length();
+    }
+
+    /**
+     * Returns the document content in the range {@code [start, end)}.
+     *
+     * @throws IllegalStateException if no document is available
+     */
+    Delta slice(int start, int end) {
+        requireDocument();
+        return document.slice(start, end);
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    long getServerSeq() {
+        return serverSeq;
+    }
+
+    /**
+     * Returns whether server changes are waiting for the client's
+     * acknowledgement.
+     */
+    boolean hasOutstandingChanges() {
+        return !outstanding.isEmpty();
+    }
+
+    long getAppliedChanges() {
+        return appliedChanges;
+    }
+
+    long getResyncCount() {
+        return resyncCount;
+    }
+
+    /**
+     * Returns a counter that changes whenever the document may have
+     * changed, for caching values derived from it.
+     */
+    long getRevision() {
+        return revision;
+    }
+
+    /**
+     * Forgets the document, e.g. when delta sync is disabled.
+     */
+    void reset() {
+        revision++;
+        document = null;
+        version = 0;
+        outstanding.clear();
+    }
+
+    /**
+     * Applies a message sent by the client.
+     *
+     * @param version    the client's message sequence number
+     * @param full       whether {@code delta} is a full snapshot
+     * @param delta      the snapshot or change delta
+     * @param checksum   the client's document checksum after the change, or
+     *                   {@code null} if not sent
+     * @param serverSeen the sequence number of the last server change the
+     *                   client had applied
+     * @return whether the model is in sync
+     */
+    Result apply(long version, boolean full, Delta delta, Long checksum,
+            long serverSeen) {
+        revision++;
+        outstanding.removeIf(o -> o.seq <= serverSeen);
+        if (full) {
+            if (!delta.isDocument() || !isValid(delta)) {
+                return requireResync();
+            }
+            // Server changes the client has not seen yet are transformed
+            // there against edits that this snapshot does not separate
+            // out, so they cannot be rebased here. Wait for a snapshot
+            // taken after the client has applied them.
+            if (!outstanding.isEmpty()) {
+                return requireResync();
+            }
+            document = new DeltaRope(delta);
+        } else {
+            if (document == null || version != this.version + 1
+                    || !isValid(delta)) {
+                return requireResync();
+            }
+            Delta change = delta;
+            for (Outstanding o : outstanding) {
+                Delta transformed = o.change.transform(change, true);
+                o.change = change.transform(o.change, false);
+                change = transformed;
+            }
+            if (change.baseLength() > document.length()) {
+                return requireResync();
+            }
+            document.apply(change);
+            appliedChanges++;
+        }
+        this.version = version;
+        // The client's checksum only covers server changes it has seen
+        if (checksum != null && outstanding.isEmpty()
+                && checksum != document.toDelta().checksum()) {
+            return requireResync();
+        }
+        return Result.APPLIED;
+    }
+
+    /**
+     * Applies a change made on the server and registers it as outstanding
+     * until the client acknowledges it.
+     *
+     * @param change the change, relative to the current document
+     * @return the sequence number to send to the client with the change
+     * @throws IllegalStateException    if no document is available
+     * @throws IllegalArgumentException if the change does not fit the
+     *                                  document
+     */
+    long applyLocal(Delta change) {
+        requireDocument();
+        revision++;
+        document.apply(change);
+        outstanding.add(new Outstanding(++serverSeq, change));
+        return serverSeq;
+    }
+
+    /**
+     * Drops the document after a message that could not be applied.
+     */
+    Result requireResync() {
+        revision++;
+        document = null;
+        resyncCount++;
+        return Result.RESYNC_REQUIRED;
+    }
+
+    private void requireDocument() {
+        if (document == null) {
+            throw new IllegalStateException(
+                    "No synchronized document available");
+        }
+    }
+
+    /**
+     * Validates the operations of a delta: embed and attribute names must
+     * be plain identifiers, attribute values must not be arrays, and the
+     * values of the editor's formats must be scalars. Links must pass the
+     * protocol check of {@link DeltaHtmlRenderer}, and image sources its
+     * allowlist of {@code http}, {@code https} and safe {@code data:}
+     * URLs.
+     */
+    static boolean isValid(Delta delta) {
+        for (Delta.Op op : delta.getOps()) {
+            if (op.embed != null && !isValidEmbed(op.embed.properties()
+                    .iterator().next())) {
+                return false;
+            }
+            if (op.attributes != null) {
+                for (var entry : op.attributes.properties()) {
+                    if (!isValidAttribute(entry.getKey(), entry.getValue())) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isValidAttribute(String name, JsonNode value) {
+        if (!VALID_NAME.matcher(name).matches() || value.isArray()) {
+            return false;
+        }
+        if (SCALAR_FORMATS.contains(name) && !value.isValueNode()) {
+            return false;
+        }
+        return !"link".equals(name) || !value.isTextual()
+                || DeltaHtmlRenderer.isSafeLink(value.asText());
+    }
+
+    private static boolean isValidEmbed(Map.Entry<String, JsonNode> embed) {
+        if (!VALID_NAME.matcher(embed.getKey()).matches()) {
+            return false;
+        }
+        if ("image".equals(embed.getKey())) {
+            JsonNode src = embed.getValue();
+            return src.isTextual()
+                    && DeltaHtmlRenderer.isSafeImageSource(src.asText());
+        }
+        return true;
+    }
+}
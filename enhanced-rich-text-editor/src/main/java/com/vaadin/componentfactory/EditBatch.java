@@ -0,0 +1,245 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Objects;
+
+import com.vaadin.flow.internal.JacksonUtils;
+
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Collects programmatic edits and applies them to the editor as a single
+ * change.
+ * <p>
+ * Each operation is composed into one delta on the server. {@link #apply()}
+ * sends it to the browser in one call, where it is applied with a single
+ * {@code updateContents} and becomes one undo step. This avoids a separate
+ * JavaScript execution per edit, e.g. when filling a template with
+ * hundreds of values.
+ * <p>
+ * Positions refer to the document as left by the preceding operations of
+ * the same batch. Operations reaching beyond the end of the document are
+ * cut off at its end when the batch is applied.
+ * <p>
+ * Usage:
+ * <pre>
+ * editor.batchEdit()
+ *         .insertText(0, "Dear ")
+ *         .insertPlaceholder(5, new Placeholder("Name"))
+ *         .format(0, 4, Map.of("bold", true))
+ *         .apply();
+ * </pre>
+ *
+ * @see EnhancedRichTextEditor#batchEdit()
+ * @since 6.1.0
+ */
+public final class EditBatch implements Serializable {
+
+    private final EnhancedRichTextEditor editor;
+    private Delta change = Delta.empty();
+    private int operationCount;
+
+    EditBatch(EnhancedRichTextEditor editor) {
+        this.editor = editor;
+    }
+
+    /**
+     * Inserts plain text.
+     *
+     * @param position the position to insert at
+     * @param text     the text to insert (not null)
+     * @return this batch
+     */
+    public EditBatch insertText(int position, String text) {
+        return insertText(position, text, null);
+    }
+
+    /**
+     * Inserts text with the given inline formats, e.g.
+     * {@code Map.of("bold", true)}.
+     *
+     * @param position the position to insert at
+     * @param text     the text to insert (not null)
+     * @param format   the formats, or {@code null} for none
+     * @return this batch
+     */
+    public EditBatch insertText(int position, String text,
+            Map<String, Object> format) {
+        Objects.requireNonNull(text, "Text cannot be null");
+        return add(Delta.builder().retain(requirePosition(position))
+                .insert(text, toAttributes(format)).build());
+    }
+
+    /**
+     * Inserts an embed whose value is {@code true}, such as {@code "tab"},
+     * {@code "soft-break"} or {@code "nbsp"}.
+     *
+     * @param position the position to insert at
+     * @param type     the embed type (not null)
+     * @return this batch
+     */
+    public EditBatch insertEmbed(int position, String type) {
+        Objects.requireNonNull(type, "Embed type cannot be null");
+        ObjectNode embed = JacksonUtils.getMapper().createObjectNode();
+        embed.put(type, true);
+        return add(Delta.builder().retain(requirePosition(position))
+                .insertEmbed(embed, null).build());
+    }
+
+    /**
+     * Inserts a placeholder.
+     *
+     * @param position    the position to insert at
+     * @param placeholder the placeholder (not null)
+     * @return this batch
+     */
+    public EditBatch insertPlaceholder(int position, Placeholder placeholder) {
+        Objects.requireNonNull(placeholder, "Placeholder cannot be null");
+        ObjectNode embed = JacksonUtils.getMapper().createObjectNode();
+        embed.set("placeholder", placeholder.toJson());
+        return add(Delta.builder().retain(requirePosition(position))
+                .insertEmbed(embed, null).build());
+    }
+
+    /**
+     * Applies formats to a range. A {@code null} value removes that format;
+     * see also {@link #removeFormat(int, int, String...)}.
+     *
+     * @param position the start of the range
+     * @param length   the length of the range
+     * @param format   the formats to apply (not null)
+     * @return this batch
+     */
+    public EditBatch format(int position, int length,
+            Map<String, Object> format) {
+        Objects.requireNonNull(format, "Format cannot be null");
+        return add(Delta.builder().retain(requirePosition(position))
+                .retain(requireLength(length), toAttributes(format))
+                .build());
+    }
+
+    /**
+     * Removes formats from a range.
+     *
+     * @param position the start of the range
+     * @param length   the length of the range
+     * @param names    the names of the formats to remove
+     * @return this batch
+     */
+    public EditBatch removeFormat(int position, int length, String... names) {
+        ObjectNode attributes = JacksonUtils.getMapper().createObjectNode();
+        for (String name : names) {
+            attributes.putNull(name);
+        }
+        return add(Delta.builder().retain(requirePosition(position))
+                .retain(requireLength(length), attributes).build());
+    }
+
+    /**
+     * Deletes a range.
+     *
+     * @param position the start of the range
+     * @param length   the number of characters to delete
+     * @return this batch
+     */
+    public EditBatch delete(int position, int length) {
+        return add(Delta.builder().retain(requirePosition(position))
+                .delete(requireLength(length)).build());
+    }
+
+    /**
+     * Returns the number of operations added since the last
+     * {@link #apply()}.
+     *
+     * @return the operation count
+     */
+    public int getOperationCount() {
+        return operationCount;
+    }
+
+    /**
+     * Returns the composed change of all operations added since the last
+     * {@link #apply()}.
+     *
+     * @return the change delta
+     */
+    public Delta getDelta() {
+        return change;
+    }
+
+    /**
+     * Sends the composed change to the editor and clears this batch so it
+     * can be reused. Does nothing if the batch is empty or the editor is
+     * disabled or read-only.
+     */
+    public void apply() {
+        Delta pending = change;
+        change = Delta.empty();
+        operationCount = 0;
+        if (!pending.isEmpty()) {
+            editor.applyBatch(pending);
+        }
+    }
+
+    private EditBatch add(Delta step) {
+        change = change.compose(step);
+        operationCount++;
+        return this;
+    }
+
+    private static int requirePosition(int position) {
+        if (position < 0) {
+            throw new IllegalArgumentException(
+                    "Position must not be negative: " + position);
+        }
+        return position;
+    }
+
+    private static int requireLength(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException(
+                    "Length must not be negative: " + length);
+        }
+        return length;
+    }
+
+    private static ObjectNode toAttributes(Map<String, Object> format) {
+        if (format == null || format.isEmpty()) {
+            return null;
+        }
+        ObjectNode attributes = JacksonUtils.getMapper().createObjectNode();
+        format.forEach((key, value) -> {
+            if (value == null) {
+                attributes.putNull(key);
+            } else if (value instanceof Boolean b) {
+                attributes.put(key, b);
+            } else if (value instanceof Integer i) {
+                attributes.put(key, i);
+            } else if (value instanceof Long l) {
+                attributes.put(key, l);
+            } else if (value instanceof Double d) {
+                attributes.put(key, d);
+            } else {
+                attributes.put(key, String.valueOf(value));
+            }
+        });
+        return attributes;
+    }
+}
@@ -18,8 +18,8 @@ package com.vaadin.componentfactory;
 
 import java.io.Serializable;
 import java.util.*;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import com.vaadin.componentfactory.toolbar.ToolbarSlot;
 import com.vaadin.flow.component.AbstractField;
@@ -36,12 +36,14 @@ import com.vaadin.flow.component.dependency.JsModule;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.richtexteditor.RichTextEditor;
+import com.vaadin.flow.data.provider.CallbackDataProvider.FetchCallback;
+import com.vaadin.flow.data.provider.Query;
 import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.internal.JacksonUtils;
 import com.vaadin.flow.shared.Registration;
 
-import org.jsoup.Jsoup;
-import org.jsoup.safety.Safelist;
+import org.slf4j.LoggerFactory;
+
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.node.ArrayNode;
 import tools.jackson.databind.node.ObjectNode;
@@ -158,66 +160,54 @@ public class EnhancedRichTextEditor extends RichTextEditor {
                         context -> command.accept(ui)));
     }
 
-    /**
-     * ERTE-specific CSS classes allowed through the sanitizer.
-     * Each migration phase adds its classes here.
-     */
-    private static final Set<String> ALLOWED_ERTE_CLASSES = Set.of(
-            "ql-readonly", "ql-tab", "ql-soft-break", "ql-placeholder",
-            "ql-nbsp", "td-q", "ql-editor__table--hideBorder");
-    private static final Set<String> ALLOWED_CSS_PROPERTIES = Set.of(
-            // Text
-            "color", "background-color", "background", "font-size",
-            "font-family", "font-weight", "font-style",
-            // Layout
-            "text-align", "text-indent", "text-decoration",
-            "text-decoration-line", "text-decoration-style",
-            "text-decoration-color", "direction",
-            // Spacing
-            "line-height", "letter-spacing", "word-spacing",
-            // Box
-            "margin", "margin-top", "margin-right", "margin-bottom",
-            "margin-left", "padding", "padding-top", "padding-right",
-            "padding-bottom", "padding-left",
-            // Border
-            "border", "border-top", "border-right", "border-bottom",
-            "border-left", "border-width", "border-style", "border-color",
-            "border-collapse", "border-spacing",
-            // Display
-            "display", "white-space", "vertical-align", "visibility",
-            "opacity",
-            // Size
-            "width", "height", "min-width", "max-width", "min-height",
-            "max-height",
-            // Position
-            "position", "top", "right", "bottom", "left", "float",
-            // Other
-            "list-style-type", "overflow", "overflow-x", "overflow-y",
-            "cursor");
-    private static final Set<String> SAFE_CSS_FUNCTIONS = Set.of(
-            "rgb(", "rgba(", "hsl(", "hsla(", "calc(");
-    private static final Set<String> SAFE_DATA_MIMES = Set.of(
-            "image/png", "image/jpeg", "image/jpg", "image/gif",
-            "image/webp", "image/bmp", "image/x-icon");
-    private static final Pattern CLASS_ATTR_PATTERN = Pattern
-            .compile("class=\"([^\"]*)\"");
-    private static final Pattern STYLE_ATTR_PATTERN = Pattern
-            .compile("style=\"([^\"]*)\"");
-    private static final Pattern CSS_COMMENT_PATTERN = Pattern
-            .compile("/\\*.*?\\*/");
-    private static final Pattern CSS_FUNCTION_PATTERN = Pattern
-            .compile("\\w+\\s*\\(");
-    private static final Pattern DATA_SRC_PATTERN = Pattern.compile(
-            "src=\"data:\\s*([^;\"]+)[^\"]*\"",
-            Pattern.CASE_INSENSITIVE);
+    // Upper bound of one placeholder page request from the client
+    static final int MAX_PLACEHOLDER_FETCH = 500;
+    // Fetched placeholders kept for event lookups, most recently used first
+    static final int FETCHED_PLACEHOLDER_CACHE_SIZE = 2 * MAX_PLACEHOLDER_FETCH;
+
     private static final Pattern VALID_CLASS_NAME = Pattern
             .compile("[A-Za-z][A-Za-z0-9\\-]*");
     private List<Placeholder> placeholders;
+    // Master placeholders by text for the per-event lookups. Replaced as a
+    // whole, never modified, so events may read it from any thread.
+    private Map<String, Placeholder> placeholdersByText = Map.of();
+    private FetchCallback<Placeholder, String> placeholderProvider;
+    private Registration placeholderFetchRegistration;
+    // Placeholders recently sent to the client by the provider, for event
+    // lookups. Bounded, since the dialog may page through any number of
+    // placeholders; an evicted one is resolved to the event's own data.
+    private final Map<String, Placeholder> fetchedPlaceholders = newFetchedPlaceholderCache();
 
     private boolean ertePendingPresentationUpdate;
     private final Set<String> dynamicAllowedClasses = new LinkedHashSet<>();
     private final Map<String, Set<String>> dynamicAllowedAttributes = new LinkedHashMap<>();
     private final Set<String> dynamicAllowedCssProperties = new LinkedHashSet<>();
+    // Compiled policy for the dynamic allowlists above; rebuilt lazily after
+    // any of them changes. Transient because the jsoup Safelist is not
+    // serializable.
+    private transient ErteSanitizer sanitizer;
+    // Last sanitized document, used to skip re-sanitizing identical input
+    // (e.g. setModelValue re-reading the htmlValue that
+    // setPresentationValue just wrote). Transient so that serialized
+    // sessions do not carry extra copies of the document; the memo starts
+    // empty again after deserialization.
+    private transient ErteSanitizer memoPolicy;
+    private transient ImageStore memoImageStore;
+    private transient String memoInput;
+    private transient int memoInputHash;
+    private transient String memoOutput;
+    private transient int memoOutputHash;
+    private long sanitizeCacheHits;
+    private long sanitizeCacheMisses;
+    private ImageStore imageStore;
+    // URLs of the images already moved to the image store
+    private ErteSanitizer.StoredImages storedImages;
+    private SanitizerMetrics sanitizerMetrics = SanitizerMetrics.noop();
+    // Statistics of the value (or, in delta sync mode, the document
+    // revision) they were computed from; recomputed lazily after a change.
+    private TextStatistics textStatistics;
+    private String textStatisticsValue;
+    private long textStatisticsRevision;
 
     /**
      * Sanitizes HTML with ERTE's extended whitelist using only static allowed
@@ -267,178 +257,143 @@ public class EnhancedRichTextEditor extends RichTextEditor {
             Set<String> extraClasses,
             Map<String, Set<String>> extraAttributes,
             Set<String> extraCssProperties) {
+        return ErteSanitizer.sanitize(html, extraClasses, extraAttributes,
+                extraCssProperties);
+    }
+
+    /**
+     * Returns the compiled sanitizer policy for this editor's current
+     * dynamic allowlists. The policy is cached until one of the allowlists
+     * is modified and is shared with other editors using the same
+     * configuration.
+     */
+    private ErteSanitizer getSanitizer() {
+        if (sanitizer == null) {
+            sanitizer = ErteSanitizer.of(dynamicAllowedClasses,
+                    dynamicAllowedAttributes, dynamicAllowedCssProperties);
+        }
+        return sanitizer;
+    }
+
+    /**
+     * Sanitizes with this editor's policy, reusing the previous result when
+     * the input equals the last input or the last (already sanitized)
+     * output. The memo is keyed on the policy instance, so changing an
+     * allowlist implicitly invalidates it.
+     */
+    String sanitizeMemoized(String html) {
         if (html == null || html.isEmpty()) {
             return html;
         }
-        var settings = new org.jsoup.nodes.Document.OutputSettings();
-        settings.prettyPrint(false);
-
-        // Start from RTE 2's safelist and extend for ERTE
-        Safelist safelist = Safelist.basic()
-                .addTags("img", "h1", "h2", "h3", "s",
-                         "table", "tbody", "tr", "td", "th",
-                         "colgroup", "col")
-                .addAttributes("img", "align", "alt", "height", "src",
-                        "title", "width")
-                .addAttributes(":all", "style", "class")
-                .addProtocols("img", "src", "data", "http", "https")
-                // ERTE additions
-                .addAttributes("span", "contenteditable",
-                        "aria-readonly", "data-placeholder")
-                // Table additions
-                .addAttributes("td", "table_id", "row_id", "cell_id",
-                        "merge_id", "colspan", "rowspan", "table-class")
-                .addAttributes("tr", "row_id")
-                .addAttributes("table", "table_id");
-
-        // Dynamic attributes registered via addAllowedHtmlAttributes()
-        for (var entry : extraAttributes.entrySet()) {
-            String tag = entry.getKey();
-            Set<String> attrs = entry.getValue();
-            if (!attrs.isEmpty()) {
-                safelist.addAttributes(tag, attrs.toArray(String[]::new));
+        ErteSanitizer policy = getSanitizer();
+        if (policy == memoPolicy && imageStore == memoImageStore) {
+            int hash = html.hashCode();
+            if ((hash == memoInputHash && html.equals(memoInput))
+                    || (hash == memoOutputHash && html.equals(memoOutput))) {
+                sanitizeCacheHits++;
+                return memoOutput;
             }
         }
+        sanitizeCacheMisses++;
+        String sanitized = policy.sanitize(html, storedImages,
+                sanitizerMetrics == SanitizerMetrics.noop() ? null
+                        : sanitizerMetrics);
+        memoPolicy = policy;
+        memoImageStore = imageStore;
+        memoInput = html;
+        memoInputHash = html.hashCode();
+        memoOutput = sanitized;
+        memoOutputHash = sanitized.hashCode();
+        return sanitized;
+    }
 
-        String safe = Jsoup.clean(html, "", safelist, settings);
-
-        // Post-filter: only allow known ERTE classes, strip unknown ones
-        safe = filterErteClasses(safe, extraClasses);
-
-        // Post-filter: restrict style attributes to safe CSS properties
-        safe = filterStyleAttributes(safe, extraCssProperties);
-
-        // Post-filter: restrict data: URLs to safe image MIME types
-        safe = filterDataUrls(safe);
+    /**
+     * Returns how many times sanitizing a value was skipped because the
+     * same content had just been sanitized by this editor.
+     *
+     * @return the number of sanitizer cache hits
+     * @since 6.1.0
+     */
+    public long getSanitizeCacheHitCount() {
+        return sanitizeCacheHits;
+    }
 
-        // Post-filter: only allow contenteditable="false"
-        safe = safe.replace("contenteditable=\"true\"", "");
-        safe = safe.replace("contenteditable=\"\"", "");
+    /**
+     * Returns how many times a value had to be fully sanitized by this
+     * editor.
+     *
+     * @return the number of sanitizer cache misses
+     * @since 6.1.0
+     */
+    public long getSanitizeCacheMissCount() {
+        return sanitizeCacheMisses;
+    }
 
-        return safe;
+    /**
+     * Sets the store for images pasted or inserted as {@code data:} URLs.
+     * When set, the sanitizer decodes each {@code data:} URL image of the
+     * HTML value into the store and replaces its {@code src} with the URL
+     * the store returns, so the value holds a short reference instead of
+     * the base64 payload. Images that cannot be stored are kept inline.
+     * <p>
+     * Images stored from a value sent by the client are replaced with their
+     * references in the browser as well, so they are not sent again with
+     * the next value change. Where the browser cannot compute the SHA-256
+     * hashes this relies on (pages not served from a secure context), the
+     * client keeps the {@code data:} URL; the editor remembers the URLs of
+     * the images it has stored and stores each image only once.
+     * <p>
+     * Applies to the HTML value ({@link #getValue()}) from the next value
+     * change; Delta values ({@link #asDelta()}) are not changed.
+     *
+     * @param imageStore the image store, or {@code null} to keep images
+     *                   inline (the default)
+     * @see FileSystemImageStore
+     * @since 6.1.0
+     */
+    public void setImageStore(ImageStore imageStore) {
+        this.imageStore = imageStore;
+        storedImages = imageStore != null
+                ? new ErteSanitizer.StoredImages(imageStore)
+                : null;
     }
 
     /**
-     * Filters class attributes to only keep standard Quill classes
-     * (ql-align-*, ql-indent-*), known ERTE classes, and dynamic extra
-     * classes registered via {@link #addAllowedHtmlClasses(String...)}.
+     * Returns the store for {@code data:} URL images.
+     *
+     * @return the image store, or {@code null} if images are kept inline
+     * @see #setImageStore(ImageStore)
+     * @since 6.1.0
      */
-    private static String filterErteClasses(String html,
-            Set<String> extraClasses) {
-        Matcher m = CLASS_ATTR_PATTERN.matcher(html);
-        StringBuilder sb = new StringBuilder();
-        while (m.find()) {
-            String classValue = m.group(1);
-            String[] classes = classValue.split("\\s+");
-            StringBuilder filtered = new StringBuilder();
-            for (String cls : classes) {
-                if (cls.isEmpty()) continue;
-                // Keep standard Quill classes for alignment/indent
-                if (cls.startsWith("ql-align")
-                        || cls.startsWith("ql-indent")) {
-                    if (filtered.length() > 0) filtered.append(' ');
-                    filtered.append(cls);
-                }
-                // Keep known ERTE classes
-                else if (ALLOWED_ERTE_CLASSES.contains(cls)) {
-                    if (filtered.length() > 0) filtered.append(' ');
-                    filtered.append(cls);
-                }
-                // Keep dynamic extra classes (e.g., template IDs)
-                else if (!extraClasses.isEmpty()
-                        && extraClasses.contains(cls)) {
-                    if (filtered.length() > 0) filtered.append(' ');
-                    filtered.append(cls);
-                }
-                // Strip everything else
-            }
-            m.appendReplacement(sb,
-                    "class=\"" + Matcher.quoteReplacement(filtered.toString())
-                            + "\"");
-        }
-        m.appendTail(sb);
-        return sb.toString();
+    public ImageStore getImageStore() {
+        return imageStore;
     }
 
     /**
-     * Filters style attributes to only allow safe CSS properties. Strips
-     * dangerous CSS functions (only whitelisted ones like rgb/calc allowed),
-     * {@code @import} directives, and CSS comments.
+     * Sets the metrics that receive the measurements of every value this
+     * editor sanitizes: input and output size, the time spent in each
+     * sanitizer stage and the number of removed classes, style declarations
+     * and attributes. Values answered from the sanitizer cache (see
+     * {@link #getSanitizeCacheHitCount()}) are not measured.
+     *
+     * @param metrics the metrics, or {@code null} to stop measuring (same
+     *                as {@link SanitizerMetrics#noop()}, the default)
+     * @since 6.1.0
      */
-    private static String filterStyleAttributes(String html,
-            Set<String> extraCssProperties) {
-        Matcher m = STYLE_ATTR_PATTERN.matcher(html);
-        StringBuilder sb = new StringBuilder();
-        while (m.find()) {
-            String styleValue = m.group(1);
-            // Strip CSS comments first
-            styleValue = CSS_COMMENT_PATTERN.matcher(styleValue).replaceAll("");
-            String[] declarations = styleValue.split(";");
-            StringBuilder filtered = new StringBuilder();
-            for (String decl : declarations) {
-                decl = decl.trim();
-                if (decl.isEmpty()) continue;
-                int colon = decl.indexOf(':');
-                if (colon < 0) continue;
-                String property = decl.substring(0, colon).trim()
-                        .toLowerCase(Locale.ROOT);
-                String value = decl.substring(colon + 1).trim();
-                // Skip unknown properties
-                if (!ALLOWED_CSS_PROPERTIES.contains(property)
-                        && (extraCssProperties.isEmpty()
-                            || !extraCssProperties.contains(property)))
-                    continue;
-                // Skip values containing @import
-                if (value.toLowerCase(Locale.ROOT).contains("@import"))
-                    continue;
-                // Check for CSS function calls — only allow whitelisted ones
-                Matcher funcMatcher = CSS_FUNCTION_PATTERN.matcher(
-                        value.toLowerCase(Locale.ROOT));
-                boolean hasDangerousFunction = false;
-                while (funcMatcher.find()) {
-                    String func = funcMatcher.group();
-                    if (!SAFE_CSS_FUNCTIONS.contains(func)) {
-                        hasDangerousFunction = true;
-                        break;
-                    }
-                }
-                if (hasDangerousFunction) continue;
-                if (filtered.length() > 0) filtered.append("; ");
-                filtered.append(property).append(": ").append(value);
-            }
-            if (filtered.length() > 0) {
-                m.appendReplacement(sb, "style=\""
-                        + Matcher.quoteReplacement(filtered.toString())
-                        + "\"");
-            } else {
-                // Remove empty style attribute entirely
-                m.appendReplacement(sb, "");
-            }
-        }
-        m.appendTail(sb);
-        return sb.toString();
+    public void setSanitizerMetrics(SanitizerMetrics metrics) {
+        sanitizerMetrics = metrics != null ? metrics
+                : SanitizerMetrics.noop();
     }
 
     /**
-     * Filters {@code data:} URLs in {@code src} attributes to only allow
-     * safe image MIME types. SVG is excluded (can contain scripts).
+     * Returns the metrics that receive the sanitizer measurements.
+     *
+     * @return the sanitizer metrics, never {@code null}
+     * @see #setSanitizerMetrics(SanitizerMetrics)
+     * @since 6.1.0
      */
-    private static String filterDataUrls(String html) {
-        Matcher m = DATA_SRC_PATTERN.matcher(html);
-        StringBuilder sb = new StringBuilder();
-        while (m.find()) {
-            String mime = m.group(1).trim().toLowerCase(Locale.ROOT);
-            if (SAFE_DATA_MIMES.contains(mime)) {
-                // Keep safe data URL as-is
-                m.appendReplacement(sb,
-                        Matcher.quoteReplacement(m.group()));
-            } else {
-                // Strip entire src attribute for unsafe MIME types
-                m.appendReplacement(sb, "");
-            }
-        }
-        m.appendTail(sb);
-        return sb.toString();
+    public SanitizerMetrics getSanitizerMetrics() {
+        return sanitizerMetrics;
     }
 
     // ---- Dynamic Allowed HTML Classes API ----
@@ -463,6 +418,7 @@ public class EnhancedRichTextEditor extends RichTextEditor {
             validateClassName(cls);
             dynamicAllowedClasses.add(cls);
         }
+        sanitizer = null;
     }
 
     /**
@@ -475,6 +431,7 @@ public class EnhancedRichTextEditor extends RichTextEditor {
         for (String cls : classNames) {
             dynamicAllowedClasses.remove(cls);
         }
+        sanitizer = null;
     }
 
     /**
@@ -519,6 +476,7 @@ public class EnhancedRichTextEditor extends RichTextEditor {
         dynamicAllowedAttributes
                 .computeIfAbsent(tag, k -> new LinkedHashSet<>())
                 .addAll(Arrays.asList(attributes));
+        sanitizer = null;
     }
 
     /**
@@ -539,6 +497,7 @@ public class EnhancedRichTextEditor extends RichTextEditor {
             if (attrs.isEmpty()) {
                 dynamicAllowedAttributes.remove(tag);
             }
+            sanitizer = null;
         }
     }
 
@@ -620,6 +579,7 @@ public class EnhancedRichTextEditor extends RichTextEditor {
             validateCssProperty(prop);
             dynamicAllowedCssProperties.add(prop);
         }
+        sanitizer = null;
     }
 
     /**
@@ -632,6 +592,7 @@ public class EnhancedRichTextEditor extends RichTextEditor {
         for (String prop : properties) {
             dynamicAllowedCssProperties.remove(prop);
         }
+        sanitizer = null;
     }
 
     /**
@@ -703,9 +664,7 @@ public class EnhancedRichTextEditor extends RichTextEditor {
      */
     @Override
     protected void setPresentationValue(String newPresentationValue) {
-        String sanitized = erteSanitize(newPresentationValue,
-                dynamicAllowedClasses, dynamicAllowedAttributes,
-                dynamicAllowedCssProperties);
+        String sanitized = sanitizeMemoized(newPresentationValue);
         getElement().setProperty("htmlValue", sanitized);
         if (!ertePendingPresentationUpdate) {
             ertePendingPresentationUpdate = true;
@@ -759,14 +718,32 @@ public class EnhancedRichTextEditor extends RichTextEditor {
         // tables before passing the value here.
         String rawHtml = getElement().getProperty("htmlValue", "");
         if (rawHtml != null && !rawHtml.isEmpty()) {
-            super.setModelValue(erteSanitize(rawHtml,
-                    dynamicAllowedClasses, dynamicAllowedAttributes,
-                    dynamicAllowedCssProperties), fromClient);
+            super.setModelValue(sanitizeMemoized(rawHtml), fromClient);
+            if (fromClient) {
+                pushStoredImageReferences();
+            }
         } else {
             super.setModelValue(newModelValue, fromClient);
         }
     }
 
+    /**
+     * Lets the client replace the {@code data:} URL images the sanitizer
+     * has just stored with their references.
+     */
+    private void pushStoredImageReferences() {
+        if (storedImages == null) {
+            return;
+        }
+        Map<String, String> replacements = storedImages.drainReplacements();
+        if (!replacements.isEmpty()) {
+            ObjectNode references = JacksonUtils.getMapper()
+                    .createObjectNode();
+            replacements.forEach(references::put);
+            getElement().callJsFunction("_replaceStoredImages", references);
+        }
+    }
+
     // ---- Toolbar component API ----
 
     /**
@@ -1112,6 +1089,203 @@ public class EnhancedRichTextEditor extends RichTextEditor {
         return getElement().getProperty("showWhitespace", false);
     }
 
+    // ---- Value Sync Policy API ----
+
+    private ValueSyncPolicy valueSyncPolicy = ValueSyncPolicy.eager();
+
+    /**
+     * Sets how often the client sends the HTML value to the server. Updates
+     * are coalesced in the browser, so a lazier policy saves both the
+     * client-side HTML serialization and server round trips. Pending
+     * updates are always sent when the editor loses focus.
+     * <p>
+     * The default is {@link ValueSyncPolicy#eager()}.
+     *
+     * @param policy the sync policy, not {@code null}
+     * @since 6.1.0
+     */
+    public void setValueSyncPolicy(ValueSyncPolicy policy) {
+        Objects.requireNonNull(policy, "Value sync policy must not be null");
+        valueSyncPolicy = policy;
+        getElement().setPropertyJson("valueSyncPolicy", policy.toJson());
+    }
+
+    /**
+     * Returns the current value sync policy.
+     *
+     * @return the value sync policy
+     * @since 6.1.0
+     */
+    public ValueSyncPolicy getValueSyncPolicy() {
+        return valueSyncPolicy;
+    }
+
+    // ---- Image Ingest Policy API ----
+
+    private ImageIngestPolicy imageIngestPolicy = ImageIngestPolicy.none();
+
+    /**
+     * Sets how the browser scales and re-encodes images that the user
+     * pastes, drops or inserts, before they are added to the content. A
+     * policy that limits the image dimensions or byte size keeps large
+     * photos and screenshots out of the value, so less data is synced to
+     * the server and sanitized there.
+     * <p>
+     * The default is {@link ImageIngestPolicy#none()}.
+     *
+     * @param policy the image ingest policy, not {@code null}
+     * @see #setImageStore(ImageStore)
+     * @since 6.1.0
+     */
+    public void setImageIngestPolicy(ImageIngestPolicy policy) {
+        Objects.requireNonNull(policy, "Image ingest policy must not be null");
+        imageIngestPolicy = policy;
+        getElement().setPropertyJson("imageIngestPolicy", policy.toJson());
+    }
+
+    /**
+     * Returns the current image ingest policy.
+     *
+     * @return the image ingest policy
+     * @since 6.1.0
+     */
+    public ImageIngestPolicy getImageIngestPolicy() {
+        return imageIngestPolicy;
+    }
+
+    // ---- Delta Sync API ----
+
+    private DeltaSync deltaSync;
+    private Registration deltaSyncRegistration;
+
+    /**
+     * Enables or disables incremental delta sync.
+     * <p>
+     * By default every edit burst makes the client serialize the whole
+     * document to HTML and send it to the server. With delta sync enabled,
+     * the client instead sends the Quill change deltas, which the server
+     * validates and applies to its own copy of the document (see
+     * {@link #getSyncedDelta()}). A checksum of the full document is sent
+     * periodically and whenever the editor loses focus; on a mismatch the
+     * server requests a fresh snapshot from the client.
+     * <p>
+     * While enabled, the HTML value ({@link #getValue()}) is synchronized
+     * according to the {@link #setValueSyncPolicy(ValueSyncPolicy) value
+     * sync policy}; an eager policy is treated as
+     * {@link ValueSyncPolicy#onBlur()}.
+     *
+     * @param enabled {@code true} to enable delta sync
+     * @since 6.1.0
+     */
+    public void setDeltaSyncEnabled(boolean enabled) {
+        if (enabled == isDeltaSyncEnabled()) {
+            return;
+        }
+        if (enabled) {
+            deltaSync = new DeltaSync();
+            deltaSyncRegistration = getElement()
+                    .addEventListener("erte-delta-sync",
+                            event -> onDeltaSync(event.getEventData()))
+                    .addEventData("event.detail.version")
+                    .addEventData("event.detail.full")
+                    .addEventData("event.detail.ops")
+                    .addEventData("event.detail.checksum")
+                    .addEventData("event.detail.serverSeq");
+        } else {
+            deltaSyncRegistration.remove();
+            deltaSyncRegistration = null;
+            deltaSync = null;
+        }
+        getElement().setProperty("deltaSync", enabled);
+    }
+
+    /**
+     * Returns whether incremental delta sync is enabled.
+     *
+     * @return {@code true} if delta sync is enabled
+     * @since 6.1.0
+     */
+    public boolean isDeltaSyncEnabled() {
+        return deltaSync != null;
+    }
+
+    /**
+     * Returns the document as last synchronized from the client in delta
+     * sync mode.
+     *
+     * @return the synchronized document, or {@code null} if delta sync is
+     *         disabled or the initial snapshot has not arrived yet
+     * @since 6.1.0
+     */
+    public Delta getSyncedDelta() {
+        return deltaSync != null ? deltaSync.getDocument() : null;
+    }
+
+    /**
+     * Handles a delta sync message of the client; package-private for
+     * tests.
+     */
+    void onDeltaSync(JsonNode data) {
+        boolean full = data.path("event.detail.full").asBoolean();
+        JsonNode checksumNode = data.get("event.detail.checksum");
+        Long checksum = checksumNode != null && checksumNode.isNumber()
+                ? checksumNode.asLong() : null;
+        DeltaSync.Result result;
+        try {
+            Delta delta = Delta
+                    .fromJson(data.path("event.detail.ops").asText());
+            result = deltaSync.apply(
+                    data.path("event.detail.version").asLong(), full, delta,
+                    checksum, data.path("event.detail.serverSeq").asLong());
+        } catch (IllegalArgumentException e) {
+            result = deltaSync.requireResync();
+        }
+        if (result == DeltaSync.Result.APPLIED) {
+            // Rides along with the response; lets the client drop the
+            // changes it keeps for transforming server changes
+            getElement().setProperty("deltaSyncAck", deltaSync.getVersion());
+        } else if (!full || deltaSync.hasOutstandingChanges()) {
+            // A rejected snapshot is not requested again right away; the
+            // next change finds no document and asks for one. One that
+            // crossed server changes is: the client applies them before
+            // this call, so the next snapshot includes them.
+            getElement().callJsFunction("_sendDeltaSnapshot");
+        }
+    }
+
+    /**
+     * Applies a change to the synchronized document and pushes it to the
+     * client as a delta, instead of a script that computes the change in
+     * the browser. The client reconciles it with its own unsent changes.
+     */
+    private void pushDeltaChange(Delta change) {
+        long seq = deltaSync.applyLocal(change);
+        getElement().callJsFunction("_applyServerDelta", seq,
+                deltaSync.getVersion(), change.toJsonString());
+    }
+
+    /**
+     * Returns the inline formats text inserted at {@code position} would
+     * inherit in Quill: those of the preceding character, or of the
+     * following one at the start of a line.
+     */
+    private ObjectNode inlineAttributesAt(int position) {
+        for (int pos : new int[] { position - 1, position }) {
+            if (pos < 0 || pos >= deltaSync.length()) {
+                continue;
+            }
+            Delta.Op op = deltaSync.slice(pos, pos + 1).getOps().get(0);
+            if (op.getText() != null && !"\n".equals(op.getText())) {
+                return op.getAttributes();
+            }
+        }
+        return null;
+    }
+
+    private boolean hasSyncedDocument() {
+        return deltaSync != null && deltaSync.hasDocument();
+    }
+
     // ---- TabStop API ----
 
     /**
@@ -1176,23 +1350,176 @@ public class EnhancedRichTextEditor extends RichTextEditor {
      * @param placeholders the placeholder definitions
      */
     public void setPlaceholders(Collection<Placeholder> placeholders) {
+        setPlaceholderProviderInternal(null);
         this.placeholders = new ArrayList<>(placeholders);
+        Map<String, Placeholder> byText = new HashMap<>();
         ArrayNode array = JacksonUtils.getMapper().createArrayNode();
         for (Placeholder p : placeholders) {
+            if (p.getText() != null) {
+                // The first definition of a text wins, as with a list scan
+                byText.putIfAbsent(p.getText(), p);
+            }
             array.add(p.toJson());
         }
+        placeholdersByText = Collections.unmodifiableMap(byText);
         getElement().setPropertyJson("placeholders", array);
     }
 
     /**
      * Returns the current placeholder configuration.
      *
-     * @return list of placeholders, never null
+     * @return list of placeholders, never null; empty when a
+     *         {@link #setPlaceholderProvider(FetchCallback) placeholder
+     *         provider} is used
      */
     public List<Placeholder> getPlaceholders() {
         return placeholders != null ? List.copyOf(placeholders) : List.of();
     }
 
+    /**
+     * Sets a lazy source for the available placeholders, replacing any list
+     * set with {@link #setPlaceholders(Collection)}.
+     * <p>
+     * Instead of sending every placeholder to the browser up front, the
+     * placeholder dialog fetches the placeholders matching the typed filter
+     * page by page through the given callback. The query's filter is the
+     * text typed in the dialog (empty for no filter); the callback must
+     * honor the query's offset and limit. Only fetched placeholders and those
+     * in the document ever reach the browser.
+     * <pre>{@code
+     * editor.setPlaceholderProvider(query -> fieldService
+     *         .find(query.getFilter().orElse(""), query.getOffset(),
+     *                 query.getLimit())
+     *         .stream().map(field -> new Placeholder(field.getName())));
+     * }</pre>
+     * Placeholder events look up the full placeholder among the fetched
+     * ones.
+     *
+     * @param provider the callback fetching placeholders, or {@code null}
+     *                 to remove the provider
+     * @since 6.1.0
+     */
+    public void setPlaceholderProvider(
+            FetchCallback<Placeholder, String> provider) {
+        placeholders = null;
+        placeholdersByText = Map.of();
+        getElement().setPropertyJson("placeholders",
+                JacksonUtils.getMapper().createArrayNode());
+        setPlaceholderProviderInternal(provider);
+    }
+
+    /**
+     * Returns the lazy placeholder source.
+     *
+     * @return the placeholder provider, or {@code null} if placeholders are
+     *         set as a list
+     * @since 6.1.0
+     */
+    public FetchCallback<Placeholder, String> getPlaceholderProvider() {
+        return placeholderProvider;
+    }
+
+    private void setPlaceholderProviderInternal(
+            FetchCallback<Placeholder, String> provider) {
+        placeholderProvider = provider;
+        fetchedPlaceholders.clear();
+        if (provider != null && placeholderFetchRegistration == null) {
+            placeholderFetchRegistration = getElement()
+                    .addEventListener("erte-placeholder-fetch",
+                            event -> onPlaceholderFetch(event.getEventData()))
+                    .addEventData("event.detail.request")
+                    .addEventData("event.detail.filter")
+                    .addEventData("event.detail.offset")
+                    .addEventData("event.detail.limit");
+        } else if (provider == null && placeholderFetchRegistration != null) {
+            placeholderFetchRegistration.remove();
+            placeholderFetchRegistration = null;
+        }
+        getElement().setProperty("placeholderProvider", provider != null);
+    }
+
+    private static Map<String, Placeholder> newFetchedPlaceholderCache() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, Placeholder> eldest) {
+                return size() > FETCHED_PLACEHOLDER_CACHE_SIZE;
+            }
+        });
+    }
+
+    /**
+     * Answers a page request of the placeholder dialog.
+     */
+    private void onPlaceholderFetch(JsonNode data) {
+        if (placeholderProvider == null) {
+            return;
+        }
+        PlaceholderPage page = answerPlaceholderFetch(
+                data.path("event.detail.filter").asText(""),
+                data.path("event.detail.offset").asInt(0),
+                data.path("event.detail.limit").asInt(0));
+        ArrayNode items = JacksonUtils.getMapper().createArrayNode();
+        page.items().forEach(p -> items.add(p.toJson()));
+        getElement().callJsFunction("_onPlaceholdersFetched",
+                data.path("event.detail.request").asInt(), items,
+                page.size());
+    }
+
+    /**
+     * Fetches the page for a request of the placeholder dialog. If the
+     * provider fails, the failure is logged and the list ends before the
+     * page, so the dialog does not wait for the page forever.
+     */
+    PlaceholderPage answerPlaceholderFetch(String filter, int offset,
+            int limit) {
+        try {
+            return fetchPlaceholderPage(filter, offset, limit);
+        } catch (RuntimeException e) {
+            LoggerFactory.getLogger(EnhancedRichTextEditor.class)
+                    .warn("Placeholder provider failed", e);
+            return new PlaceholderPage(List.of(), Math.max(0, offset));
+        }
+    }
+
+    /**
+     * Fetches a page of placeholders from the provider, which must be set.
+     * One more item than requested is fetched to tell the client whether
+     * more pages follow: the returned size is the offset plus the number of
+     * fetched items, and exceeds the end of the page only if there are
+     * more. The limit is clamped to {@value #MAX_PLACEHOLDER_FETCH}.
+     */
+    PlaceholderPage fetchPlaceholderPage(String filter, int offset,
+            int limit) {
+        offset = Math.max(0, offset);
+        limit = Math.min(MAX_PLACEHOLDER_FETCH, Math.max(1, limit));
+
+        List<Placeholder> page;
+        try (Stream<Placeholder> fetched = placeholderProvider.fetch(
+                new Query<>(offset, limit + 1, List.of(), null, filter))) {
+            page = fetched.limit(limit + 1L).toList();
+        }
+        List<Placeholder> items = page.subList(0,
+                Math.min(limit, page.size()));
+        for (Placeholder p : items) {
+            if (p.getText() != null) {
+                fetchedPlaceholders.putIfAbsent(p.getText(), p);
+            }
+        }
+        return new PlaceholderPage(items, offset + page.size());
+    }
+
+    /**
+     * A page of placeholders for the placeholder dialog.
+     *
+     * @param items the placeholders of the page
+     * @param size  the number of placeholders known to exist: the end of
+     *              the page, plus one if more follow
+     */
+    record PlaceholderPage(List<Placeholder> items, int size)
+            implements Serializable {
+    }
+
     /**
      * Sets the start and end tags displayed around placeholder text.
      *
@@ -1245,17 +1572,23 @@ public class EnhancedRichTextEditor extends RichTextEditor {
     }
 
     /**
-     * Look up a full Placeholder from the master list by text match.
+     * Look up a full Placeholder from the master list by text match. The
+     * lookup is a hash lookup, so events carrying many placeholders stay
+     * linear in the number of placeholders.
      *
      * @param placeholder the placeholder to look up (matched by text)
      * @return the matching placeholder from the master list, or the input
      *         placeholder if not found
      */
     protected Placeholder getPlaceholder(Placeholder placeholder) {
-        if (placeholders == null || placeholder == null) return placeholder;
-        return placeholders.stream()
-                .filter(p -> p.getText().equals(placeholder.getText()))
-                .findFirst().orElse(placeholder);
+        if (placeholder == null || placeholder.getText() == null) {
+            return placeholder;
+        }
+        Placeholder found = placeholdersByText.get(placeholder.getText());
+        if (found == null) {
+            found = fetchedPlaceholders.get(placeholder.getText());
+        }
+        return found != null ? found : placeholder;
     }
 
     // ---- Placeholder event listeners ----
@@ -1426,17 +1759,21 @@ public class EnhancedRichTextEditor extends RichTextEditor {
          * all configured properties (text, tag, format, altFormat), not just the
          * minimal data sent from the client. The {@code index} property is set
          * to the placeholder's position in the editor's delta.
+         * <p>
+         * Each call returns new copies, so changing them does not affect the
+         * master list or other events.
          *
          * @return the list of placeholders, never null
          */
         public List<Placeholder> getPlaceholders() {
-            List<Placeholder> actual = new ArrayList<>();
+            List<Placeholder> actual = new ArrayList<>(placeholders.size());
             for (Placeholder p : placeholders) {
                 Placeholder found = ((EnhancedRichTextEditor) source)
                         .getPlaceholder(p);
                 if (found != null) {
-                    if (p.getIndex() != -1) found.setIndex(p.getIndex());
-                    actual.add(found);
+                    Placeholder copy = new Placeholder(found);
+                    if (p.getIndex() != -1) copy.setIndex(p.getIndex());
+                    actual.add(copy);
                 }
             }
             return actual;
@@ -1749,6 +2086,74 @@ public class EnhancedRichTextEditor extends RichTextEditor {
             .then(Integer.class, callback::accept);
     }
 
+    /**
+     * Returns the editor's text length without a browser round trip.
+     * <p>
+     * Quill's internal trailing newline is excluded, as in
+     * {@link #getTextLength(SerializableConsumer)}. In delta sync mode the
+     * length is read from the server-side document in constant time.
+     * Otherwise it is computed from the last synchronized HTML value and
+     * cached until the value changes; this follows the value sync policy
+     * and may differ slightly from the browser for content the HTML does
+     * not represent one-to-one. Use the asynchronous variant where exact
+     * parity with the client is required.
+     *
+     * @return the text length
+     * @see #setDeltaSyncEnabled(boolean)
+     * @since 6.1.0
+     */
+    public int getTextLength() {
+        if (hasSyncedDocument()) {
+            return Math.max(0, deltaSync.length() - 1);
+        }
+        return getTextStatistics().getLength();
+    }
+
+    /**
+     * Returns the number of words in the editor, computed on the server
+     * like {@link #getTextLength()}. Words are separated by whitespace,
+     * line breaks, tabs and non-breaking spaces; a placeholder counts as
+     * part of a word.
+     *
+     * @return the word count
+     * @since 6.1.0
+     */
+    public int getWordCount() {
+        return getTextStatistics().getWords();
+    }
+
+    /**
+     * Returns the number of characters in the editor excluding whitespace
+     * and line breaks, computed on the server like
+     * {@link #getTextLength()}. Each placeholder counts as one character.
+     *
+     * @return the character count
+     * @since 6.1.0
+     */
+    public int getCharacterCount() {
+        return getTextStatistics().getCharacters();
+    }
+
+    private TextStatistics getTextStatistics() {
+        if (hasSyncedDocument()) {
+            long revision = deltaSync.getRevision();
+            if (textStatistics == null || textStatisticsValue != null
+                    || textStatisticsRevision != revision) {
+                textStatistics = TextStatistics.of(deltaSync.getDocument());
+                textStatisticsValue = null;
+                textStatisticsRevision = revision;
+            }
+        } else {
+            String value = getValue();
+            if (textStatistics == null
+                    || !Objects.equals(value, textStatisticsValue)) {
+                textStatistics = TextStatistics.of(value);
+                textStatisticsValue = value;
+            }
+        }
+        return textStatistics;
+    }
+
     /**
      * Inserts text at the specified position.
      * <p>
@@ -1756,6 +2161,10 @@ public class EnhancedRichTextEditor extends RichTextEditor {
      * No insertion occurs if the editor is disabled.
      * </p>
      * <p>
+     * In delta sync mode the insertion is applied to the server-side
+     * document right away and sent to the client as a delta.
+     * </p>
+     * <p>
      * <strong>Behavior Change from V24:</strong> V24 rejected out-of-bounds
      * positions silently. V25 clamps to nearest valid position.
      * </p>
@@ -1766,6 +2175,15 @@ public class EnhancedRichTextEditor extends RichTextEditor {
      */
     public void addText(String text, int position) {
         Objects.requireNonNull(text, "Text cannot be null");
+        if (hasSyncedDocument()) {
+            if (isEnabled() && !isReadOnly() && !text.isEmpty()) {
+                int pos = Math.max(0,
+                        Math.min(position, deltaSync.length() - 1));
+                pushDeltaChange(Delta.builder().retain(pos)
+                        .insert(text, inlineAttributesAt(pos)).build());
+            }
+            return;
+        }
         getElement().executeJs(
             "if ($0._editor && $0._editor.isEnabled()) {" +
             "  const len = Math.max(1, $0._editor.getLength());" +
@@ -1796,6 +2214,35 @@ public class EnhancedRichTextEditor extends RichTextEditor {
         );
     }
 
+    /**
+     * Starts a batch of programmatic edits that is sent to the client as a
+     * single change and becomes a single undo step. Prefer this over
+     * repeated {@link #addText(String, int)} calls when making many edits
+     * at once.
+     *
+     * @return a new, empty batch
+     * @see EditBatch
+     * @since 6.1.0
+     */
+    public EditBatch batchEdit() {
+        return new EditBatch(this);
+    }
+
+    void applyBatch(Delta change) {
+        if (!isEnabled() || isReadOnly()) {
+            return;
+        }
+        if (hasSyncedDocument()) {
+            Delta clamped = change.clampTo(deltaSync.length());
+            if (!clamped.isEmpty()) {
+                pushDeltaChange(clamped);
+            }
+            return;
+        }
+        getElement().callJsFunction("_applyBatchDelta",
+                change.toJsonString());
+    }
+
     // ========================================================================
     // I18n
     // ========================================================================
@@ -0,0 +1,933 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.vaadin.componentfactory.SanitizerMetrics.Sample;
+import com.vaadin.componentfactory.SanitizerMetrics.Stage;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.safety.Cleaner;
+import org.jsoup.safety.Safelist;
+import org.jsoup.select.NodeTraversor;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Server-side HTML sanitizer engine used by
+ * {@link EnhancedRichTextEditor#erteSanitize(String, Set, Map, Set)}.
+ * <p>
+ * The input is cleaned with a jsoup {@link Safelist} and the ERTE-specific
+ * rules (class, style, {@code data:} URL and {@code contenteditable}
+ * filtering) are then applied to the attributes of the cleaned node tree in
+ * a single traversal. The document is serialized exactly once, at the end.
+ * <p>
+ * An instance is an immutable, compiled sanitizer policy for one
+ * combination of dynamic classes, attributes and CSS properties. Instances
+ * are obtained via {@link #of(Set, Map, Set)}, which interns them in a small
+ * shared cache so that editors with the same configuration share a single
+ * policy and its prebuilt {@link Safelist}. Instances are safe for
+ * concurrent use.
+ *
+ * @since 6.1.0
+ */
+final class ErteSanitizer {
+
+    private static final int POLICY_CACHE_SIZE = 32;
+
+    private static final Map<Configuration, ErteSanitizer> POLICY_CACHE = Collections
+            .synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<Configuration, ErteSanitizer> eldest) {
+                    return size() > POLICY_CACHE_SIZE;
+                }
+            });
+
+    /**
+     * ERTE-specific CSS classes allowed through the sanitizer.
+     * Each migration phase adds its classes here.
+     */
+    static final Set<String> ALLOWED_ERTE_CLASSES = Set.of(
+            "ql-readonly", "ql-tab", "ql-soft-break", "ql-placeholder",
+            "ql-nbsp", "td-q", "ql-editor__table--hideBorder");
+    static final Set<String> ALLOWED_CSS_PROPERTIES = Set.of(
+            // Text
+            "color", "background-color", "background", "font-size",
+            "font-family", "font-weight", "font-style",
+            // Layout
+            "text-align", "text-indent", "text-decoration",
+            "text-decoration-line", "text-decoration-style",
+            "text-decoration-color", "direction",
+            // Spacing
+            "line-height", "letter-spacing", "word-spacing",
+            // Box
+            "margin", "margin-top", "margin-right", "margin-bottom",
+            "margin-left", "padding", "padding-top", "padding-right",
+            "padding-bottom", "padding-left",
+            // Border
+            "border", "border-top", "border-right", "border-bottom",
+            "border-left", "border-width", "border-style", "border-color",
+            "border-collapse", "border-spacing",
+            // Display
+            "display", "white-space", "vertical-align", "visibility",
+            "opacity",
+            // Size
+            "width", "height", "min-width", "max-width", "min-height",
+            "max-height",
+            // Position
+            "position", "top", "right", "bottom", "left", "float",
+            // Other
+            "list-style-type", "overflow", "overflow-x", "overflow-y",
+            "cursor");
+    static final Set<String> SAFE_CSS_FUNCTIONS = Set.of(
+            "rgb(", "rgba(", "hsl(", "hsla(", "calc(");
+    static final Set<String> SAFE_DATA_MIMES = Set.of(
+            "image/png", "image/jpeg", "image/jpg", "image/gif",
+            "image/webp", "image/bmp", "image/x-icon");
+
+    private static final Pattern CSS_COMMENT_PATTERN = Pattern
+            .compile("/\\*.*?\\*/");
+    private static final Pattern CSS_FUNCTION_PATTERN = Pattern
+            .compile("\\w+\\s*\\(");
+    private static final Pattern DATA_URL_PATTERN = Pattern.compile(
+            "data:\\s*([^;]+)", Pattern.CASE_INSENSITIVE);
+    private static final String BASE64_SUFFIX = ";base64";
+    private static final NameTable SAFE_FUNCTION_NAMES = new NameTable(
+            SAFE_CSS_FUNCTIONS.stream()
+                    .map(function -> function.substring(0,
+                            function.length() - 1))
+                    .toList());
+
+    private final Set<String> extraClasses;
+    private final Set<String> extraCssProperties;
+    // Allowed and extra CSS properties
+    private final NameTable cssProperties;
+    private final Safelist safelist;
+
+    private ErteSanitizer(Configuration configuration) {
+        this.extraClasses = configuration.classes();
+        this.extraCssProperties = configuration.cssProperties();
+        List<String> cssProperties = new ArrayList<>(ALLOWED_CSS_PROPERTIES);
+        cssProperties.addAll(extraCssProperties);
+        this.cssProperties = new NameTable(cssProperties);
+        this.safelist = createSafelist(configuration.attributes());
+    }
+
+    /**
+     * Returns the sanitizer policy for the given dynamic configuration. The
+     * arguments are copied; equal configurations share the same cached
+     * instance.
+     *
+     * @param extraClasses       additional CSS classes to preserve
+     * @param extraAttributes    additional tag→attributes to preserve
+     * @param extraCssProperties additional CSS properties to preserve
+     * @return the immutable sanitizer policy, never {@code null}
+     */
+    static ErteSanitizer of(Set<String> extraClasses,
+            Map<String, Set<String>> extraAttributes,
+            Set<String> extraCssProperties) {
+        Configuration configuration = new Configuration(extraClasses,
+                extraAttributes, extraCssProperties);
+        return POLICY_CACHE.computeIfAbsent(configuration,
+                ErteSanitizer::new);
+    }
+
+    /**
+     * Sanitizes the given HTML fragment. Equivalent to
+     * {@code of(extraClasses, extraAttributes, extraCssProperties).sanitize(html)}.
+     *
+     * @param html               the raw HTML, may be {@code null}
+     * @param extraClasses       additional CSS classes to preserve
+     * @param extraAttributes    additional tag→attributes to preserve
+     * @param extraCssProperties additional CSS properties to preserve
+     * @return the sanitized HTML
+     */
+    static String sanitize(String html, Set<String> extraClasses,
+            Map<String, Set<String>> extraAttributes,
+            Set<String> extraCssProperties) {
+        if (html == null || html.isEmpty()) {
+            return html;
+        }
+        return of(extraClasses, extraAttributes, extraCssProperties)
+                .sanitize(html);
+    }
+
+    /**
+     * Sanitizes the given HTML fragment with this policy.
+     *
+     * @param html the raw HTML, may be {@code null}
+     * @return the sanitized HTML
+     */
+    String sanitize(String html) {
+        return sanitize(html, null);
+    }
+
+    /**
+     * Sanitizes the given HTML fragment with this policy, moving the
+     * payload of safe {@code data:} URL images to the given store.
+     *
+     * @param html       the raw HTML, may be {@code null}
+     * @param imageStore the store for {@code data:} URL images, or
+     *                   {@code null} to keep them inline
+     * @return the sanitized HTML
+     */
+    String sanitize(String html, ImageStore imageStore) {
+        return sanitize(html,
+                imageStore != null ? new StoredImages(imageStore) : null,
+                null);
+    }
+
+    /**
+     * Sanitizes the given HTML fragment with this policy, moving the
+     * payload of safe {@code data:} URL images to a store through the given
+     * references, which skip images stored before, and reporting
+     * measurements to the given metrics.
+     *
+     * @param html         the raw HTML, may be {@code null}
+     * @param storedImages the references of stored images, or {@code null}
+     *                     to keep {@code data:} URL images inline
+     * @param metrics      the metrics to record a sample to, or
+     *                     {@code null} to skip measuring
+     * @return the sanitized HTML
+     */
+    String sanitize(String html, StoredImages storedImages,
+            SanitizerMetrics metrics) {
+        if (html == null || html.isEmpty()) {
+            return html;
+        }
+        Recorder recorder = metrics != null ? new Recorder() : null;
+        long started = recorder != null ? System.nanoTime() : 0;
+        Document dirty = Jsoup.parseBodyFragment(html, "");
+        Document clean = new Cleaner(safelist).clean(dirty);
+        if (recorder != null) {
+            recorder.add(Stage.CLEAN, started);
+            recorder.strippedAttributes += countUnsafeAttributes(dirty.body());
+        }
+
+        // Single pass over the cleaned tree, applying all ERTE rules to
+        // the attributes of each element before serialization.
+        NodeTraversor.traverse((node, depth) -> {
+            if (node instanceof Element element) {
+                filterAttributes(element, storedImages, recorder);
+            }
+        }, clean.body());
+
+        clean.outputSettings().prettyPrint(false);
+        String sanitized = clean.body().html();
+        if (recorder != null) {
+            metrics.record(recorder.sample(html.length(), sanitized.length(),
+                    System.nanoTime() - started));
+        }
+        return sanitized;
+    }
+
+    /**
+     * Counts the attributes the cleaner removes from the tree, the same way
+     * as {@link Cleaner}: all attributes of unsafe elements and the unsafe
+     * attributes of safe ones.
+     */
+    private int countUnsafeAttributes(Element root) {
+        int count = 0;
+        for (Element element : root.getAllElements()) {
+            if (element == root) {
+                continue;
+            }
+            String tag = element.normalName();
+            if (!safelist.isSafeTag(tag)) {
+                count += element.attributesSize();
+                continue;
+            }
+            for (Attribute attribute : element.attributes()) {
+                if (!safelist.isSafeAttribute(tag, element, attribute)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static Safelist createSafelist(
+            Map<String, Set<String>> extraAttributes) {
+        // Start from RTE 2's safelist and extend for ERTE
+        Safelist safelist = Safelist.basic()
+                .addTags("img", "h1", "h2", "h3", "s",
+                         "table", "tbody", "tr", "td", "th",
+                         "colgroup", "col")
+                .addAttributes("img", "align", "alt", "height", "src",
+                        "title", "width")
+                .addAttributes(":all", "style", "class")
+                .addProtocols("img", "src", "data", "http", "https")
+                // ERTE additions
+                .addAttributes("span", "contenteditable",
+                        "aria-readonly", "data-placeholder")
+                // Table additions
+                .addAttributes("td", "table_id", "row_id", "cell_id",
+                        "merge_id", "colspan", "rowspan", "table-class")
+                .addAttributes("tr", "row_id")
+                .addAttributes("table", "table_id");
+
+        // Dynamic attributes registered via addAllowedHtmlAttributes()
+        for (var entry : extraAttributes.entrySet()) {
+            String tag = entry.getKey();
+            Set<String> attrs = entry.getValue();
+            if (!attrs.isEmpty()) {
+                safelist.addAttributes(tag, attrs.toArray(String[]::new));
+            }
+        }
+        return safelist;
+    }
+
+    /**
+     * Applies the ERTE attribute rules to a single element. Attributes are
+     * matched by name suffix ({@code class}, {@code style}, {@code src}),
+     * so that e.g. the table cell's {@code table-class} is filtered like
+     * {@code class}.
+     */
+    private void filterAttributes(Element element,
+            StoredImages storedImages, Recorder recorder) {
+        int attributeCount = element.attributesSize();
+        Iterator<Attribute> it = element.attributes().iterator();
+        while (it.hasNext()) {
+            Attribute attribute = it.next();
+            String key = attribute.getKey();
+            String value = attribute.getValue();
+            long started = recorder != null ? System.nanoTime() : 0;
+            if (key.endsWith("class")) {
+                attribute.setValue(filterClasses(value, recorder));
+                if (recorder != null) {
+                    recorder.add(Stage.CLASS_FILTER, started);
+                }
+            } else if (key.endsWith("style")) {
+                String filtered = filterStyle(value, recorder);
+                if (filtered.isEmpty()) {
+                    // Remove empty style attribute entirely
+                    it.remove();
+                } else {
+                    attribute.setValue(filtered);
+                }
+                if (recorder != null) {
+                    recorder.add(Stage.STYLE_FILTER, started);
+                }
+            } else if (key.endsWith("src")) {
+                if (!isSafeDataUrl(value)) {
+                    it.remove();
+                } else if (storedImages != null) {
+                    String reference = storedImages.store(value);
+                    if (reference != null) {
+                        attribute.setValue(reference);
+                    }
+                }
+                if (recorder != null) {
+                    recorder.add(Stage.DATA_URL_FILTER, started);
+                }
+            } else if (key.equals("contenteditable")) {
+                // Only allow contenteditable="false"
+                if (!"false".equalsIgnoreCase(value)) {
+                    it.remove();
+                }
+            }
+        }
+        if (recorder != null) {
+            recorder.strippedAttributes += attributeCount
+                    - element.attributesSize();
+        }
+    }
+
+    /**
+     * Filters a class attribute value to only keep standard Quill classes
+     * (ql-align-*, ql-indent-*), known ERTE classes, and dynamic extra
+     * classes registered via
+     * {@link EnhancedRichTextEditor#addAllowedHtmlClasses(String...)}.
+     */
+    private String filterClasses(String classValue, Recorder recorder) {
+        String[] classes = classValue.split("\\s+");
+        StringBuilder filtered = new StringBuilder();
+        for (String cls : classes) {
+            if (cls.isEmpty()) continue;
+            // Keep standard Quill classes for alignment/indent, known ERTE
+            // classes and dynamic extra classes (e.g., template IDs).
+            // Strip everything else.
+            if (cls.startsWith("ql-align") || cls.startsWith("ql-indent")
+                    || ALLOWED_ERTE_CLASSES.contains(cls)
+                    || (!extraClasses.isEmpty()
+                            && extraClasses.contains(cls))) {
+                if (filtered.length() > 0) filtered.append(' ');
+                filtered.append(cls);
+            } else if (recorder != null) {
+                recorder.strippedClasses++;
+            }
+        }
+        return filtered.toString();
+    }
+
+    /**
+     * Filters a style attribute value to only allow safe CSS properties.
+     * Strips dangerous CSS functions (only whitelisted ones like rgb/calc
+     * allowed), {@code @import} directives, and CSS comments.
+     * <p>
+     * The declarations are tokenized in place and property and function
+     * names are looked up by their position in the value, so no
+     * intermediate strings are created. The result is only copied once it
+     * differs from the input; a style that is already clean is returned as
+     * is.
+     *
+     * @return the filtered declarations, or an empty string if none remain
+     */
+    private String filterStyle(String styleValue, Recorder recorder) {
+        if (styleValue.contains("/*")) {
+            // Comments are rare; strip them up front
+            styleValue = CSS_COMMENT_PATTERN.matcher(styleValue).replaceAll("");
+        }
+        StyleBuilder filtered = new StyleBuilder(styleValue);
+        int length = styleValue.length();
+        for (int start = 0; start < length;) {
+            int end = styleValue.indexOf(';', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (!filterDeclaration(styleValue, start, end, filtered)
+                    && recorder != null) {
+                recorder.strippedStyles++;
+            }
+            start = end + 1;
+        }
+        return filtered.toString();
+    }
+
+    /**
+     * Filters the declaration between {@code start} and {@code end} of the
+     * style and passes it on if it is safe.
+     *
+     * @return {@code false} if a non-blank declaration was removed
+     */
+    private boolean filterDeclaration(String style, int start, int end,
+            StyleBuilder filtered) {
+        int colon = start;
+        while (colon < end && style.charAt(colon) != ':') {
+            colon++;
+        }
+        if (colon == end) {
+            return trimStart(style, start, end) == end;
+        }
+        int propertyStart = trimStart(style, start, colon);
+        int propertyEnd = trimEnd(style, propertyStart, colon);
+        int valueStart = trimStart(style, colon + 1, end);
+        int valueEnd = trimEnd(style, valueStart, end);
+
+        String property = cssProperties.get(style, propertyStart,
+                propertyEnd);
+        if (property == null
+                && !NameTable.isAscii(style, propertyStart, propertyEnd)) {
+            property = style.substring(propertyStart, propertyEnd)
+                    .toLowerCase(Locale.ROOT);
+            if (!extraCssProperties.contains(property)) {
+                property = null;
+            }
+        }
+        // Skip unknown properties
+        if (property == null) {
+            return false;
+        }
+        // Skip values containing @import
+        if (containsIgnoreCase(style, valueStart, valueEnd, "@import")) {
+            return false;
+        }
+        // Skip function calls other than the whitelisted ones
+        if (hasUnsafeFunction(style, valueStart, valueEnd)) {
+            return false;
+        }
+        filtered.declaration(property, valueStart, valueEnd);
+        return true;
+    }
+
+    /**
+     * Checks a value for CSS function calls ({@code name(}, as matched by
+     * {@link #CSS_FUNCTION_PATTERN}) that are not in
+     * {@link #SAFE_CSS_FUNCTIONS}.
+     */
+    private static boolean hasUnsafeFunction(String style, int start,
+            int end) {
+        for (int i = start; i < end; i++) {
+            char c = style.charAt(i);
+            if (c >= 128) {
+                // Lower casing may change non-ASCII text; use the pattern
+                return hasUnsafeFunction(
+                        style.substring(start, end).toLowerCase(Locale.ROOT));
+            }
+            if (c != '(') {
+                continue;
+            }
+            int nameEnd = i;
+            while (nameEnd > start && isCssSpace(style.charAt(nameEnd - 1))) {
+                nameEnd--;
+            }
+            int nameStart = nameEnd;
+            while (nameStart > start
+                    && isWordChar(style.charAt(nameStart - 1))) {
+                nameStart--;
+            }
+            if (nameStart < nameEnd && (nameEnd != i || SAFE_FUNCTION_NAMES
+                    .get(style, nameStart, nameEnd) == null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasUnsafeFunction(String lowerCaseValue) {
+        Matcher funcMatcher = CSS_FUNCTION_PATTERN.matcher(lowerCaseValue);
+        while (funcMatcher.find()) {
+            if (!SAFE_CSS_FUNCTIONS.contains(funcMatcher.group())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsIgnoreCase(String text, int start,
+            int end, String lowerCaseNeedle) {
+        for (int i = start, last = end - lowerCaseNeedle.length(); i <= last;
+                i++) {
+            if (text.regionMatches(true, i, lowerCaseNeedle, 0,
+                    lowerCaseNeedle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Skips leading characters that {@link String#trim()} removes. */
+    private static int trimStart(String text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    /** Skips trailing characters that {@link String#trim()} removes. */
+    private static int trimEnd(String text, int start, int end) {
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /** Regex {@code \w}. */
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /** Regex {@code \s}. */
+    private static boolean isCssSpace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    /**
+     * Checks a {@code src} value. Non-{@code data:} URLs have already been
+     * validated by the safelist protocols; {@code data:} URLs are restricted
+     * to safe image MIME types. SVG is excluded (can contain scripts).
+     */
+    static boolean isSafeDataUrl(String src) {
+        if (!src.regionMatches(true, 0, "data:", 0, 5)) {
+            return true;
+        }
+        Matcher m = DATA_URL_PATTERN.matcher(src);
+        if (!m.lookingAt()) {
+            return false;
+        }
+        String mime = m.group(1).trim().toLowerCase(Locale.ROOT);
+        return SAFE_DATA_MIMES.contains(mime);
+    }
+
+    /**
+     * Decodes a base64 {@code data:} URL, which must have passed
+     * {@link #isSafeDataUrl(String)}, into the image store. The payload is
+     * decoded while the store reads it, without copying it first.
+     *
+     * @return the URL of the stored image, or {@code null} if the value is
+     *         not a base64 {@code data:} URL of ASCII characters, storing
+     *         failed or the store returned no {@code http} or {@code https}
+     *         URL
+     */
+    static String storeDataUrl(String src, ImageStore imageStore) {
+        Matcher m = DATA_URL_PATTERN.matcher(src);
+        int comma = src.indexOf(',');
+        if (!m.lookingAt() || comma < 0 || !src.regionMatches(true,
+                comma - BASE64_SUFFIX.length(), BASE64_SUFFIX, 0,
+                BASE64_SUFFIX.length())) {
+            return null;
+        }
+        String mime = m.group(1).trim().toLowerCase(Locale.ROOT);
+        try (InputStream data = Base64.getMimeDecoder()
+                .wrap(new AsciiInputStream(src, comma + 1))) {
+            String reference = imageStore.store(mime, data);
+            if (reference == null) {
+                throw new IOException("Image store returned no URL");
+            }
+            // The reference replaces an attribute the safelist has checked
+            if (!DeltaHtmlRenderer.isRemoteImageSource(reference)) {
+                throw new IOException(
+                        "Image store returned no http or https URL");
+            }
+            return reference;
+        } catch (IOException | UncheckedIOException
+                | IllegalArgumentException e) {
+            // Keep the image inline rather than losing it
+            LoggerFactory.getLogger(ErteSanitizer.class).warn(
+                    "Could not store {} image, keeping it inline", mime, e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the characters of a string from an index as bytes. Only used
+     * for base64 text, which is ASCII; any other character fails the read,
+     * rather than being decoded into a corrupted image.
+     */
+    private static final class AsciiInputStream extends InputStream {
+
+        private final String text;
+        private int position;
+
+        AsciiInputStream(String text, int position) {
+            this.text = text;
+            this.position = position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return position < text.length() ? ascii(text.charAt(position++))
+                    : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length)
+                throws IOException {
+            Objects.checkFromIndexSize(offset, length, buffer.length);
+            if (length == 0) {
+                return 0;
+            }
+            int count = Math.min(length, text.length() - position);
+            if (count <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) ascii(text.charAt(position++));
+            }
+            return count;
+        }
+
+        private static int ascii(char c) throws IOException {
+            if (c > 0x7F) {
+                throw new IOException("Non-ASCII character in data: URL");
+            }
+            return c;
+        }
+    }
+
+    /**
+     * The URLs of the {@code data:} URL images an {@link ImageStore} has
+     * stored, by a SHA-256 hash of the {@code data:} URL. Until the client
+     * has replaced a {@code data:} URL with its reference, every value sync
+     * sends the image again; the references let it be stored once instead
+     * of being decoded and written to the store on each sync. Holds the
+     * most recently used {@value #MAX_SIZE} images. Not thread-safe; an
+     * editor keeps one per image store.
+     */
+    static final class StoredImages implements Serializable {
+
+        static final int MAX_SIZE = 256;
+
+        private final ImageStore imageStore;
+        private final LinkedHashMap<String, String> references = new LinkedHashMap<>(
+                16, 0.75f, true);
+        // References handed out since the last drainReplacements()
+        private final LinkedHashMap<String, String> replacements = new LinkedHashMap<>();
+
+        StoredImages(ImageStore imageStore) {
+            this.imageStore = Objects.requireNonNull(imageStore,
+                    "Image store cannot be null");
+        }
+
+        ImageStore getImageStore() {
+            return imageStore;
+        }
+
+        /**
+         * Returns the URL of a {@code data:} URL image, which must have
+         * passed {@link #isSafeDataUrl(String)}, storing it if it has not
+         * been stored before.
+         *
+         * @return the URL of the stored image, or {@code null} if it could
+         *         not be stored
+         */
+        String store(String src) {
+            String key = hash(src);
+            String reference = references.get(key);
+            if (reference == null) {
+                reference = storeDataUrl(src, imageStore);
+                if (reference != null) {
+                    references.put(key, reference);
+                    if (references.size() > MAX_SIZE) {
+                        Iterator<String> eldest = references.keySet()
+                                .iterator();
+                        eldest.next();
+                        eldest.remove();
+                    }
+                }
+            }
+            if (reference != null && replacements.size() < MAX_SIZE) {
+                replacements.put(key, reference);
+            }
+            return reference;
+        }
+
+        /**
+         * Returns the references returned by {@link #store(String)} since
+         * the last call, by the SHA-256 hash of the {@code data:} URL as
+         * lowercase hex, and forgets them.
+         *
+         * @return the references by hash, empty if there are none
+         */
+        Map<String, String> drainReplacements() {
+            if (replacements.isEmpty()) {
+                return Map.of();
+            }
+            Map<String, String> drained = new LinkedHashMap<>(replacements);
+            replacements.clear();
+            return drained;
+        }
+
+        private static String hash(String src) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform supports SHA-256
+                throw new IllegalStateException(e);
+            }
+            // Data URLs are ASCII; hash them in chunks instead of copying
+            // the whole payload into a byte array
+            byte[] buffer = new byte[8192];
+            for (int start = 0; start < src.length(); start += buffer.length) {
+                int end = Math.min(src.length(), start + buffer.length);
+                for (int i = start; i < end; i++) {
+                    buffer[i - start] = (byte) src.charAt(i);
+                }
+                digest.update(buffer, 0, end - start);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    /**
+     * Collects the measurements of one {@code sanitize} call for
+     * {@link SanitizerMetrics}.
+     */
+    private static final class Recorder {
+
+        private final long[] nanos = new long[Stage.values().length];
+        int strippedClasses;
+        int strippedStyles;
+        int strippedAttributes;
+
+        void add(Stage stage, long started) {
+            nanos[stage.ordinal()] += System.nanoTime() - started;
+        }
+
+        Sample sample(int inputLength, int outputLength, long totalNanos) {
+            return new Sample(inputLength, outputLength, totalNanos,
+                    nanos[Stage.CLEAN.ordinal()],
+                    nanos[Stage.CLASS_FILTER.ordinal()],
+                    nanos[Stage.STYLE_FILTER.ordinal()],
+                    nanos[Stage.DATA_URL_FILTER.ordinal()], strippedClasses,
+                    strippedStyles, strippedAttributes);
+        }
+    }
+
+    /**
+     * Builds the filtered declarations of a style. While the output equals
+     * the start of the input, only its length is tracked; the output is
+     * copied into a buffer at the first difference.
+     */
+    private static final class StyleBuilder {
+
+        private final String input;
+        // Length of the output while it is a prefix of the input
+        private int same;
+        private StringBuilder output;
+
+        StyleBuilder(String input) {
+            this.input = input;
+        }
+
+        void declaration(String property, int valueStart, int valueEnd) {
+            if (output != null ? output.length() > 0 : same > 0) {
+                append("; ", 0, 2);
+            }
+            append(property, 0, property.length());
+            append(": ", 0, 2);
+            append(input, valueStart, valueEnd);
+        }
+
+        private void append(String text, int start, int end) {
+            if (output == null) {
+                if (input.regionMatches(same, text, start, end - start)) {
+                    same += end - start;
+                    return;
+                }
+                output = new StringBuilder(input.length())
+                        .append(input, 0, same);
+            }
+            output.append(text, start, end);
+        }
+
+        @Override
+        public String toString() {
+            if (output != null) {
+                return output.toString();
+            }
+            return same == input.length() ? input : input.substring(0, same);
+        }
+    }
+
+    /**
+     * Hash table of lower case ASCII names that is looked up with a range of
+     * a string, ignoring ASCII case, without creating a string for it.
+     */
+    private static final class NameTable {
+
+        private final String[] names;
+        private final int mask;
+
+        NameTable(Collection<String> names) {
+            int capacity = Integer.highestOneBit(
+                    Math.max(4, names.size() * 2) - 1) << 1;
+            this.names = new String[capacity];
+            this.mask = capacity - 1;
+            for (String name : names) {
+                // Lower cased input can never match other names
+                if (isAscii(name, 0, name.length())
+                        && name.equals(name.toLowerCase(Locale.ROOT))) {
+                    add(name);
+                }
+            }
+        }
+
+        private void add(String name) {
+            int index = hash(name, 0, name.length()) & mask;
+            while (this.names[index] != null) {
+                if (this.names[index].equals(name)) {
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+            this.names[index] = name;
+        }
+
+        /**
+         * Returns the name equal to the lower cased range, or {@code null}
+         * if there is none or the range is not ASCII.
+         */
+        String get(String text, int start, int end) {
+            int length = end - start;
+            int index = hash(text, start, end);
+            if (index < 0 || length == 0) {
+                return null;
+            }
+            for (index &= mask; names[index] != null;
+                    index = (index + 1) & mask) {
+                String name = names[index];
+                if (name.length() == length
+                        && text.regionMatches(true, start, name, 0, length)) {
+                    return name;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * The non-negative hash of the lower cased range, or -1 if it is not
+         * ASCII.
+         */
+        private static int hash(String text, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c >= 128) {
+                    return -1;
+                }
+                if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                }
+                hash = 31 * hash + c;
+            }
+            return (hash ^ (hash >>> 16)) & Integer.MAX_VALUE;
+        }
+
+        static boolean isAscii(String text, int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (text.charAt(i) >= 128) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Immutable cache key of a sanitizer configuration. Copies its inputs so
+     * that later changes to the editor's mutable sets do not leak into
+     * cached policies.
+     */
+    private record Configuration(Set<String> classes,
+            Map<String, Set<String>> attributes, Set<String> cssProperties) {
+
+        Configuration {
+            classes = Set.copyOf(classes);
+            cssProperties = Set.copyOf(cssProperties);
+            Map<String, Set<String>> copy = new HashMap<>();
+            attributes.forEach((tag, attrs) -> copy.put(tag, Set.copyOf(attrs)));
+            attributes = Map.copyOf(copy);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ImageStore} that writes images to a local directory. Files are named
+ * by the SHA-256 hash of their content, so the same image is stored once and
+ * always gets the same URL: the base URL followed by the file name.
+ * <p>
+ * The application serves the directory under the base URL, e.g. with a
+ * static resource handler or a servlet that uses {@link #getFile(String)}
+ * to map a requested file name to a file safely:
+ * <pre>
+ * editor.setImageStore(new FileSystemImageStore(Path.of("/var/erte/images"),
+ *         URI.create("https://example.com/images/")));
+ * </pre>
+ *
+ * @since 6.1.0
+ */
+public final class FileSystemImageStore implements ImageStore {
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/png", "png", "image/jpeg", "jpg", "image/jpg", "jpg",
+            "image/gif", "gif", "image/webp", "webp", "image/bmp", "bmp",
+            "image/x-icon", "ico");
+    private static final Pattern FILE_NAME = Pattern
+            .compile("[0-9a-f]{64}\\.(png|jpg|gif|webp|bmp|ico)");
+
+    // Path is not serializable
+    private final String directory;
+    private final URI baseUrl;
+
+    /**
+     * Creates a store writing to the given directory, which is created when
+     * the first image is stored.
+     *
+     * @param directory the directory to store the images in
+     * @param baseUrl   the absolute {@code http} or {@code https} URL the
+     *                  directory is served under; a trailing slash is added
+     *                  if missing
+     */
+    public FileSystemImageStore(Path directory, URI baseUrl) {
+        Objects.requireNonNull(directory, "Directory cannot be null");
+        Objects.requireNonNull(baseUrl, "Base URL cannot be null");
+        String scheme = baseUrl.getScheme();
+        if (!baseUrl.isAbsolute() || !("http".equalsIgnoreCase(scheme)
+                || "https".equalsIgnoreCase(scheme))) {
+            throw new IllegalArgumentException(
+                    "Base URL must be an absolute http or https URL: "
+                            + baseUrl);
+        }
+        this.directory = directory.toAbsolutePath().toString();
+        this.baseUrl = baseUrl.toString().endsWith("/") ? baseUrl
+                : URI.create(baseUrl + "/");
+    }
+
+    @Override
+    public String store(String mimeType, InputStream data) throws IOException {
+        String extension = EXTENSIONS
+                .get(mimeType.toLowerCase(Locale.ROOT));
+        if (extension == null) {
+            throw new IOException("Unsupported image type: " + mimeType);
+        }
+        Path directory = getDirectory();
+        Files.createDirectories(directory);
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(directory, "upload", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp);
+                    InputStream in = new DigestInputStream(data, digest)) {
+                in.transferTo(out);
+            }
+            String name = HexFormat.of().formatHex(digest.digest()) + '.'
+                    + extension;
+            try {
+                Files.move(temp, directory.resolve(name),
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // The same image was stored before
+            }
+            return baseUrl.resolve(name).toString();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Returns the directory the images are stored in.
+     *
+     * @return the absolute directory path
+     */
+    public Path getDirectory() {
+        return Path.of(directory);
+    }
+
+    /**
+     * Returns the base URL of the stored images.
+     *
+     * @return the base URL, ending with a slash
+     */
+    public URI getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Returns the file of a stored image by its file name, the last segment
+     * of its URL. Names that this store does not produce, e.g. containing
+     * path separators, are rejected.
+     *
+     * @param name the file name
+     * @return the file, or an empty optional if the name is not valid or no
+     *         such image has been stored
+     */
+    public Optional<Path> getFile(String name) {
+        if (name == null || !FILE_NAME.matcher(name).matches()) {
+            return Optional.empty();
+        }
+        Path file = getDirectory().resolve(name);
+        return Files.isRegularFile(file) ? Optional.of(file)
+                : Optional.empty();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import com.vaadin.flow.internal.JacksonUtils;
+
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Defines how the browser processes images that the user pastes or drops
+ * into the editor, or inserts with the image toolbar button, before they
+ * become part of the value. Images larger than the max dimensions are
+ * scaled down, and images can be re-encoded to a more compact format, on an
+ * offscreen canvas. This keeps full-resolution photos and screenshots out of
+ * the value, which reduces the size of the value sync and the time the
+ * server spends sanitizing it.
+ * <p>
+ * An image that already meets the policy is inserted unchanged, so it does
+ * not lose quality by being re-encoded. Animated GIF and SVG images are
+ * never re-encoded. An image that cannot be brought under the max byte size,
+ * even at reduced quality and dimensions, is not inserted.
+ * <p>
+ * The policy is applied in the browser. It reduces the payload of
+ * well-behaved clients but is no security boundary: the server-side
+ * sanitizer still checks every image.
+ * <p>
+ * Usage:
+ * <pre>
+ * editor.setImageIngestPolicy(ImageIngestPolicy.maxSize(1920, 1920)
+ *         .withFormat(ImageIngestPolicy.Format.WEBP).withMaxBytes(500_000));
+ * </pre>
+ *
+ * @see EnhancedRichTextEditor#setImageIngestPolicy(ImageIngestPolicy)
+ * @since 6.1.0
+ */
+public final class ImageIngestPolicy implements Serializable {
+
+    /**
+     * Default quality for {@link Format#JPEG} and {@link Format#WEBP}
+     * encoding.
+     */
+    public static final double DEFAULT_QUALITY = 0.85;
+
+    private static final ImageIngestPolicy NONE = new ImageIngestPolicy(0, 0,
+            Format.ORIGINAL, DEFAULT_QUALITY, 0);
+
+    private final int maxWidth;
+    private final int maxHeight;
+    private final Format format;
+    private final double quality;
+    private final int maxBytes;
+
+    private ImageIngestPolicy(int maxWidth, int maxHeight, Format format,
+            double quality, int maxBytes) {
+        if (maxWidth < 0 || maxHeight < 0) {
+            throw new IllegalArgumentException(
+                    "Max dimensions must not be negative: " + maxWidth + "x"
+                            + maxHeight);
+        }
+        Objects.requireNonNull(format, "Format must not be null");
+        if (!(quality > 0 && quality <= 1)) {
+            throw new IllegalArgumentException(
+                    "Quality must be greater than 0 and at most 1: "
+                            + quality);
+        }
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException(
+                    "Max bytes must not be negative: " + maxBytes);
+        }
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+        this.format = format;
+        this.quality = quality;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Inserts images as they are. This is the default.
+     *
+     * @return the policy that does not process images
+     */
+    public static ImageIngestPolicy none() {
+        return NONE;
+    }
+
+    /**
+     * Scales images down to fit the given dimensions, keeping their aspect
+     * ratio and format.
+     *
+     * @param maxWidth  the maximum width in pixels, or {@code 0} for no limit
+     * @param maxHeight the maximum height in pixels, or {@code 0} for no
+     *                  limit
+     * @return a policy with the given max dimensions
+     */
+    public static ImageIngestPolicy maxSize(int maxWidth, int maxHeight) {
+        return NONE.withMaxSize(maxWidth, maxHeight);
+    }
+
+    /**
+     * Returns a copy of this policy with the given max dimensions.
+     *
+     * @param maxWidth  the maximum width in pixels, or {@code 0} for no limit
+     * @param maxHeight the maximum height in pixels, or {@code 0} for no
+     *                  limit
+     * @return a new policy with the given max dimensions
+     */
+    public ImageIngestPolicy withMaxSize(int maxWidth, int maxHeight) {
+        return new ImageIngestPolicy(maxWidth, maxHeight, format, quality,
+                maxBytes);
+    }
+
+    /**
+     * Returns a copy of this policy that encodes images in the given format.
+     * Browsers that cannot encode the format, e.g. WebP in older Safari
+     * versions, fall back to PNG; the smaller of the original and the
+     * re-encoded image is then used.
+     *
+     * @param format the target format, not {@code null}
+     * @return a new policy with the given format
+     */
+    public ImageIngestPolicy withFormat(Format format) {
+        return new ImageIngestPolicy(maxWidth, maxHeight, format, quality,
+                maxBytes);
+    }
+
+    /**
+     * Returns a copy of this policy with the given encoding quality for
+     * lossy formats. Ignored for PNG.
+     *
+     * @param quality the quality, greater than {@code 0} and at most
+     *                {@code 1}
+     * @return a new policy with the given quality
+     */
+    public ImageIngestPolicy withQuality(double quality) {
+        return new ImageIngestPolicy(maxWidth, maxHeight, format, quality,
+                maxBytes);
+    }
+
+    /**
+     * Returns a copy of this policy that limits the size of an encoded
+     * image. A larger image is encoded at stepwise lower quality, for lossy
+     * formats, and then at smaller dimensions until it fits.
+     *
+     * @param maxBytes the maximum size of the decoded image data in bytes,
+     *                 or {@code 0} for no limit
+     * @return a new policy with the given max byte size
+     */
+    public ImageIngestPolicy withMaxBytes(int maxBytes) {
+        return new ImageIngestPolicy(maxWidth, maxHeight, format, quality,
+                maxBytes);
+    }
+
+    /**
+     * Returns the maximum image width in pixels, or {@code 0} if unlimited.
+     *
+     * @return the max width
+     */
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    /**
+     * Returns the maximum image height in pixels, or {@code 0} if unlimited.
+     *
+     * @return the max height
+     */
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * Returns the format images are encoded in.
+     *
+     * @return the target format
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the encoding quality for lossy formats.
+     *
+     * @return the quality, greater than {@code 0} and at most {@code 1}
+     */
+    public double getQuality() {
+        return quality;
+    }
+
+    /**
+     * Returns the maximum size of an image in bytes, or {@code 0} if
+     * unlimited.
+     *
+     * @return the max byte size
+     */
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+    ObjectNode toJson() {
+        ObjectNode json = JacksonUtils.getMapper().createObjectNode();
+        json.put("maxWidth", maxWidth);
+        json.put("maxHeight", maxHeight);
+        if (format.mimeType != null) {
+            json.put("format", format.mimeType);
+        } else {
+            json.putNull("format");
+        }
+        json.put("quality", quality);
+        json.put("maxBytes", maxBytes);
+        return json;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        ImageIngestPolicy that = (ImageIngestPolicy) o;
+        return maxWidth == that.maxWidth && maxHeight == that.maxHeight
+                && Double.compare(quality, that.quality) == 0
+                && maxBytes == that.maxBytes && format == that.format;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxWidth, maxHeight, format, quality, maxBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "ImageIngestPolicy{" + "maxWidth=" + maxWidth + ", maxHeight="
+                + maxHeight + ", format=" + format + ", quality=" + quality
+                + ", maxBytes=" + maxBytes + '}';
+    }
+
+    /**
+     * The format images are encoded in.
+     */
+    public enum Format {
+        /**
+         * Keep the format of each image; PNG for formats a canvas cannot
+         * encode.
+         */
+        ORIGINAL(null),
+        /** Lossless PNG. */
+        PNG("image/png"),
+        /** Lossy JPEG; transparent areas become white. */
+        JPEG("image/jpeg"),
+        /** Lossy WebP. */
+        WEBP("image/webp");
+
+        private final String mimeType;
+
+        Format(String mimeType) {
+            this.mimeType = mimeType;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+
+/**
+ * Storage for images that are embedded in the editor value as {@code data:}
+ * URLs. When set with
+ * {@link EnhancedRichTextEditor#setImageStore(ImageStore)}, every image that
+ * passes the sanitizer's {@code data:} URL check is decoded and stored, and
+ * its {@code src} is replaced with the returned URL, so the value only holds
+ * a short reference instead of the base64 payload.
+ * <p>
+ * The returned URL must be an absolute {@code http} or {@code https} URL,
+ * since the sanitizer removes other image sources; for any other URL the
+ * image is kept inline. It should be stable:
+ * storing the same image again should return the same URL.
+ *
+ * @see FileSystemImageStore
+ * @since 6.1.0
+ */
+@FunctionalInterface
+public interface ImageStore extends Serializable {
+
+    /**
+     * Stores an image.
+     *
+     * @param mimeType the MIME type of the image, e.g. {@code image/png}
+     * @param data     the decoded image bytes; read as they are decoded from
+     *                 the {@code data:} URL, never {@code null}
+     * @return the URL to reference the stored image with
+     * @throws IOException if the image cannot be stored; it is then kept
+     *                     inline
+     */
+    String store(String mimeType, InputStream data) throws IOException;
+}
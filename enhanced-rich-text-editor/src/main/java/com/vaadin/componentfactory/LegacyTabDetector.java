@@ -0,0 +1,203 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Queue;
+
+/**
+ * Detects deltas that may contain old-format tab operations, as converted
+ * by {@link TabConverter}, in a single pass and without allocating.
+ * <p>
+ * The input is scanned once for the marker tokens {@code "tabs-cont"},
+ * {@code "pre-tab"}, {@code "line-part"} and {@code "tab":"} with an
+ * Aho–Corasick automaton. The markers are ASCII, so UTF-8 encoded input can
+ * be scanned as bytes without decoding it first, e.g. straight from a
+ * database column or file.
+ * <p>
+ * A {@code false} result is definite: the delta needs no conversion. A
+ * {@code true} result may be caused by a marker appearing in text; the
+ * conversion then returns the delta unchanged.
+ *
+ * @see TabConverter#convertIfNeeded(String)
+ * @since 6.1.0
+ */
+public final class LegacyTabDetector {
+
+    private static final String[] MARKERS = { "\"tabs-cont\"",
+            "\"pre-tab\"", "\"line-part\"", "\"tab\":\"" };
+
+    /** Character class of each ASCII character; 0 for all others. */
+    private static final byte[] CLASSES = new byte[128];
+    private static final int CLASS_COUNT;
+    /** The automaton: next state for {@code state * CLASS_COUNT + class}. */
+    private static final short[] NEXT;
+    /** Marks the states in which a marker has been matched. */
+    private static final boolean[] MATCH;
+
+    static {
+        int classes = 1;
+        for (String marker : MARKERS) {
+            for (char c : marker.toCharArray()) {
+                if (CLASSES[c] == 0) {
+                    CLASSES[c] = (byte) classes++;
+                }
+            }
+        }
+        CLASS_COUNT = classes;
+
+        // Trie of the markers; -1 for missing transitions
+        int maxStates = 1 + Arrays.stream(MARKERS).mapToInt(String::length)
+                .sum();
+        short[] next = new short[maxStates * classes];
+        Arrays.fill(next, (short) -1);
+        boolean[] match = new boolean[maxStates];
+        int states = 1;
+        for (String marker : MARKERS) {
+            int state = 0;
+            for (char c : marker.toCharArray()) {
+                int index = state * classes + CLASSES[c];
+                if (next[index] < 0) {
+                    next[index] = (short) states++;
+                }
+                state = next[index];
+            }
+            match[state] = true;
+        }
+
+        // Fill in the missing transitions from the failure links, breadth
+        // first, turning the trie into a deterministic automaton
+        int[] failure = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < classes; c++) {
+            if (next[c] < 0) {
+                next[c] = 0;
+            } else {
+                queue.add((int) next[c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            match[state] |= match[failure[state]];
+            for (int c = 0; c < classes; c++) {
+                int index = state * classes + c;
+                int fallback = next[failure[state] * classes + c];
+                if (next[index] < 0) {
+                    next[index] = (short) fallback;
+                } else {
+                    failure[next[index]] = fallback;
+                    queue.add((int) next[index]);
+                }
+            }
+        }
+        NEXT = Arrays.copyOf(next, states * classes);
+        MATCH = Arrays.copyOf(match, states);
+    }
+
+    private LegacyTabDetector() {
+        // Utility class
+    }
+
+    /**
+     * Checks a delta JSON string.
+     *
+     * @param deltaJson the delta JSON, may be {@code null}
+     * @return {@code true} if the delta may contain old-format tab
+     *         operations
+     */
+    public static boolean mayContainLegacyTabs(CharSequence deltaJson) {
+        if (deltaJson == null) {
+            return false;
+        }
+        int state = 0;
+        for (int i = 0, length = deltaJson.length(); i < length; i++) {
+            char c = deltaJson.charAt(i);
+            state = NEXT[state * CLASS_COUNT + (c < 128 ? CLASSES[c] : 0)];
+            if (MATCH[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks UTF-8 (or other ASCII compatible) encoded delta JSON.
+     *
+     * @param deltaJson the encoded delta JSON
+     * @return {@code true} if the delta may contain old-format tab
+     *         operations
+     */
+    public static boolean mayContainLegacyTabs(byte[] deltaJson) {
+        Objects.requireNonNull(deltaJson, "Delta cannot be null");
+        return mayContainLegacyTabs(deltaJson, 0, deltaJson.length);
+    }
+
+    /**
+     * Checks a range of UTF-8 (or other ASCII compatible) encoded delta
+     * JSON.
+     *
+     * @param deltaJson the encoded delta JSON
+     * @param offset    the index of the first byte to check
+     * @param length    the number of bytes to check
+     * @return {@code true} if the delta may contain old-format tab
+     *         operations
+     */
+    public static boolean mayContainLegacyTabs(byte[] deltaJson, int offset,
+            int length) {
+        Objects.checkFromIndexSize(offset, length, deltaJson.length);
+        int state = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            // Bytes of multi-byte characters are negative: class 0
+            byte b = deltaJson[i];
+            state = NEXT[state * CLASS_COUNT + (b >= 0 ? CLASSES[b] : 0)];
+            if (MATCH[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks the remaining bytes of a buffer of UTF-8 (or other ASCII
+     * compatible) encoded delta JSON. The position of the buffer is not
+     * changed.
+     *
+     * @param deltaJson the encoded delta JSON
+     * @return {@code true} if the delta may contain old-format tab
+     *         operations
+     */
+    public static boolean mayContainLegacyTabs(ByteBuffer deltaJson) {
+        if (deltaJson.hasArray()) {
+            return mayContainLegacyTabs(deltaJson.array(),
+                    deltaJson.arrayOffset() + deltaJson.position(),
+                    deltaJson.remaining());
+        }
+        int state = 0;
+        for (int i = deltaJson.position(), end = deltaJson.limit(); i < end;
+                i++) {
+            byte b = deltaJson.get(i);
+            state = NEXT[state * CLASS_COUNT + (b >= 0 ? CLASSES[b] : 0)];
+            if (MATCH[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
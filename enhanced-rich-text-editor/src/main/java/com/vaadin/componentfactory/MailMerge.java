@@ -0,0 +1,349 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import com.vaadin.flow.internal.JacksonUtils;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Replaces the placeholders of stored documents with values, without an
+ * editor instance.
+ * <p>
+ * Each placeholder embed whose text the {@link PlaceholderResolver} knows is
+ * replaced with its value as plain text. The text keeps the formatting of
+ * the embed and gets the placeholder's {@code format} applied on top; for
+ * placeholders shown in alt appearance the {@code altFormat} is applied
+ * as well, matching what the editor displays. Line breaks in values become
+ * soft breaks and tabs become tab embeds. Unresolved placeholders are kept
+ * unless {@link #withUnresolvedRemoved(boolean)} is set.
+ * <p>
+ * The resolver is called once per document with all its placeholder texts.
+ * Instances are immutable and thread-safe (given a thread-safe resolver),
+ * so one instance can merge many documents in parallel:
+ * <pre>
+ * MailMerge merge = MailMerge.create(texts -&gt; customerValues(texts))
+ *         .withRenderer(DeltaHtmlRenderer.create());
+ * try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+ *     List&lt;String&gt; letters = merge.mergeAllToHtml(documents, executor);
+ * }
+ * </pre>
+ *
+ * @see PlaceholderResolver
+ * @see DeltaHtmlRenderer
+ * @since 6.1.0
+ */
+public final class MailMerge implements Serializable {
+
+    private final PlaceholderResolver resolver;
+    // null: follow each placeholder's own altAppearance flag
+    private final Boolean altAppearance;
+    private final boolean removeUnresolved;
+    private final DeltaHtmlRenderer renderer;
+
+    private MailMerge(PlaceholderResolver resolver, Boolean altAppearance,
+            boolean removeUnresolved, DeltaHtmlRenderer renderer) {
+        this.resolver = resolver;
+        this.altAppearance = altAppearance;
+        this.removeUnresolved = removeUnresolved;
+        this.renderer = renderer;
+    }
+
+    /**
+     * Creates a merge resolving placeholders with the given resolver.
+     *
+     * @param resolver the placeholder value source
+     * @return a new merge
+     */
+    public static MailMerge create(PlaceholderResolver resolver) {
+        Objects.requireNonNull(resolver, "Resolver cannot be null");
+        return new MailMerge(resolver, null, false,
+                DeltaHtmlRenderer.create());
+    }
+
+    /**
+     * Returns a copy that formats all values as in normal ({@code false})
+     * or alt ({@code true}) appearance, regardless of how each placeholder
+     * was shown in the editor.
+     *
+     * @param altAppearance whether to apply the alt format
+     * @return a new merge with the setting
+     */
+    public MailMerge withAltAppearance(boolean altAppearance) {
+        return new MailMerge(resolver, altAppearance, removeUnresolved,
+                renderer);
+    }
+
+    /**
+     * Returns a copy that removes placeholders without a value instead of
+     * keeping them.
+     *
+     * @param removeUnresolved whether to remove unresolved placeholders
+     * @return a new merge with the setting
+     */
+    public MailMerge withUnresolvedRemoved(boolean removeUnresolved) {
+        return new MailMerge(resolver, altAppearance, removeUnresolved,
+                renderer);
+    }
+
+    /**
+     * Returns a copy that renders HTML with the given renderer.
+     *
+     * @param renderer the renderer used by the {@code ToHtml} methods
+     * @return a new merge with the renderer
+     */
+    public MailMerge withRenderer(DeltaHtmlRenderer renderer) {
+        Objects.requireNonNull(renderer, "Renderer cannot be null");
+        return new MailMerge(resolver, altAppearance, removeUnresolved,
+                renderer);
+    }
+
+    /**
+     * Merges the values into a Delta JSON document.
+     *
+     * @param deltaJson the document as a Delta JSON array
+     * @return the merged document as a Delta JSON array
+     */
+    public String merge(String deltaJson) {
+        return merge(Delta.fromJson(deltaJson)).toJsonString();
+    }
+
+    /**
+     * Merges the values into a document.
+     *
+     * @param document the document
+     * @return the merged document; the same instance if it contains no
+     *         placeholders
+     */
+    public Delta merge(Delta document) {
+        Objects.requireNonNull(document, "Delta cannot be null");
+        Set<String> texts = new LinkedHashSet<>();
+        for (Delta.Op op : document.getOps()) {
+            String text = placeholderText(op);
+            if (text != null) {
+                texts.add(text);
+            }
+        }
+        if (texts.isEmpty()) {
+            return document;
+        }
+        Map<String, String> values = resolver
+                .resolve(Collections.unmodifiableSet(texts));
+        if (values == null) {
+            values = Map.of();
+        }
+
+        Delta.Builder merged = Delta.builder();
+        for (Delta.Op op : document.getOps()) {
+            String text = placeholderText(op);
+            String value = text != null ? values.get(text) : null;
+            if (value != null) {
+                insertValue(merged, value,
+                        attributes(op.attributes, op.embed.get("placeholder")));
+            } else if (text == null || !removeUnresolved) {
+                merged.push(op);
+            }
+        }
+        return merged.build();
+    }
+
+    /**
+     * Merges the values into a document and renders the result as HTML.
+     *
+     * @param document the document
+     * @return the merged document as sanitized HTML
+     * @see #withRenderer(DeltaHtmlRenderer)
+     */
+    public String mergeToHtml(Delta document) {
+        return renderer.render(merge(document));
+    }
+
+    /**
+     * Merges many documents, each as a separate task of the given executor.
+     * Use e.g. a {@link java.util.concurrent.ForkJoinPool} or a virtual
+     * thread per task executor.
+     *
+     * @param documents the documents
+     * @param executor  the executor running the merges
+     * @return the merged documents, in the order of {@code documents}
+     */
+    public List<Delta> mergeAll(List<Delta> documents, Executor executor) {
+        return mergeAll(documents, executor, this::merge);
+    }
+
+    /**
+     * Merges many documents and renders them as HTML, each as a separate
+     * task of the given executor.
+     *
+     * @param documents the documents
+     * @param executor  the executor running the merges
+     * @return the merged documents as HTML, in the order of
+     *         {@code documents}
+     * @see #mergeAll(List, Executor)
+     */
+    public List<String> mergeAllToHtml(List<Delta> documents,
+            Executor executor) {
+        return mergeAll(documents, executor, this::mergeToHtml);
+    }
+
+    private static <R> List<R> mergeAll(List<Delta> documents,
+            Executor executor, Function<Delta, R> task) {
+        Objects.requireNonNull(documents, "Documents cannot be null");
+        Objects.requireNonNull(executor, "Executor cannot be null");
+        List<CompletableFuture<R>> futures = new ArrayList<>(documents.size());
+        for (Delta document : documents) {
+            futures.add(CompletableFuture
+                    .supplyAsync(() -> task.apply(document), executor));
+        }
+        List<R> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<R> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private static String placeholderText(Delta.Op op) {
+        if (op.embed == null) {
+            return null;
+        }
+        JsonNode text = op.embed.path("placeholder").path("text");
+        return text.isTextual() ? text.asText() : null;
+    }
+
+    /**
+     * The attributes of the value text: the embed's own attributes with the
+     * placeholder's format (and alt format) applied on top.
+     */
+    private ObjectNode attributes(ObjectNode embedAttributes,
+            JsonNode placeholder) {
+        ObjectNode attributes = embedAttributes != null
+                ? embedAttributes.deepCopy()
+                : JacksonUtils.getMapper().createObjectNode();
+        applyFormat(attributes, placeholder.get("format"));
+        boolean alt = altAppearance != null ? altAppearance
+                : placeholder.path("altAppearance").asBoolean(false);
+        if (alt) {
+            applyFormat(attributes, placeholder.get("altFormat"));
+        }
+        return attributes;
+    }
+
+    /**
+     * Converts a placeholder format, which the editor applies as inline
+     * styles, to the equivalent Quill attributes. Style properties without
+     * a Quill equivalent are dropped, and values that do not convert to
+     * the expected type leave the format unset.
+     */
+    private static void applyFormat(ObjectNode attributes, JsonNode format) {
+        if (format == null || !format.isObject()) {
+            return;
+        }
+        for (Map.Entry<String, JsonNode> entry : format.properties()) {
+            JsonNode value = entry.getValue();
+            String text = value.asText("");
+            switch (entry.getKey()) {
+            case "bold", "italic", "underline", "strike", "code" ->
+                flag(attributes, entry.getKey(), value.asBoolean(false));
+            case "link", "script", "font", "color", "background", "size" ->
+                value(attributes, entry.getKey(), text);
+            case "fontWeight", "font-weight" -> flag(attributes, "bold",
+                    text.equals("bold") || text.equals("bolder")
+                            || value.asInt(0) >= 600);
+            case "fontStyle", "font-style" ->
+                flag(attributes, "italic", text.equals("italic"));
+            case "fontFamily", "font-family" ->
+                value(attributes, "font", text);
+            case "backgroundColor", "background-color" ->
+                value(attributes, "background", text);
+            case "textDecoration", "text-decoration" -> {
+                flag(attributes, "underline", text.contains("underline"));
+                flag(attributes, "strike", text.contains("line-through"));
+            }
+            default -> {
+                // No Quill equivalent
+            }
+            }
+        }
+    }
+
+    private static void flag(ObjectNode attributes, String name,
+            boolean set) {
+        if (set) {
+            attributes.put(name, true);
+        } else {
+            attributes.remove(name);
+        }
+    }
+
+    private static void value(ObjectNode attributes, String name,
+            String value) {
+        if (value.isEmpty()) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    private static void insertValue(Delta.Builder merged, String value,
+            ObjectNode attributes) {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\n' && c != '\r' && c != '\t') {
+                continue;
+            }
+            merged.insert(value.substring(start, i), attributes);
+            if (c == '\t') {
+                merged.insertEmbed(embed("tab"), attributes);
+            } else if (c == '\n' || i + 1 == value.length()
+                    || value.charAt(i + 1) != '\n') {
+                // \r\n and lone \r count as one line break
+                merged.insertEmbed(embed("soft-break"), attributes);
+            }
+            start = i + 1;
+        }
+        merged.insert(value.substring(start), attributes);
+    }
+
+    private static ObjectNode embed(String type) {
+        ObjectNode embed = JacksonUtils.getMapper().createObjectNode();
+        embed.put(type, true);
+        return embed;
+    }
+}
@@ -0,0 +1,30 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+/**
+ * The {@link SanitizerMetrics#noop()} singleton. An enum, so that it stays
+ * a singleton when an editor is serialized.
+ */
+enum NoopSanitizerMetrics implements SanitizerMetrics {
+    INSTANCE;
+
+    @Override
+    public void record(Sample sample) {
+        // Discard
+    }
+}
@@ -45,6 +45,25 @@ public class Placeholder implements Serializable {
         this.text = text;
     }
 
+    /**
+     * Creates a copy of the given placeholder, including its index. The
+     * format maps are copied, so the copy can be changed without affecting
+     * the original.
+     *
+     * @param other the placeholder to copy
+     */
+    public Placeholder(Placeholder other) {
+        Objects.requireNonNull(other, "Placeholder cannot be null");
+        text = other.text;
+        if (other.format != null) {
+            format = new LinkedHashMap<>(other.format);
+        }
+        if (other.altFormat != null) {
+            altFormat = new LinkedHashMap<>(other.altFormat);
+        }
+        index = other.index;
+    }
+
     /**
      * Construct Placeholder from a Jackson JsonNode (for @EventData parsing).
      *
@@ -0,0 +1,57 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Supplies the values of placeholders for a {@link MailMerge}.
+ * <p>
+ * The resolver is called once per document with the texts of all
+ * placeholders the document contains, so values can be looked up in a
+ * single batch (e.g. one database query per letter).
+ *
+ * @see MailMerge
+ * @since 6.1.0
+ */
+@FunctionalInterface
+public interface PlaceholderResolver extends Serializable {
+
+    /**
+     * Resolves the values of the given placeholders.
+     *
+     * @param texts the distinct texts of the placeholders to resolve, never
+     *              empty
+     * @return the values by placeholder text; placeholders missing from the
+     *         map (or mapped to {@code null}) are left unresolved
+     */
+    Map<String, String> resolve(Set<String> texts);
+
+    /**
+     * Returns a resolver reading the values from the given map.
+     *
+     * @param values the values by placeholder text
+     * @return a resolver backed by the map
+     */
+    static PlaceholderResolver of(Map<String, String> values) {
+        Objects.requireNonNull(values, "Values cannot be null");
+        return texts -> values;
+    }
+}
@@ -0,0 +1,148 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Receives a {@link Sample} for every value the editor sanitizes, with the
+ * input and output sizes, the time spent in each stage of the sanitizer and
+ * the number of classes, style declarations and attributes it removed.
+ * <p>
+ * The measurements map directly onto Micrometer meters: sizes onto
+ * distribution summaries, stage times onto timers tagged with
+ * {@link Stage#getTagValue()}, and removal counts onto counters. The add-on
+ * does not depend on Micrometer; an application that uses it binds a
+ * registry like this:
+ * <pre>
+ * editor.setSanitizerMetrics(sample -&gt; {
+ *     registry.summary("erte.sanitize.input.size").record(sample.inputLength());
+ *     for (SanitizerMetrics.Stage stage : SanitizerMetrics.Stage.values()) {
+ *         registry.timer("erte.sanitize.stage", "stage", stage.getTagValue())
+ *                 .record(sample.nanos(stage), TimeUnit.NANOSECONDS);
+ *     }
+ *     registry.counter("erte.sanitize.stripped", "kind", "class")
+ *             .increment(sample.strippedClasses());
+ * });
+ * </pre>
+ * <p>
+ * Stage times are only measured while metrics other than {@link #noop()}
+ * are set, so the default adds no overhead. Values that the editor does not
+ * sanitize again because they equal the previous input or output (see
+ * {@link EnhancedRichTextEditor#getSanitizeCacheHitCount()}) produce no
+ * sample. The hook is called on the thread that sets the value, typically
+ * while holding the session lock, and should return quickly.
+ *
+ * @see EnhancedRichTextEditor#setSanitizerMetrics(SanitizerMetrics)
+ * @since 6.1.0
+ */
+@FunctionalInterface
+public interface SanitizerMetrics extends Serializable {
+
+    /**
+     * Records the measurements of one sanitized value.
+     *
+     * @param sample the measurements, never {@code null}
+     */
+    void record(Sample sample);
+
+    /**
+     * Returns metrics that discard all samples. This is the default.
+     *
+     * @return the no-op metrics
+     */
+    static SanitizerMetrics noop() {
+        return NoopSanitizerMetrics.INSTANCE;
+    }
+
+    /**
+     * The measured stages of the sanitizer.
+     */
+    enum Stage {
+        /** Parsing the HTML and cleaning it with the jsoup safelist. */
+        CLEAN("clean"),
+        /** Filtering {@code class} attributes. */
+        CLASS_FILTER("class-filter"),
+        /** Filtering {@code style} attributes. */
+        STYLE_FILTER("style-filter"),
+        /**
+         * Checking {@code src} attributes and moving {@code data:} URL
+         * images to the image store.
+         */
+        DATA_URL_FILTER("data-url-filter");
+
+        private final String tagValue;
+
+        Stage(String tagValue) {
+            this.tagValue = tagValue;
+        }
+
+        /**
+         * Returns a lower-case name of the stage for use as a metric tag.
+         *
+         * @return the tag value
+         */
+        public String getTagValue() {
+            return tagValue;
+        }
+    }
+
+    /**
+     * The measurements of one sanitized value. Times are in nanoseconds;
+     * the total also includes serializing the result, so it is larger than
+     * the sum of the stages.
+     *
+     * @param inputLength        the length of the input HTML in characters
+     * @param outputLength       the length of the sanitized HTML in
+     *                           characters
+     * @param totalNanos         the time spent sanitizing the value
+     * @param cleanNanos         the time spent in {@link Stage#CLEAN}
+     * @param classFilterNanos   the time spent in {@link Stage#CLASS_FILTER}
+     * @param styleFilterNanos   the time spent in {@link Stage#STYLE_FILTER}
+     * @param dataUrlFilterNanos the time spent in
+     *                           {@link Stage#DATA_URL_FILTER}
+     * @param strippedClasses    the number of class names removed from
+     *                           {@code class} attributes
+     * @param strippedStyles     the number of declarations removed from
+     *                           {@code style} attributes
+     * @param strippedAttributes the number of attributes removed, by the
+     *                           safelist or the ERTE rules, including those
+     *                           of removed elements
+     */
+    record Sample(int inputLength, int outputLength, long totalNanos,
+            long cleanNanos, long classFilterNanos, long styleFilterNanos,
+            long dataUrlFilterNanos, int strippedClasses, int strippedStyles,
+            int strippedAttributes) implements Serializable {
+
+        /**
+         * Returns the time spent in a stage.
+         *
+         * @param stage the stage, not {@code null}
+         * @return the time in nanoseconds
+         */
+        public long nanos(Stage stage) {
+            Objects.requireNonNull(stage, "Stage cannot be null");
+            return switch (stage) {
+            case CLEAN -> cleanNanos;
+            case CLASS_FILTER -> classFilterNanos;
+            case STYLE_FILTER -> styleFilterNanos;
+            case DATA_URL_FILTER -> dataUrlFilterNanos;
+            };
+        }
+    }
+}
@@ -16,9 +16,18 @@
  */
 package com.vaadin.componentfactory;
 
-import tools.jackson.databind.JsonNode;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.TreeNode;
 import tools.jackson.databind.json.JsonMapper;
-import tools.jackson.databind.node.ArrayNode;
 import tools.jackson.databind.node.ObjectNode;
 
 /**
@@ -30,6 +39,10 @@ import tools.jackson.databind.node.ObjectNode;
  * to the simplified current format while preserving all other content and
  * formatting.
  * <p>
+ * Conversion is streaming: operations are read one at a time and regular
+ * operations are copied to the output as they are, so memory use does not
+ * grow with the document. Only legacy tab operations are rebuilt.
+ * <p>
  * <b>Breaking change in ERTE 6.0:</b> This converter is no longer applied
  * automatically in {@code setValue()}. Applications that store deltas created
  * with ERTE versions prior to 5.2.0 must call {@link #convertIfNeeded(String)}
@@ -42,6 +55,17 @@ public class TabConverter {
     private static final String ZERO_WIDTH_SPACE = "\uFEFF";
     private static final JsonMapper MAPPER = JsonMapper.shared();
 
+    // Legacy attributes, in the order of precedence of their conversion
+    private static final String TAB = "tab";
+    private static final String PRE_TAB = "pre-tab";
+    private static final String LINE_PART = "line-part";
+    private static final String TABS_CONT = "tabs-cont";
+
+    // Results of the streaming conversion
+    private static final int NO_OPS = -1;
+    private static final int UNCHANGED = 0;
+    private static final int CONVERTED = 1;
+
     private TabConverter() {
         // Utility class
     }
@@ -57,32 +81,12 @@ public class TabConverter {
      * @param deltaJson the delta JSON string (may be old or new format)
      * @return the converted delta JSON string, or the original if no
      *         conversion needed
+     * @see LegacyTabDetector
      */
     public static String convertIfNeeded(String deltaJson) {
-        if (deltaJson == null || deltaJson.isBlank()) {
-            return deltaJson;
-        }
-        // Quick string check for old-format markers before parsing JSON
-        if (deltaJson.contains("\"tabs-cont\"")
-                || deltaJson.contains("\"pre-tab\"")
-                || deltaJson.contains("\"line-part\"")
-                || (deltaJson.contains("\"tab\"")
-                        && deltaJson.contains("\"tab\":\""))) {
-            try {
-                String trimmed = deltaJson.trim();
-                if (trimmed.startsWith("[")) {
-                    // Array format: wrap in {"ops":...}, convert, unwrap
-                    String wrapped = "{\"ops\":" + trimmed + "}";
-                    String converted = convertToNewFormat(wrapped);
-                    JsonNode obj = MAPPER.readTree(converted);
-                    return MAPPER.writeValueAsString(obj.get("ops"));
-                } else {
-                    return convertToNewFormat(deltaJson);
-                }
-            } catch (Exception e) {
-                // If JSON parsing fails, return unchanged
-                return deltaJson;
-            }
+        // Single scan for old-format markers before parsing JSON
+        if (LegacyTabDetector.mayContainLegacyTabs(deltaJson)) {
+            return convert(deltaJson, true);
         }
         return deltaJson;
     }
@@ -98,99 +102,243 @@ public class TabConverter {
         if (oldDeltaJson == null || oldDeltaJson.isBlank()) {
             return oldDeltaJson;
         }
+        return convert(oldDeltaJson, false);
+    }
 
-        try {
-            JsonNode oldDelta = MAPPER.readTree(oldDeltaJson);
-            JsonNode oldOps = oldDelta.get("ops");
-
-            if (oldOps == null || !oldOps.isArray()) {
-                return oldDeltaJson;
+    /**
+     * Streams a delta from the reader to the writer, converting old-format
+     * tab operations on the way. Accepts both the array format and the
+     * object format and writes the same format. Neither stream is closed.
+     * <p>
+     * Use this to migrate large numbers of stored deltas without holding a
+     * whole document in memory.
+     *
+     * @param reader the source of the delta JSON
+     * @param writer the target of the converted delta JSON
+     * @return {@code true} if any operation was converted
+     * @throws IllegalArgumentException if the input is not a delta
+     * @throws tools.jackson.core.JacksonException if the input is not valid
+     *                                             JSON or writing fails
+     * @since 6.1.0
+     */
+    public static boolean convert(Reader reader, Writer writer) {
+        try (JsonParser parser = MAPPER.createParser(reader);
+                JsonGenerator generator = MAPPER.createGenerator(writer)) {
+            int result = convert(parser, generator, true);
+            if (result == NO_OPS) {
+                throw new IllegalArgumentException(
+                        "Delta must be an array or have an ops array");
             }
+            return result == CONVERTED;
+        }
+    }
 
-            ArrayNode newOps = MAPPER.createArrayNode();
-
-            for (JsonNode op : oldOps) {
-                convertOp(op, newOps);
+    /**
+     * String variant of the streaming conversion. Returns the input itself
+     * when nothing was converted or it cannot be converted.
+     */
+    private static String convert(String json, boolean allowArray) {
+        StringWriter converted = new StringWriter(json.length());
+        try (JsonParser parser = MAPPER.createParser(new StringReader(json));
+                JsonGenerator generator = MAPPER.createGenerator(converted)) {
+            if (convert(parser, generator, allowArray) != CONVERTED) {
+                return json;
             }
-
-            ObjectNode newDelta = MAPPER.createObjectNode();
-            newDelta.set("ops", newOps);
-            return MAPPER.writeValueAsString(newDelta);
-        } catch (Exception e) {
-            return oldDeltaJson;
+        } catch (RuntimeException e) {
+            // If JSON parsing fails, return unchanged
+            return json;
         }
+        return converted.toString();
     }
 
-    private static void convertOp(JsonNode op, ArrayNode newOps) {
-        JsonNode insertValue = op.get("insert");
-        JsonNode attributes = op.get("attributes");
+    private static int convert(JsonParser parser, JsonGenerator generator,
+            boolean allowArray) {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY && allowArray) {
+            return convertOps(parser, generator);
+        }
+        if (token != JsonToken.START_OBJECT) {
+            return NO_OPS;
+        }
+        int result = NO_OPS;
+        generator.writeStartObject();
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String name = parser.currentName();
+            token = parser.nextToken();
+            generator.writeName(name);
+            if ("ops".equals(name) && token == JsonToken.START_ARRAY) {
+                result = Math.max(result, convertOps(parser, generator));
+            } else {
+                generator.copyCurrentStructure(parser);
+            }
+        }
+        generator.writeEndObject();
+        return result;
+    }
 
-        // Handle tab attribute (old format with level)
-        if (attributes != null && attributes.has("tab")) {
-            String tabValue = attributes.get("tab").asText();
-            int tabCount = parseTabLevel(tabValue);
+    private static int convertOps(JsonParser parser, JsonGenerator generator) {
+        boolean converted = false;
+        generator.writeStartArray();
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+            converted |= convertOp(parser, generator);
+        }
+        if (token != JsonToken.END_ARRAY) {
+            throw new IllegalArgumentException(
+                    "Delta operation must be an object: " + token);
+        }
+        generator.writeEndArray();
+        return converted ? CONVERTED : UNCHANGED;
+    }
 
-            for (int t = 0; t < tabCount; t++) {
-                ObjectNode tabOp = MAPPER.createObjectNode();
-                ObjectNode tabEmbed = MAPPER.createObjectNode();
-                tabEmbed.put("tab", true);
-                tabOp.set("insert", tabEmbed);
-                newOps.add(tabOp);
+    /**
+     * Converts or copies the operation starting at the parser's current
+     * {@code START_OBJECT}. Properties read before the attributes are held
+     * back (usually just the insert) until the attributes show whether the
+     * operation is a legacy one; after that, the rest of a regular
+     * operation is copied token by token.
+     *
+     * @return whether the operation was converted
+     */
+    private static boolean convertOp(JsonParser parser,
+            JsonGenerator generator) {
+        List<String> names = null;
+        List<Object> values = null;
+        ObjectNode attributes = null;
+        String legacy = null;
+        boolean copying = false;
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            String name = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (copying) {
+                generator.writeName(name);
+                generator.copyCurrentStructure(parser);
+                continue;
             }
-            return;
+            if ("attributes".equals(name) && token == JsonToken.START_OBJECT
+                    && attributes == null) {
+                attributes = parser.readValueAsTree();
+                legacy = legacyAttribute(attributes);
+                if (legacy == null) {
+                    // Regular operation: write it out and copy the rest
+                    generator.writeStartObject();
+                    writeHeld(generator, names, values);
+                    generator.writeName(name);
+                    generator.writeTree(attributes);
+                    copying = true;
+                }
+                continue;
+            }
+            if (names == null) {
+                names = new ArrayList<>(2);
+                values = new ArrayList<>(2);
+            }
+            names.add(name);
+            values.add(token == JsonToken.VALUE_STRING
+                    ? parser.getValueAsString()
+                    : parser.readValueAsTree());
         }
-
-        // Handle pre-tab (temporary tab, convert to single tab)
-        if (attributes != null && attributes.has("pre-tab")) {
-            ObjectNode tabOp = MAPPER.createObjectNode();
-            ObjectNode tabEmbed = MAPPER.createObjectNode();
-            tabEmbed.put("tab", true);
-            tabOp.set("insert", tabEmbed);
-            newOps.add(tabOp);
-            return;
+        if (copying) {
+            generator.writeEndObject();
+            return false;
+        }
+        if (legacy == null) {
+            generator.writeStartObject();
+            writeHeld(generator, names, values);
+            generator.writeEndObject();
+            return false;
         }
+        Object insert = names != null && names.contains("insert")
+                ? values.get(names.indexOf("insert")) : null;
+        writeConverted(generator, legacy, attributes, insert);
+        return true;
+    }
 
-        // Handle line-part attribute
-        if (attributes != null && attributes.has("line-part")) {
-            String text = insertValue != null && insertValue.isTextual()
-                    ? insertValue.asText() : null;
+    private static String legacyAttribute(ObjectNode attributes) {
+        if (attributes.has(TAB)) {
+            return TAB;
+        }
+        if (attributes.has(PRE_TAB)) {
+            return PRE_TAB;
+        }
+        if (attributes.has(LINE_PART)) {
+            return LINE_PART;
+        }
+        if (attributes.has(TABS_CONT)) {
+            return TABS_CONT;
+        }
+        return null;
+    }
 
+    private static void writeConverted(JsonGenerator generator,
+            String legacy, ObjectNode attributes, Object insert) {
+        switch (legacy) {
+        case TAB -> {
+            // Old format with level: one tab per level
+            int tabCount = parseTabLevel(attributes.get(TAB).asText());
+            for (int t = 0; t < tabCount; t++) {
+                writeTab(generator);
+            }
+        }
+        // Temporary tab, convert to single tab
+        case PRE_TAB -> writeTab(generator);
+        case LINE_PART -> {
             // If it's just a zero-width space, remove completely
-            if (ZERO_WIDTH_SPACE.equals(text)) {
+            if (ZERO_WIDTH_SPACE.equals(insert)) {
                 return;
             }
-
-            // Otherwise, keep the text but remove line-part attribute
-            ObjectNode newOp = MAPPER.createObjectNode();
-            newOp.put("insert", text);
-
-            // Copy other attributes except line-part
-            ObjectNode remaining = removeAttribute(attributes, "line-part");
-            if (remaining != null && !remaining.isEmpty()) {
-                newOp.set("attributes", remaining);
-            }
-
-            newOps.add(newOp);
-            return;
+            // Otherwise, keep the insert but remove line-part attribute
+            attributes.remove(LINE_PART);
+            writeInsert(generator, insert, attributes);
+        }
+        // Block format, convert to normal newline
+        default -> {
+            attributes.remove(TABS_CONT);
+            writeInsert(generator, "\n", attributes);
         }
+        }
+    }
 
-        // Handle tabs-cont block format (convert to normal newline)
-        if (attributes != null && attributes.has("tabs-cont")) {
-            ObjectNode newOp = MAPPER.createObjectNode();
-            newOp.put("insert", "\n");
+    private static void writeTab(JsonGenerator generator) {
+        generator.writeStartObject();
+        generator.writeName("insert");
+        generator.writeStartObject();
+        generator.writeBooleanProperty("tab", true);
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
 
-            // Copy other attributes except tabs-cont
-            ObjectNode remaining = removeAttribute(attributes, "tabs-cont");
-            if (remaining != null && !remaining.isEmpty()) {
-                newOp.set("attributes", remaining);
-            }
+    private static void writeInsert(JsonGenerator generator, Object insert,
+            ObjectNode attributes) {
+        generator.writeStartObject();
+        generator.writeName("insert");
+        writeValue(generator, insert);
+        if (!attributes.isEmpty()) {
+            generator.writeName("attributes");
+            generator.writeTree(attributes);
+        }
+        generator.writeEndObject();
+    }
 
-            newOps.add(newOp);
+    private static void writeHeld(JsonGenerator generator, List<String> names,
+            List<Object> values) {
+        if (names == null) {
             return;
         }
+        for (int i = 0; i < names.size(); i++) {
+            generator.writeName(names.get(i));
+            writeValue(generator, values.get(i));
+        }
+    }
 
-        // Pass through all other ops unchanged
-        newOps.add(op.deepCopy());
+    private static void writeValue(JsonGenerator generator, Object value) {
+        if (value instanceof String text) {
+            generator.writeString(text);
+        } else if (value instanceof TreeNode tree) {
+            generator.writeTree(tree);
+        } else {
+            generator.writeNull();
+        }
     }
 
     private static int parseTabLevel(String tabValue) {
@@ -203,17 +351,4 @@ public class TabConverter {
             return 1;
         }
     }
-
-    private static ObjectNode removeAttribute(JsonNode attributes,
-            String attributeToRemove) {
-        ObjectNode result = MAPPER.createObjectNode();
-        var it = attributes.properties().iterator();
-        while (it.hasNext()) {
-            var entry = it.next();
-            if (!entry.getKey().equals(attributeToRemove)) {
-                result.set(entry.getKey(), entry.getValue().deepCopy());
-            }
-        }
-        return result;
-    }
 }
@@ -0,0 +1,390 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Converts whole stores of deltas from the old ERTE tab format to the
+ * current format, as {@link TabConverter} does for single documents.
+ * <p>
+ * Documents are read from an iterator or stream and converted in parallel.
+ * Documents without old-format markers are skipped after a single scan
+ * with {@link LegacyTabDetector}; the others are converted with
+ * {@link TabConverter#convert(java.io.Reader, java.io.Writer)}. Only
+ * converted documents are passed to the sink. At most
+ * {@link #withMaxInFlight(int) maxInFlight} documents are held at a time,
+ * so the source is read no faster than documents are converted and memory
+ * use does not grow with the size of the store.
+ * <p>
+ * A document that cannot be converted (e.g. invalid JSON) is reported as a
+ * failure and the migration continues. An exception thrown by the source
+ * or the sink stops the migration and is rethrown by
+ * {@link #migrate(Iterator, Consumer)}, once the documents in flight have
+ * been processed.
+ * <pre>
+ * TabMigration.Result result = TabMigration.create()
+ *         .withProgressListener(p -&gt; log.info("{} read", p.read()), 1000)
+ *         .migrate(documents, document -&gt; store.save(document));
+ * </pre>
+ * {@link TabMigrationTool} runs a migration from the command line against a
+ * directory of JSON files or a JDBC table.
+ *
+ * @see TabConverter
+ * @since 6.1.0
+ */
+public final class TabMigration {
+
+    /** The maximum number of failures kept in a {@link Result}. */
+    public static final int MAX_REPORTED_FAILURES = 1000;
+
+    /**
+     * A stored delta.
+     *
+     * @param id    identifies the document in the store, e.g. a file name
+     *              or primary key
+     * @param delta the delta JSON, array or object format
+     */
+    public record Document(String id, String delta) {
+    }
+
+    /**
+     * A document that could not be converted.
+     *
+     * @param id      the document id
+     * @param message the reason
+     */
+    public record Failure(String id, String message) {
+    }
+
+    /**
+     * The counts of a running migration.
+     *
+     * @param read      the documents read from the source so far
+     * @param converted the documents converted and passed to the sink
+     * @param unchanged the documents without old-format operations
+     * @param failed    the documents that could not be converted
+     */
+    public record Progress(long read, long converted, long unchanged,
+            long failed) {
+
+        /**
+         * Returns the number of documents that have been processed.
+         *
+         * @return converted, unchanged and failed documents
+         */
+        public long processed() {
+            return converted + unchanged + failed;
+        }
+    }
+
+    /**
+     * The outcome of a migration.
+     *
+     * @param converted the documents converted and passed to the sink
+     * @param unchanged the documents without old-format operations
+     * @param failures  the documents that could not be converted, at most
+     *                  {@link #MAX_REPORTED_FAILURES}
+     * @param failed    the number of documents that could not be
+     *                  converted, including those not in {@code failures}
+     * @param duration  the time the migration took
+     */
+    public record Result(long converted, long unchanged,
+            List<Failure> failures, long failed, Duration duration) {
+
+        /**
+         * Returns the number of documents read from the source.
+         *
+         * @return converted, unchanged and failed documents
+         */
+        public long total() {
+            return converted + unchanged + failed;
+        }
+    }
+
+    private final int parallelism;
+    // 0: four times the parallelism
+    private final int maxInFlight;
+    private final Consumer<Progress> progressListener;
+    private final int progressInterval;
+
+    private TabMigration(int parallelism, int maxInFlight,
+            Consumer<Progress> progressListener, int progressInterval) {
+        this.parallelism = parallelism;
+        this.maxInFlight = maxInFlight;
+        this.progressListener = progressListener;
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Creates a migration using one thread per available processor.
+     *
+     * @return a new migration
+     */
+    public static TabMigration create() {
+        return new TabMigration(Runtime.getRuntime().availableProcessors(),
+                0, null, 0);
+    }
+
+    /**
+     * Returns a copy that converts with the given number of threads.
+     *
+     * @param parallelism the number of converting threads
+     * @return a new migration with the setting
+     */
+    public TabMigration withParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Parallelism must be at least 1");
+        }
+        if (maxInFlight != 0 && maxInFlight < parallelism) {
+            throw new IllegalArgumentException(
+                    "Parallelism must not exceed max in flight ("
+                            + maxInFlight + ")");
+        }
+        return new TabMigration(parallelism, maxInFlight, progressListener,
+                progressInterval);
+    }
+
+    /**
+     * Returns a copy that holds at most the given number of documents at a
+     * time: read from the source but not yet converted or written to the
+     * sink. Defaults to four times the parallelism.
+     *
+     * @param maxInFlight the maximum number of documents held
+     * @return a new migration with the setting
+     */
+    public TabMigration withMaxInFlight(int maxInFlight) {
+        if (maxInFlight < parallelism) {
+            throw new IllegalArgumentException(
+                    "Max in flight must be at least the parallelism ("
+                            + parallelism + ")");
+        }
+        return new TabMigration(parallelism, maxInFlight, progressListener,
+                progressInterval);
+    }
+
+    /**
+     * Returns a copy that reports progress every {@code interval} processed
+     * documents and once at the end. The listener is called from the
+     * converting threads, but never concurrently.
+     *
+     * @param listener the progress listener
+     * @param interval the number of documents between reports
+     * @return a new migration with the listener
+     */
+    public TabMigration withProgressListener(Consumer<Progress> listener,
+            int interval) {
+        Objects.requireNonNull(listener, "Listener cannot be null");
+        if (interval < 1) {
+            throw new IllegalArgumentException("Interval must be at least 1");
+        }
+        return new TabMigration(parallelism, maxInFlight, listener,
+                interval);
+    }
+
+    /**
+     * Migrates the documents of a stream. The stream is not closed.
+     *
+     * @param source the documents to migrate
+     * @param sink   receives the converted documents
+     * @return the outcome
+     * @see #migrate(Iterator, Consumer)
+     */
+    public Result migrate(Stream<Document> source, Consumer<Document> sink) {
+        Objects.requireNonNull(source, "Source cannot be null");
+        return migrate(source.iterator(), sink);
+    }
+
+    /**
+     * Migrates the documents of an iterator. The source is read from the
+     * calling thread only. The sink receives each converted document with
+     * the id it was read with; it is called from the converting threads, but
+     * never concurrently, so it does not need to be thread-safe. The order
+     * of the documents passed to the sink is not defined.
+     *
+     * @param source the documents to migrate
+     * @param sink   receives the converted documents
+     * @return the outcome
+     * @throws RuntimeException the exception thrown by the source or the
+     *                          sink, if any
+     */
+    public Result migrate(Iterator<Document> source, Consumer<Document> sink) {
+        Objects.requireNonNull(source, "Source cannot be null");
+        Objects.requireNonNull(sink, "Sink cannot be null");
+        Run run = new Run(sink);
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        int capacity = maxInFlight != 0 ? maxInFlight : parallelism * 4;
+        Semaphore permits = new Semaphore(capacity);
+        try {
+            while (run.error == null && source.hasNext()) {
+                Document document = source.next();
+                permits.acquire();
+                run.read();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            run.process(document);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+            // Wait for the documents still being converted
+            permits.acquire(capacity);
+        } catch (RuntimeException e) {
+            // The source failed; let the documents already read reach the
+            // sink before the caller sees the exception
+            permits.acquireUninterruptibly(capacity);
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            throw new IllegalStateException("Migration was interrupted", e);
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+        if (run.error != null) {
+            throw run.error;
+        }
+        run.reportProgress(true);
+        return run.result(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Converts a single document.
+     *
+     * @return the converted delta, or {@code null} if it has no old-format
+     *         operations
+     */
+    static String convert(String delta) {
+        if (!LegacyTabDetector.mayContainLegacyTabs(delta)) {
+            return null;
+        }
+        StringWriter converted = new StringWriter(delta.length());
+        if (!TabConverter.convert(new StringReader(delta), converted)) {
+            // The markers only appeared in text
+            return null;
+        }
+        return converted.toString();
+    }
+
+    /**
+     * The state of one migration. The counters and the sink are guarded by
+     * the instance lock.
+     */
+    private final class Run {
+
+        private final Consumer<Document> sink;
+        private final List<Failure> failures = new ArrayList<>();
+        private long read;
+        private long converted;
+        private long unchanged;
+        private long failed;
+        private volatile RuntimeException error;
+
+        Run(Consumer<Document> sink) {
+            this.sink = sink;
+        }
+
+        synchronized void read() {
+            read++;
+        }
+
+        void process(Document document) {
+            if (error != null) {
+                // The sink failed; drain the remaining documents
+                return;
+            }
+            String delta;
+            try {
+                delta = convert(document.delta());
+            } catch (RuntimeException e) {
+                failed(document, e);
+                return;
+            }
+            synchronized (this) {
+                if (delta == null) {
+                    unchanged++;
+                } else if (error == null) {
+                    try {
+                        sink.accept(new Document(document.id(), delta));
+                        converted++;
+                    } catch (RuntimeException e) {
+                        error = e;
+                        return;
+                    }
+                }
+                reportProgress(false);
+            }
+        }
+
+        private synchronized void failed(Document document,
+                RuntimeException e) {
+            failed++;
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(new Failure(document.id(),
+                        e.getMessage() != null ? e.getMessage()
+                                : e.getClass().getName()));
+            }
+            reportProgress(false);
+        }
+
+        private synchronized void reportProgress(boolean last) {
+            if (progressListener != null && (last
+                    || (converted + unchanged + failed)
+                            % progressInterval == 0)) {
+                progressListener.accept(
+                        new Progress(read, converted, unchanged, failed));
+            }
+        }
+
+        synchronized Result result(Duration duration) {
+            return new Result(converted, unchanged,
+                    Collections.unmodifiableList(new ArrayList<>(failures)),
+                    failed, duration);
+        }
+    }
+}
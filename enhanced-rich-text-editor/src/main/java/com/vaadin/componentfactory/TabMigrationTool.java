@@ -0,0 +1,339 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Command line tool that migrates stored deltas from the old ERTE tab format
+ * with {@link TabMigration}.
+ * <pre>
+ * java -cp ... com.vaadin.componentfactory.TabMigrationTool [options] files &lt;path&gt;
+ * java -cp ... com.vaadin.componentfactory.TabMigrationTool [options] jdbc &lt;url&gt; &lt;table&gt; &lt;id column&gt; &lt;delta column&gt;
+ * </pre>
+ * In {@code files} mode the path is a delta JSON file or a directory whose
+ * {@code *.json} files are migrated recursively; converted files are
+ * replaced. In {@code jdbc} mode the delta column of each row is updated;
+ * the JDBC driver must be on the class path and the password is read from
+ * the {@code ERTE_MIGRATION_PASSWORD} environment variable.
+ * <p>
+ * Options: {@code --dry-run} (convert but write nothing),
+ * {@code --threads <n>}, {@code --user <name>} (jdbc).
+ * <p>
+ * Exits with 0 on success, 1 if any document failed and 2 on invalid
+ * arguments.
+ *
+ * @since 6.1.0
+ */
+public final class TabMigrationTool {
+
+    static final String PASSWORD_VARIABLE = "ERTE_MIGRATION_PASSWORD";
+
+    private static final Pattern IDENTIFIER = Pattern
+            .compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+    private static final int PROGRESS_INTERVAL = 1000;
+    private static final int BATCH_SIZE = 100;
+
+    private TabMigrationTool() {
+        // Utility class
+    }
+
+    /**
+     * Runs the tool.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the tool and returns its exit code.
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        List<String> positional = new ArrayList<>();
+        boolean dryRun = false;
+        String user = null;
+        TabMigration migration = TabMigration.create()
+                .withProgressListener(progress -> err.printf(
+                        "%d read, %d converted, %d unchanged, %d failed%n",
+                        progress.read(), progress.converted(),
+                        progress.unchanged(), progress.failed()),
+                        PROGRESS_INTERVAL);
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                case "--dry-run" -> dryRun = true;
+                case "--threads" -> migration = migration
+                        .withParallelism(Integer.parseInt(value(args, ++i)));
+                case "--user" -> user = value(args, ++i);
+                default -> positional.add(args[i]);
+                }
+            }
+            TabMigration.Result result;
+            if (positional.size() == 2 && positional.get(0).equals("files")) {
+                result = migrateFiles(migration, Path.of(positional.get(1)),
+                        dryRun);
+            } else if (positional.size() == 5
+                    && positional.get(0).equals("jdbc")) {
+                result = migrateTable(migration, positional.get(1), user,
+                        System.getenv(PASSWORD_VARIABLE),
+                        identifier(positional.get(2)),
+                        identifier(positional.get(3)),
+                        identifier(positional.get(4)), dryRun);
+            } else {
+                throw new IllegalArgumentException("Unexpected arguments");
+            }
+            report(result, dryRun, out);
+            return result.failed() == 0 ? 0 : 1;
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println("Usage: TabMigrationTool [--dry-run] [--threads <n>]"
+                    + " files <path>");
+            err.println("       TabMigrationTool [--dry-run] [--threads <n>]"
+                    + " [--user <name>] jdbc <url> <table> <id column>"
+                    + " <delta column>");
+            return 2;
+        } catch (IOException | SQLException | UncheckedIOException
+                | IllegalStateException e) {
+            err.println("Migration failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Migrates a delta JSON file, or all {@code *.json} files of a
+     * directory. Files are replaced atomically where the file system
+     * supports it. Files that cannot be read are reported as failures.
+     */
+    static TabMigration.Result migrateFiles(TabMigration migration,
+            Path path, boolean dryRun) throws IOException {
+        if (!Files.exists(path)) {
+            throw new IllegalArgumentException("No such file: " + path);
+        }
+        Consumer<TabMigration.Document> sink = dryRun ? document -> {
+        } : TabMigrationTool::writeFile;
+        // Only added to from the calling thread, which reads the source
+        List<TabMigration.Failure> readFailures = new ArrayList<>();
+        TabMigration.Result result;
+        try (Stream<Path> files = Files.walk(path)) {
+            result = migration.migrate(files
+                    .filter(file -> Files.isRegularFile(file)
+                            && file.getFileName().toString().endsWith(".json"))
+                    .map(file -> readFile(file, readFailures))
+                    .filter(Objects::nonNull), sink);
+        }
+        if (readFailures.isEmpty()) {
+            return result;
+        }
+        List<TabMigration.Failure> failures = new ArrayList<>(
+                result.failures());
+        readFailures.stream()
+                .limit(TabMigration.MAX_REPORTED_FAILURES - failures.size())
+                .forEach(failures::add);
+        return new TabMigration.Result(result.converted(), result.unchanged(),
+                Collections.unmodifiableList(failures),
+                result.failed() + readFailures.size(), result.duration());
+    }
+
+    /**
+     * Reads a file, or records a failure and returns {@code null} if it
+     * cannot be read.
+     */
+    private static TabMigration.Document readFile(Path file,
+            List<TabMigration.Failure> failures) {
+        try {
+            return new TabMigration.Document(file.toString(),
+                    Files.readString(file, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            failures.add(new TabMigration.Failure(file.toString(),
+                    "Cannot read file: " + (e.getMessage() != null
+                            ? e.getMessage() : e.getClass().getName())));
+            return null;
+        }
+    }
+
+    private static void writeFile(TabMigration.Document document) {
+        Path file = Path.of(document.id());
+        try {
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(),
+                    file.getFileName().toString(), ".tmp");
+            Files.writeString(temp, document.delta(), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Migrates the delta column of a table. Rows are read with one
+     * connection and updated in batches with another, committing every
+     * {@value #BATCH_SIZE} updates.
+     */
+    static TabMigration.Result migrateTable(TabMigration migration,
+            String url, String user, String password, String table,
+            String idColumn, String deltaColumn, boolean dryRun)
+            throws SQLException {
+        try (Connection reading = DriverManager.getConnection(url, user,
+                password);
+                Connection writing = DriverManager.getConnection(url, user,
+                        password)) {
+            // Most drivers only stream result sets inside a transaction
+            reading.setAutoCommit(false);
+            reading.setReadOnly(true);
+            writing.setAutoCommit(false);
+            try (Statement select = reading.createStatement(
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    PreparedStatement update = writing.prepareStatement(
+                            "UPDATE " + table + " SET " + deltaColumn
+                                    + " = ? WHERE " + idColumn + " = ?")) {
+                select.setFetchSize(BATCH_SIZE);
+                try (ResultSet rows = select.executeQuery("SELECT "
+                        + idColumn + ", " + deltaColumn + " FROM " + table)) {
+                    int idType = rows.getMetaData().getColumnType(1);
+                    int[] pending = { 0 };
+                    TabMigration.Result result = migration
+                            .migrate(new RowIterator(rows), document -> {
+                                if (dryRun) {
+                                    return;
+                                }
+                                try {
+                                    update.setString(1, document.delta());
+                                    // Let the driver convert the id back
+                                    update.setObject(2, document.id(), idType);
+                                    update.addBatch();
+                                    if (++pending[0] == BATCH_SIZE) {
+                                        update.executeBatch();
+                                        writing.commit();
+                                        pending[0] = 0;
+                                    }
+                                } catch (SQLException e) {
+                                    throw new IllegalStateException(
+                                            "Updating " + document.id()
+                                                    + " failed",
+                                            e);
+                                }
+                            });
+                    if (pending[0] > 0) {
+                        update.executeBatch();
+                        writing.commit();
+                    }
+                    return result;
+                }
+            } finally {
+                reading.rollback();
+            }
+        }
+    }
+
+    private static String identifier(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException(
+                    "Invalid table or column name: " + name);
+        }
+        return name;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(
+                    "Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static void report(TabMigration.Result result, boolean dryRun,
+            PrintStream out) {
+        out.printf("%d documents: %d %s, %d unchanged, %d failed (%d ms)%n",
+                result.total(), result.converted(),
+                dryRun ? "to convert" : "converted", result.unchanged(),
+                result.failed(), result.duration().toMillis());
+        for (TabMigration.Failure failure : result.failures()) {
+            out.println("  " + failure.id() + ": " + failure.message());
+        }
+        if (result.failures().size() < result.failed()) {
+            out.println("  ... " + (result.failed() - result.failures().size())
+                    + " more");
+        }
+    }
+
+    /**
+     * Iterates the id and delta columns of a result set.
+     */
+    private static final class RowIterator
+            implements Iterator<TabMigration.Document> {
+
+        private final ResultSet rows;
+        private Boolean hasNext;
+
+        RowIterator(ResultSet rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNext == null) {
+                try {
+                    hasNext = rows.next();
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Reading rows failed", e);
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public TabMigration.Document next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNext = null;
+            try {
+                return new TabMigration.Document(rows.getString(1),
+                        rows.getString(2));
+            } catch (SQLException e) {
+                throw new IllegalStateException("Reading rows failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+
+/**
+ * Length, word and character counts of an editor value, computed on the
+ * server from the synchronized HTML value or delta document.
+ * <p>
+ * The length follows Quill's model: every character, embed (tab, soft
+ * break, placeholder, non-breaking space, image) and line break counts as
+ * one, excluding the trailing newline of the document. Words are maximal
+ * runs of non-whitespace, where a placeholder counts as part of a word and
+ * the other embeds as whitespace. The character count excludes whitespace
+ * and line breaks.
+ *
+ * @since 6.1.0
+ */
+final class TextStatistics implements Serializable {
+
+    static final TextStatistics EMPTY = new TextStatistics(0, 0, 0);
+
+    private static final Set<String> BLOCK_TAGS = Set.of("p", "h1", "h2",
+            "h3", "h4", "h5", "h6", "li", "pre", "blockquote", "td");
+
+    private static final Set<String> CONTAINER_TAGS = Set.of("body", "ol",
+            "ul", "table", "thead", "tbody", "tr");
+
+    private static final Set<String> LEAF_TAGS = Set.of("img", "iframe",
+            "video");
+
+    private final int length;
+    private final int words;
+    private final int characters;
+
+    private TextStatistics(int length, int words, int characters) {
+        this.length = length;
+        this.words = words;
+        this.characters = characters;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    int getWords() {
+        return words;
+    }
+
+    int getCharacters() {
+        return characters;
+    }
+
+    /**
+     * Computes the statistics of a delta document.
+     */
+    static TextStatistics of(Delta document) {
+        Counter counter = new Counter();
+        for (Delta.Op op : document.getOps()) {
+            if (op.text != null) {
+                counter.text(op.text);
+            } else if (op.embed != null) {
+                counter.embed("placeholder".equals(op.getEmbedType()));
+            }
+        }
+        return counter.result();
+    }
+
+    /**
+     * Computes the statistics of an HTML value as produced by the editor.
+     * Block elements without nested blocks count as lines.
+     */
+    static TextStatistics of(String html) {
+        if (html == null || html.isEmpty()) {
+            return EMPTY;
+        }
+        Counter counter = new Counter();
+        NodeTraversor.filter(new NodeFilter() {
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (node instanceof TextNode text) {
+                    // Formatting whitespace between blocks is not content
+                    if (!text.isBlank() || !(text.parent() instanceof Element
+                            parent && CONTAINER_TAGS.contains(
+                                    parent.normalName()))) {
+                        counter.text(text.getWholeText());
+                    }
+                    return FilterResult.CONTINUE;
+                }
+                if (!(node instanceof Element element)) {
+                    return FilterResult.CONTINUE;
+                }
+                if (element.hasClass("ql-placeholder")) {
+                    counter.embed(true);
+                    return FilterResult.SKIP_ENTIRELY;
+                }
+                if (element.hasClass("ql-tab")
+                        || element.hasClass("ql-soft-break")
+                        || element.hasClass("ql-nbsp")
+                        || LEAF_TAGS.contains(element.normalName())) {
+                    counter.embed(false);
+                    return FilterResult.SKIP_ENTIRELY;
+                }
+                return FilterResult.CONTINUE;
+            }
+
+            @Override
+            public FilterResult tail(Node node, int depth) {
+                if (node instanceof Element element
+                        && BLOCK_TAGS.contains(element.normalName())
+                        && !hasBlockChild(element)) {
+                    counter.lineBreak();
+                }
+                return FilterResult.CONTINUE;
+            }
+        }, Jsoup.parseBodyFragment(html).body());
+        return counter.result();
+    }
+
+    private static boolean hasBlockChild(Element element) {
+        for (Element child : element.children()) {
+            if (BLOCK_TAGS.contains(child.normalName())
+                    || hasBlockChild(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Counter {
+        private int length;
+        private int words;
+        private int characters;
+        private boolean inWord;
+
+        void text(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                // Quill's embed guards and cursor markers are not content
+                if (c == '\uFEFF') {
+                    continue;
+                }
+                length++;
+                if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                    inWord = false;
+                } else {
+                    characters++;
+                    word();
+                }
+            }
+        }
+
+        void embed(boolean wordPart) {
+            length++;
+            if (wordPart) {
+                characters++;
+                word();
+            } else {
+                inWord = false;
+            }
+        }
+
+        void lineBreak() {
+            length++;
+            inWord = false;
+        }
+
+        private void word() {
+            if (!inWord) {
+                words++;
+                inWord = true;
+            }
+        }
+
+        TextStatistics result() {
+            // Quill's trailing newline: the end of the delta document, or
+            // the line break of the last block in the HTML
+            return new TextStatistics(Math.max(0, length - 1), words,
+                    characters);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import com.vaadin.flow.internal.JacksonUtils;
+
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Defines how often the browser serializes the editor content to HTML and
+ * sends it to the server. Updates are coalesced on the client, so a less
+ * eager policy reduces both client CPU ({@code getSemanticHTML()}) and the
+ * number of server round trips, at the cost of a staler server-side value.
+ * <p>
+ * Pending updates are always sent when the editor loses focus. An optional
+ * max latency bounds how long an update may be held back while the user
+ * keeps typing.
+ * <p>
+ * Usage:
+ * <pre>
+ * editor.setValueSyncPolicy(ValueSyncPolicy.lazy(1000).withMaxLatency(5000));
+ * </pre>
+ *
+ * @see EnhancedRichTextEditor#setValueSyncPolicy(ValueSyncPolicy)
+ * @since 6.1.0
+ */
+public final class ValueSyncPolicy implements Serializable {
+
+    /**
+     * Default delay in milliseconds for {@link Mode#LAZY} and
+     * {@link Mode#TIMEOUT}, matching Vaadin's default change timeout.
+     */
+    public static final int DEFAULT_DELAY = 400;
+
+    private static final ValueSyncPolicy EAGER = new ValueSyncPolicy(
+            Mode.EAGER, 0, 0);
+
+    private final Mode mode;
+    private final int delay;
+    private final int maxLatency;
+
+    private ValueSyncPolicy(Mode mode, int delay, int maxLatency) {
+        if (delay < 0) {
+            throw new IllegalArgumentException(
+                    "Delay must not be negative: " + delay);
+        }
+        if (maxLatency < 0) {
+            throw new IllegalArgumentException(
+                    "Max latency must not be negative: " + maxLatency);
+        }
+        this.mode = mode;
+        this.delay = delay;
+        this.maxLatency = maxLatency;
+    }
+
+    /**
+     * Sends every change as soon as the editor reports it. This is the
+     * default.
+     *
+     * @return the eager policy
+     */
+    public static ValueSyncPolicy eager() {
+        return EAGER;
+    }
+
+    /**
+     * Sends the value after the user has stopped editing for
+     * {@link #DEFAULT_DELAY} milliseconds.
+     *
+     * @return a lazy policy
+     */
+    public static ValueSyncPolicy lazy() {
+        return lazy(DEFAULT_DELAY);
+    }
+
+    /**
+     * Sends the value after the user has stopped editing for the given
+     * delay.
+     *
+     * @param delay the idle time in milliseconds
+     * @return a lazy policy
+     */
+    public static ValueSyncPolicy lazy(int delay) {
+        return new ValueSyncPolicy(Mode.LAZY, delay, 0);
+    }
+
+    /**
+     * Sends the value at most once per interval while the user is editing.
+     *
+     * @param interval the interval in milliseconds
+     * @return a timeout policy
+     */
+    public static ValueSyncPolicy timeout(int interval) {
+        return new ValueSyncPolicy(Mode.TIMEOUT, interval, 0);
+    }
+
+    /**
+     * Sends the value only when the editor loses focus.
+     *
+     * @return an on-blur policy
+     */
+    public static ValueSyncPolicy onBlur() {
+        return new ValueSyncPolicy(Mode.ON_BLUR, 0, 0);
+    }
+
+    /**
+     * Returns a copy of this policy that sends a pending update at the
+     * latest after the given time, even if the user is still editing. Has
+     * no effect on {@link Mode#EAGER}.
+     *
+     * @param maxLatency the maximum delay in milliseconds, or {@code 0} for
+     *                   no bound
+     * @return a new policy with the given max latency
+     */
+    public ValueSyncPolicy withMaxLatency(int maxLatency) {
+        return new ValueSyncPolicy(mode, delay, maxLatency);
+    }
+
+    /**
+     * Returns when the client sends the value.
+     *
+     * @return the mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the idle time ({@link Mode#LAZY}) or interval
+     * ({@link Mode#TIMEOUT}) in milliseconds.
+     *
+     * @return the delay in milliseconds
+     */
+    public int getDelay() {
+        return delay;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds an update may be held back,
+     * or {@code 0} if unbounded.
+     *
+     * @return the max latency in milliseconds
+     */
+    public int getMaxLatency() {
+        return maxLatency;
+    }
+
+    ObjectNode toJson() {
+        ObjectNode json = JacksonUtils.getMapper().createObjectNode();
+        json.put("mode", mode.name());
+        json.put("delay", delay);
+        json.put("maxLatency", maxLatency);
+        return json;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        ValueSyncPolicy that = (ValueSyncPolicy) o;
+        return delay == that.delay && maxLatency == that.maxLatency
+                && mode == that.mode;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mode, delay, maxLatency);
+    }
+
+    @Override
+    public String toString() {
+        return "ValueSyncPolicy{" + "mode=" + mode + ", delay=" + delay
+                + ", maxLatency=" + maxLatency + '}';
+    }
+
+    /**
+     * When the client sends the HTML value to the server.
+     */
+    public enum Mode {
+        /** On every change. */
+        EAGER,
+        /** After the user has been idle for the delay. */
+        LAZY,
+        /** At most once per delay while the user is editing. */
+        TIMEOUT,
+        /** When the editor loses focus. */
+        ON_BLUR
+    }
+}
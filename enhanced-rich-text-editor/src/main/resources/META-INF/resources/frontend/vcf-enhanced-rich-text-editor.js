@@ -48,10 +48,27 @@ const TAB_WRAP_DETECTION_MULTIPLIER = 0.8;
 const TAB_DEFAULT_TAB_CHARS = 8;
 const TAB_MIN_TAB_WIDTH = 2;
 const TAB_FIXED_TAB_FALLBACK = 50;
+const TAB_TEXT_WIDTH_CACHE_SIZE = 1000;
+// Documents with at least this many tabs only lay out tabs near the viewport
+const TAB_VIEWPORT_LAYOUT_THRESHOLD = 1000;
+// How far outside the viewport blocks are still laid out eagerly
+const TAB_VIEWPORT_MARGIN = '100% 0px';
 const TAB_BLOCK_ELEMENTS = ['P', 'DIV', 'LI', 'H1', 'H2', 'H3', 'H4', 'H5', 'H6',
                             'BLOCKQUOTE', 'PRE', 'OL', 'UL', 'TABLE', 'TR', 'TD', 'TH'];
 const TAB_BLOCK_SELECTOR = TAB_BLOCK_ELEMENTS.map(t => t.toLowerCase()).join(', ');
 
+// ============================================================================
+// Delta sync constants
+// ============================================================================
+const DELTA_SYNC_DELAY = 200;
+const DELTA_SYNC_CHECKSUM_INTERVAL = 10;
+
+// ============================================================================
+// Placeholder provider constants
+// ============================================================================
+// Matches FETCHED_PLACEHOLDER_CACHE_SIZE on the server
+const PLACEHOLDER_FETCHED_CACHE_SIZE = 1000;
+
 
 // ============================================================================
 // ReadOnlyBlot — Inline format: <span class="ql-readonly" contenteditable="false">
@@ -418,10 +435,32 @@ class VcfEnhancedRichTextEditor extends ThemeDetectionMixin(RteBase) {
       tabStops: { type: Array },
       noRulers: { type: Boolean, reflect: true },
       placeholders: { type: Array },
+
+      /**
+       * When true, the placeholder dialog fetches its items from the server
+       * page by page instead of using the `placeholders` array.
+       */
+      placeholderProvider: { type: Boolean },
       placeholderTags: { type: Object },
       placeholderAltAppearance: { type: Boolean },
       placeholderAltAppearancePattern: { type: String },
       showWhitespace: { type: Boolean },
+      deltaSync: { type: Boolean },
+
+      /**
+       * Version of the last delta sync message the server has applied. Set
+       * by the server; lets the client forget acknowledged changes.
+       * @private
+       */
+      deltaSyncAck: { type: Number },
+      valueSyncPolicy: { type: Object },
+
+      /**
+       * Limits for images entering the content: `{ maxWidth, maxHeight,
+       * format, quality, maxBytes }`. Zero means unlimited, a null format
+       * keeps the format of each image.
+       */
+      imageIngestPolicy: { type: Object },
     };
   }
 
@@ -540,7 +579,15 @@ class VcfEnhancedRichTextEditor extends ThemeDetectionMixin(RteBase) {
     this._tabStopsArray = [];
     this._textWidthCache = new Map();
     this._tabUpdateRafId = null;
-    this._createMeasureSpan();
+    // Incremental tab layout: block element -> first changed offset in it
+    this._tabDirtyBlocks = new Map();
+    this._tabLayoutAll = true;
+    // Viewport tab layout, see _collectTabBlocks()
+    this._tabBlockObserver = null;
+    this._tabObservedBlocks = new Set();
+    this._tabVisibleBlocks = new WeakSet();
+    this._tabPendingBlocks = new Set();
+    this._createMeasureContext();
 
     // Patch keyboard bindings (Tab, Shift+Enter, Shift+Tab)
     this._patchKeyboard();
@@ -559,12 +606,14 @@ class VcfEnhancedRichTextEditor extends ThemeDetectionMixin(RteBase) {
 
     // Placeholder property observers
     this._createPropertyObserver('placeholders', '_onPlaceholdersChanged');
+    this._createPropertyObserver('placeholderProvider', '_onPlaceholderProviderChanged');
     this._createPropertyObserver('placeholderTags', '_onPlaceholderTagsChanged');
     this._createPropertyObserver('placeholderAltAppearance', '_onPlaceholderAltAppearanceChanged');
     this._createPropertyObserver('placeholderAltAppearancePattern', '_onPlaceholderAltAppearancePatternChanged');
 
     // Trigger placeholder observers if set before ready()
     if (this.placeholders) this._onPlaceholdersChanged(this.placeholders);
+    if (this.placeholderProvider) this._onPlaceholderProviderChanged(this.placeholderProvider);
     if (this.placeholderTags) this._onPlaceholderTagsChanged(this.placeholderTags);
     if (this.placeholderAltAppearancePattern) this._onPlaceholderAltAppearancePatternChanged(this.placeholderAltAppearancePattern);
 
@@ -572,11 +621,35 @@ class VcfEnhancedRichTextEditor extends ThemeDetectionMixin(RteBase) {
     this._createPropertyObserver('showWhitespace', '_showWhitespaceChanged');
     if (this.showWhitespace) this._showWhitespaceChanged(this.showWhitespace);
 
-    // Recalculate tab widths on every text change
-    this._editor.on('text-change', () => this._requestTabUpdate());
+    // Delta sync (opt-in incremental client→server value sync)
+    this._initDeltaSync();
+    this._createPropertyObserver('deltaSync', '_onDeltaSyncChanged');
+    this._createPropertyObserver('deltaSyncAck', '_onDeltaSyncAckChanged');
+    if (this.deltaSync) this._onDeltaSyncChanged(this.deltaSync);
+
+    // Value sync policy (client-side coalescing of htmlValue updates)
+    this._initValueSync();
+    this._createPropertyObserver('valueSyncPolicy', '_onValueSyncPolicyChanged');
+
+    // Image ingest policy (downscale/re-encode pasted and dropped images)
+    this._initImageIngest();
 
-    // Recalculate tab widths on editor resize
-    new ResizeObserver(() => this._requestTabUpdate()).observe(this._editor.root);
+    // Recalculate the tab widths of the lines a text change touched
+    this._editor.on('text-change', (delta) => {
+      this._markTabLinesDirty(delta);
+      this._requestTabUpdate(false);
+    });
+
+    // Recalculate all tab widths when the editor width changes; height
+    // changes (lines added or removed) do not move tabs horizontally
+    let observedWidth = null;
+    new ResizeObserver((entries) => {
+      const width = entries[entries.length - 1].contentRect.width;
+      if (width !== observedWidth) {
+        observedWidth = width;
+        this._requestTabUpdate();
+      }
+    }).observe(this._editor.root);
 
     // Clear dialog-just-closed flag on any editor interaction, and handle
     // placeholder clicks. Clicking on a placeholder's contenteditable="false"
@@ -1305,7 +1378,11 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
    */
   _showWhitespaceChanged(show) {
     const editor = this._editor?.root;
-    if (editor) editor.classList.toggle('show-whitespace', !!show);
+    if (editor) {
+      editor.classList.toggle('show-whitespace', !!show);
+      // The indicators take up inline space next to soft breaks
+      this._requestTabUpdate();
+    }
     if (this.__whitespaceBtn) {
       this._syncButtonPressed(this.__whitespaceBtn, !!show);
     }
@@ -1317,37 +1394,87 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
 
   /**
    * Installs a text-change handler that reverts any user edit that
-   * decreases the number of readonly sections. This prevents deletion
-   * of readonly blots via Backspace, Delete, Cut, Select-All+Delete, etc.
+   * deletes or changes readonly content. This prevents deletion of
+   * readonly blots via Backspace, Delete, Cut, Select-All+Delete, etc.
+   *
+   * Only the ranges the change touches are inspected, so the check costs
+   * O(changed range) rather than O(document) per keystroke, and a
+   * violating change is undone by applying its inverse instead of
+   * re-rendering the whole document.
    * @protected
    */
   _initReadonlyProtection() {
     const editor = this._editor;
+    const isReadonly = (op) => !!op.attributes && op.attributes.readonly === true;
+
+    // Walks the change in old-document coordinates and reports whether it
+    // deletes readonly content, removes the readonly format from it, or
+    // adds readonly content (e.g. a paste that replaces a selection).
+    const touchesReadonly = (delta, oldDelta) => {
+      let index = 0;
+      return delta.ops.some((op) => {
+        if (op.insert !== undefined) {
+          return isReadonly(op);
+        }
+        const length = op.delete !== undefined ? op.delete
+          : (typeof op.retain === 'number' ? op.retain : 1);
+        const start = index;
+        index += length;
+        if (op.retain !== undefined && !(op.attributes && 'readonly' in op.attributes)) {
+          return false;
+        }
+        return oldDelta.slice(start, start + length).ops.some(isReadonly);
+      });
+    };
 
-    // Serialize all readonly text content for comparison.
-    // Catches both full deletion (count change) and partial deletion
-    // (text within a readonly op changes).
-    const readonlySignature = (ops) =>
-      ops
-        .filter((op) => op.attributes && op.attributes.readonly === true)
-        .map((op) => (typeof op.insert === 'string' ? op.insert : JSON.stringify(op.insert)))
-        .join('\0');
+    // The history records a change before this handler sees it, and may
+    // merge it into the entry of earlier typing. Keep the stacks as they
+    // were before the last recorded change, so that a reverted change can
+    // be taken out again without touching that typing.
+    const history = editor.history;
+    let recorded = null;
+    if (history) {
+      const record = history.record;
+      history.record = function (changeDelta, oldContents) {
+        recorded = {
+          undo: this.stack.undo.slice(),
+          redo: this.stack.redo,
+          lastRecorded: this.lastRecorded
+        };
+        return record.call(this, changeDelta, oldContents);
+      };
+    }
 
     editor.on('text-change', (delta, oldDelta, source) => {
       if (source !== 'user') return;
       // Only check if the change includes a delete op
       if (!delta.ops.some((op) => op.delete != null)) return;
-
-      const oldSig = readonlySignature(oldDelta.ops);
-      const newSig = readonlySignature(editor.getContents().ops);
-
-      if (newSig !== oldSig) {
-        // Revert: restore the old contents
-        editor.setContents(oldDelta, 'silent');
-        // Try to restore cursor position
-        if (delta.ops[0] && delta.ops[0].retain != null) {
-          editor.setSelection(delta.ops[0].retain, 0, 'silent');
+      if (!touchesReadonly(delta, oldDelta)) return;
+
+      // Revert: undo just this change
+      const inverse = delta.invert(oldDelta);
+      if (history && !history.ignoreChange) {
+        // Apply the inverse unrecorded and restore the stacks from before
+        // the change, so that undo neither replays the reverted change nor
+        // loses typing merged into the same entry
+        history.ignoreChange = true;
+        editor.updateContents(inverse, 'silent');
+        history.ignoreChange = false;
+        if (recorded) {
+          history.stack.undo = recorded.undo;
+          history.stack.redo = recorded.redo;
+          history.lastRecorded = recorded.lastRecorded;
         }
+      } else {
+        editor.updateContents(inverse, 'silent');
+      }
+      recorded = null;
+      this._deltaSyncContentsReplaced();
+      this._markTabLinesDirty(inverse);
+      this._requestTabUpdate(false);
+      // Try to restore cursor position
+      if (delta.ops[0] && delta.ops[0].retain != null) {
+        editor.setSelection(delta.ops[0].retain, 0, 'silent');
       }
     });
   }
@@ -1473,14 +1600,46 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
   /** @protected */
   _onPlaceholdersChanged(placeholders) {
     if (!placeholders || !Array.isArray(placeholders)) return;
+    this._updatePlaceholderButtons();
+    if (this.__placeholderComboBox && placeholders.length && !this.placeholderProvider) {
+      this.__placeholderComboBox.items = placeholders.map(p => this._getPlaceholderOptions(p));
+    }
+  }
+
+  /** @protected */
+  _onPlaceholderProviderChanged(provider) {
+    const comboBox = this.__placeholderComboBox;
+    // Fetched placeholders and pending requests belong to the old source
+    this.__fetchedPlaceholders = new Map();
+    this.__placeholderFetches = new Map();
+    if (comboBox) {
+      if (provider) {
+        comboBox.items = undefined;
+        comboBox.dataProvider = (params, callback) => this._fetchPlaceholders(params, callback);
+      } else {
+        comboBox.dataProvider = undefined;
+        if (this.placeholders) this._onPlaceholdersChanged(this.placeholders);
+      }
+    }
+    this._updatePlaceholderButtons();
+  }
+
+  /**
+   * Whether any placeholders can be inserted, from the array or the
+   * server-side provider.
+   * @protected
+   */
+  _hasPlaceholders() {
+    return !!(this.placeholderProvider || (this.placeholders && this.placeholders.length));
+  }
+
+  /** @protected */
+  _updatePlaceholderButtons() {
     if (this.__placeholderBtn) {
-      this.__placeholderBtn.hidden = !placeholders.length;
+      this.__placeholderBtn.hidden = !this._hasPlaceholders();
     }
     if (this.__placeholderAppearanceBtn) {
-      this.__placeholderAppearanceBtn.hidden = !(placeholders.length && this.placeholderAltAppearancePattern);
-    }
-    if (this.__placeholderComboBox && placeholders.length) {
-      this.__placeholderComboBox.items = placeholders.map(p => this._getPlaceholderOptions(p));
+      this.__placeholderAppearanceBtn.hidden = !(this._hasPlaceholders() && this.placeholderAltAppearancePattern);
     }
   }
 
@@ -1493,7 +1652,7 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
     }
     // Re-render existing placeholders with new tags
     if (this._editor) {
-      this._editor.setContents(this._editor.getContents(), Quill.sources.SILENT);
+      this._updatePlaceholdersInPlace();
     }
   }
 
@@ -1509,17 +1668,9 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
     }
 
     // Update delta: set altAppearance on each placeholder op
-    const delta = this._editor.getContents();
-    let changed = false;
-    delta.ops.forEach(op => {
-      if (typeof op.insert === 'object' && op.insert.placeholder) {
-        op.insert.placeholder.altAppearance = altAppearance;
-        changed = true;
-      }
-    });
-    if (changed) {
-      this._editor.setContents(delta, Quill.sources.SILENT);
-    }
+    this._updatePlaceholdersInPlace(
+      placeholder => ({ ...placeholder, altAppearance })
+    );
 
     // Fire appearance-change event (use i18n labels)
     const labels = this.__erteI18nLabels || ERTE_I18N_DEFAULTS;
@@ -1530,12 +1681,64 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
     }));
   }
 
+  /**
+   * Re-creates each placeholder blot at its position, optionally with a
+   * new value, and leaves the rest of the document alone. The change
+   * holds one delete/insert pair per placeholder, so unlike a
+   * `setContents()` of the whole document it keeps the other blots, the
+   * undo history, the selection and the scroll position. The change is not
+   * recorded in the history, since it only alters how placeholders are
+   * shown; placeholders in the recorded entries get the new value too.
+   * @param {function(Object): Object} [update] - maps a placeholder value
+   *   to the value to render; by default the value is kept
+   * @protected
+   */
+  _updatePlaceholdersInPlace(update = placeholder => placeholder) {
+    const Delta = Quill.import('delta');
+    const change = new Delta();
+    let index = 0;
+    let last = 0;
+    this._editor.getContents().ops.forEach(op => {
+      if (typeof op.insert === 'string') {
+        index += op.insert.length;
+        return;
+      }
+      if (op.insert.placeholder) {
+        change.retain(index - last).delete(1)
+          .insert({ placeholder: update(op.insert.placeholder) }, op.attributes);
+        last = index + 1;
+      }
+      index += 1;
+    });
+    if (change.ops.length === 0) return;
+
+    // The change keeps the document length, so the old selection stays
+    // valid; Quill would otherwise shift a caret behind a placeholder
+    // in front of it
+    const range = this._editor.getSelection();
+    const history = this._editor.history;
+    // Quill records silent changes too. Keep this one out of the history:
+    // its entries still apply, as the change keeps every position.
+    history.cutoff();
+    history.ignoreChange = true;
+    this._editor.updateContents(change, Quill.sources.SILENT);
+    history.ignoreChange = false;
+    ['undo', 'redo'].forEach(stack => history.stack[stack].forEach(entry => {
+      if (!entry.delta.ops.some(op => op.insert && op.insert.placeholder)) return;
+      entry.delta = new Delta(entry.delta.ops.map(op => (op.insert && op.insert.placeholder)
+        ? { ...op, insert: { placeholder: update(op.insert.placeholder) } }
+        : op));
+    }));
+    if (range) this._editor.setSelection(range, Quill.sources.SILENT);
+    this._deltaSyncContentsReplaced();
+    this._markTabLinesDirty(change);
+    this._requestTabUpdate(false);
+  }
+
   /** @protected */
   _onPlaceholderAltAppearancePatternChanged(regex) {
     PlaceholderBlot.altAppearanceRegex = regex;
-    if (this.__placeholderAppearanceBtn) {
-      this.__placeholderAppearanceBtn.hidden = !(this.placeholders && this.placeholders.length && regex);
-    }
+    this._updatePlaceholderButtons();
   }
 
   // ==========================================================================
@@ -1562,7 +1765,13 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
       this.__placeholderDialog.rejectButtonVisible = true;
       this._placeholderRange = { index: range.index - 1, length: 1 };
       if (this.__placeholderComboBox) {
-        this.__placeholderComboBox.value = placeholder.text;
+        if (this.placeholderProvider) {
+          // The item is not loaded yet; select the document's copy instead
+          this._rememberFetchedPlaceholder(placeholder);
+          this.__placeholderComboBox.selectedItem = this._getPlaceholderOptions(placeholder);
+        } else {
+          this.__placeholderComboBox.value = placeholder.text;
+        }
       }
     } else {
       // New placeholder insert
@@ -1699,12 +1908,68 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
   _getPlaceholderOptions(text) {
     if (!text) return null;
     if (typeof text === 'object') return { ...text };
+    const fetched = this.__fetchedPlaceholders && this.__fetchedPlaceholders.get(text);
+    if (fetched) return { ...fetched };
     const placeholders = this.placeholders || [];
     const found = placeholders.find(i => i.text === text);
     if (found) return { ...found };
     return { text };
   }
 
+  // ==========================================================================
+  // Placeholder: server-side provider
+  // ==========================================================================
+
+  /**
+   * Combo box data provider: requests one page of matching placeholders
+   * from the server. The server answers with _onPlaceholdersFetched().
+   * @protected
+   */
+  _fetchPlaceholders(params, callback) {
+    const request = (this.__placeholderFetchId = (this.__placeholderFetchId || 0) + 1);
+    this.__placeholderFetches.set(request, callback);
+    this.dispatchEvent(new CustomEvent('erte-placeholder-fetch', {
+      detail: {
+        request,
+        filter: params.filter || '',
+        offset: params.page * params.pageSize,
+        limit: params.pageSize
+      }
+    }));
+  }
+
+  /**
+   * Called by the server with a page of placeholders. Only placeholders
+   * that were fetched this way (or are in the document) ever reach the
+   * browser.
+   * @param {number} request the id of the request being answered
+   * @param {Array} items the placeholders of the page
+   * @param {number} size the known size of the filtered list
+   * @protected
+   */
+  _onPlaceholdersFetched(request, items, size) {
+    const callback = this.__placeholderFetches && this.__placeholderFetches.get(request);
+    if (!callback) return;
+    this.__placeholderFetches.delete(request);
+    items.forEach(p => this._rememberFetchedPlaceholder(p));
+    callback(items.map(p => this._getPlaceholderOptions(p)), size);
+  }
+
+  /**
+   * Keeps a fetched placeholder for resolving its text later, with LRU
+   * eviction (max PLACEHOLDER_FETCHED_CACHE_SIZE entries) like the
+   * server-side cache.
+   * @protected
+   */
+  _rememberFetchedPlaceholder(placeholder) {
+    const fetched = this.__fetchedPlaceholders;
+    fetched.delete(placeholder.text);
+    if (fetched.size >= PLACEHOLDER_FETCHED_CACHE_SIZE) {
+      fetched.delete(fetched.keys().next().value);
+    }
+    fetched.set(placeholder.text, placeholder);
+  }
+
   // ==========================================================================
   // Placeholder: selection getters
   // ==========================================================================
@@ -1772,12 +2037,563 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
     return placeholders;
   }
 
+  // ==========================================================================
+  // Delta sync: send change deltas instead of the full htmlValue
+  // ==========================================================================
+
+  /**
+   * Collects text-change deltas while `deltaSync` is enabled and sends them
+   * to the server in batches as `erte-delta-sync` events. The htmlValue is
+   * then only synchronized when the editor loses focus.
+   * @protected
+   */
+  _initDeltaSync() {
+    this.__deltaSyncVersion = 0;
+    this.__deltaSyncPending = null;
+    this.__deltaSyncFlushCount = 0;
+    this.__deltaSyncTimer = null;
+    this.__deltaSyncNeedsSnapshot = false;
+    this.__deltaSyncInflight = [];
+    this.__deltaSyncServerSeq = 0;
+    this.__applyingServerDelta = false;
+
+    this._editor.on('text-change', (delta) => {
+      if (!this.deltaSync || this.__deltaSyncNeedsSnapshot || this.__applyingServerDelta) return;
+      this.__deltaSyncPending = this.__deltaSyncPending
+        ? this.__deltaSyncPending.compose(delta)
+        : delta;
+      if (!this.__deltaSyncTimer) {
+        this.__deltaSyncTimer = setTimeout(() => this._flushDeltaSync(false), DELTA_SYNC_DELAY);
+      }
+    });
+
+    this._editor.root.addEventListener('focusout', () => {
+      if (this.deltaSync) this._flushDeltaSync(true);
+    });
+  }
+
+  /** @protected */
+  _onDeltaSyncChanged(enabled) {
+    clearTimeout(this.__deltaSyncTimer);
+    this.__deltaSyncTimer = null;
+    this.__deltaSyncPending = null;
+    if (enabled) {
+      this._sendDeltaSnapshot();
+    } else {
+      this._flushHtmlValue();
+    }
+  }
+
+  /** @protected */
+  _onDeltaSyncAckChanged(version) {
+    if (!this.__deltaSyncInflight) return;
+    this.__deltaSyncInflight = this.__deltaSyncInflight.filter((c) => c.version > version);
+  }
+
+  /**
+   * Applies a change made on the server. The change is relative to the
+   * document including client changes up to `clientVersion`, so it is
+   * transformed against the changes sent after that and the ones not yet
+   * sent, mirroring what the server does with client changes (server
+   * changes win ties). Called by the server.
+   * @param {number} seq server change sequence number, echoed in later messages
+   * @param {number} clientVersion last client message the server had applied
+   * @param {string} opsJson the change delta as JSON
+   * @protected
+   */
+  _applyServerDelta(seq, clientVersion, opsJson) {
+    if (!this.deltaSync) return;
+    const Delta = Quill.import('delta');
+    let change = new Delta(JSON.parse(opsJson));
+    this._onDeltaSyncAckChanged(clientVersion);
+    for (const sent of this.__deltaSyncInflight) {
+      const transformed = sent.delta.transform(change, false);
+      sent.delta = change.transform(sent.delta, true);
+      change = transformed;
+    }
+    if (this.__deltaSyncPending) {
+      const transformed = this.__deltaSyncPending.transform(change, false);
+      this.__deltaSyncPending = change.transform(this.__deltaSyncPending, true);
+      change = transformed;
+    }
+    this.__deltaSyncServerSeq = seq;
+    this.__applyingServerDelta = true;
+    try {
+      this._editor.updateContents(change, Quill.sources.API);
+    } finally {
+      this.__applyingServerDelta = false;
+    }
+  }
+
+  /**
+   * Marks the pending changes as unusable after the contents were replaced
+   * silently (no text-change event). The next flush sends a full snapshot.
+   * @protected
+   */
+  _deltaSyncContentsReplaced() {
+    if (!this.deltaSync) return;
+    this.__deltaSyncNeedsSnapshot = true;
+    this.__deltaSyncPending = null;
+    if (!this.__deltaSyncTimer) {
+      this.__deltaSyncTimer = setTimeout(() => this._flushDeltaSync(false), DELTA_SYNC_DELAY);
+    }
+  }
+
+  /**
+   * Sends the changes collected since the last flush. Every
+   * DELTA_SYNC_CHECKSUM_INTERVAL flushes, and when `withChecksum` is set,
+   * a checksum of the whole document is included so the server can detect
+   * drift.
+   * @protected
+   */
+  _flushDeltaSync(withChecksum) {
+    clearTimeout(this.__deltaSyncTimer);
+    this.__deltaSyncTimer = null;
+    if (this.__deltaSyncNeedsSnapshot) {
+      this._sendDeltaSnapshot();
+      return;
+    }
+    const pending = this.__deltaSyncPending;
+    this.__deltaSyncPending = null;
+    if (!pending || !pending.ops.length) return;
+    this.__deltaSyncFlushCount++;
+    const checksum = withChecksum
+      || this.__deltaSyncFlushCount % DELTA_SYNC_CHECKSUM_INTERVAL === 0;
+    this._dispatchDeltaSync(false, pending.ops, checksum);
+  }
+
+  /**
+   * Sends the full document as a snapshot. Called when delta sync is
+   * enabled, after silent content replacement, and by the server when it
+   * detects drift.
+   * @protected
+   */
+  _sendDeltaSnapshot() {
+    clearTimeout(this.__deltaSyncTimer);
+    this.__deltaSyncTimer = null;
+    this.__deltaSyncPending = null;
+    this.__deltaSyncNeedsSnapshot = false;
+    this._dispatchDeltaSync(true, this._editor.getContents().ops, true);
+  }
+
+  /** @private */
+  _dispatchDeltaSync(full, ops, withChecksum) {
+    const detail = {
+      version: ++this.__deltaSyncVersion,
+      full,
+      ops: JSON.stringify(ops),
+      serverSeq: this.__deltaSyncServerSeq,
+    };
+    if (full) {
+      this.__deltaSyncInflight = [];
+    } else {
+      const Delta = Quill.import('delta');
+      this.__deltaSyncInflight.push({ version: detail.version, delta: new Delta(ops) });
+    }
+    if (withChecksum) {
+      detail.checksum = this._deltaChecksum(this._editor.getContents().ops);
+    }
+    this.dispatchEvent(new CustomEvent('erte-delta-sync', { detail }));
+  }
+
+  /**
+   * 32-bit FNV-1a checksum over text, embed types and attributes of a
+   * document delta. Must stay in sync with Delta#checksum() on the server.
+   * @protected
+   */
+  _deltaChecksum(ops) {
+    let hash = 0x811c9dc5;
+    const mix = (str) => {
+      for (let i = 0; i < str.length; i++) {
+        hash = Math.imul(hash ^ str.charCodeAt(i), 0x01000193);
+      }
+    };
+    for (const op of ops) {
+      if (op.insert === undefined) continue;
+      if (typeof op.insert === 'string') {
+        mix(op.insert);
+      } else {
+        mix('\uFFFC');
+        mix(Object.keys(op.insert)[0]);
+      }
+      if (op.attributes) {
+        for (const key of Object.keys(op.attributes).sort()) {
+          const value = op.attributes[key];
+          mix('\u0001');
+          mix(key);
+          mix('=');
+          if (value !== null && typeof value !== 'object') mix(String(value));
+        }
+      }
+    }
+    return hash >>> 0;
+  }
+
+  // ==========================================================================
+  // Batch edits: one composed delta per EditBatch#apply()
+  // ==========================================================================
+
+  /**
+   * Applies a batch of programmatic edits composed on the server as one
+   * change and one undo step. Operations beyond the end of the document
+   * are cut off at its end (see Delta#clampTo on the server).
+   * Called from Java via callJsFunction.
+   * @param {string} opsJson the change delta as JSON
+   * @protected
+   */
+  _applyBatchDelta(opsJson) {
+    if (!this._editor || !this._editor.isEnabled()) return;
+    const Delta = Quill.import('delta');
+    const length = this._editor.getLength();
+    const ops = JSON.parse(opsJson);
+    const change = new Delta();
+    let base = 0;
+    ops.forEach((op, i) => {
+      if (op.insert !== undefined) {
+        change.push(op);
+        return;
+      }
+      const limit = i === ops.length - 1 && op.retain !== undefined ? length : length - 1;
+      const n = Math.min(op.retain !== undefined ? op.retain : op.delete, limit - base);
+      if (n > 0) {
+        if (op.retain !== undefined) change.retain(n, op.attributes);
+        else change.delete(n);
+        base += n;
+      }
+    });
+    this._editor.history.cutoff();
+    this._editor.updateContents(change, Quill.sources.API);
+    this._editor.history.cutoff();
+  }
+
+  // ==========================================================================
+  // Value sync policy: coalesce htmlValue updates
+  // ==========================================================================
+
+  /**
+   * Sends any deferred htmlValue update when the editor loses focus.
+   * @protected
+   */
+  _initValueSync() {
+    this.__htmlValueTimer = null;
+    this.__htmlValueMaxLatencyTimer = null;
+    this._editor.root.addEventListener('focusout', () => this._flushHtmlValue());
+  }
+
+  /** @protected */
+  _onValueSyncPolicyChanged() {
+    // Apply the new policy from a clean state
+    this._flushHtmlValue();
+  }
+
+  /**
+   * Decides, based on `valueSyncPolicy` and `deltaSync`, whether an
+   * htmlValue update is deferred. Schedules the deferred update and
+   * returns true, or returns false to update right away.
+   *
+   * Policy modes: EAGER (no deferral), LAZY (after `delay` ms idle),
+   * TIMEOUT (at most once per `delay` ms), ON_BLUR (on focusout only).
+   * `maxLatency` bounds the deferral of all non-eager modes. In delta sync
+   * mode, EAGER is treated as ON_BLUR.
+   * @protected
+   */
+  _deferHtmlValueUpdate() {
+    const policy = this.valueSyncPolicy || { mode: 'EAGER' };
+    let mode = policy.mode;
+    if (mode === 'EAGER') {
+      if (!this.deltaSync) return false;
+      mode = 'ON_BLUR';
+    }
+    if (!this.__htmlValueStale) {
+      this.__htmlValueStale = true;
+      if (policy.maxLatency > 0) {
+        this.__htmlValueMaxLatencyTimer = setTimeout(() => this._flushHtmlValue(), policy.maxLatency);
+      }
+    }
+    if (mode === 'LAZY') {
+      clearTimeout(this.__htmlValueTimer);
+      this.__htmlValueTimer = setTimeout(() => this._flushHtmlValue(), policy.delay);
+    } else if (mode === 'TIMEOUT' && !this.__htmlValueTimer) {
+      this.__htmlValueTimer = setTimeout(() => this._flushHtmlValue(), policy.delay);
+    }
+    return true;
+  }
+
+  /**
+   * Runs a deferred htmlValue update, if there is one.
+   * @protected
+   */
+  _flushHtmlValue() {
+    clearTimeout(this.__htmlValueTimer);
+    clearTimeout(this.__htmlValueMaxLatencyTimer);
+    this.__htmlValueTimer = null;
+    this.__htmlValueMaxLatencyTimer = null;
+    if (!this.__htmlValueStale) return;
+    this.__htmlValueStale = false;
+    this.__forceHtmlValueUpdate = true;
+    try {
+      this.__updateHtmlValue();
+    } finally {
+      this.__forceHtmlValueUpdate = false;
+    }
+  }
+
+  // ==========================================================================
+  // Image ingest policy: downscale and re-encode images on the client
+  // ==========================================================================
+
+  /**
+   * Applies `imageIngestPolicy` to images entering the content. Files that
+   * are pasted or dropped go through Quill's uploader, whose handler is
+   * wrapped to process them before they are inserted. Images inserted by
+   * other paths (toolbar button, pasted HTML) are inserted as data URLs
+   * first and replaced in place once processed.
+   * @protected
+   */
+  _initImageIngest() {
+    // Data URLs produced by the policy, which need no further processing
+    this.__ingestedImages = new Set();
+
+    const uploader = this._editor.getModule('uploader');
+    if (uploader) {
+      const originalHandler = uploader.options.handler;
+      uploader.options.handler = (range, files) => {
+        if (!this._imageIngestActive()) {
+          originalHandler.call(uploader, range, files);
+          return;
+        }
+        Promise.all(files.map((file) => this._ingestImage(file)))
+          .then((urls) => {
+            const Delta = Quill.import('delta');
+            const images = urls.filter((url) => url);
+            // Keep the selected text when no image could be inserted
+            if (images.length === 0) return;
+            images.forEach((url) => this.__ingestedImages.add(url));
+            const change = images.reduce(
+              (delta, image) => delta.insert({ image }),
+              new Delta().retain(range.index).delete(range.length)
+            );
+            this._editor.updateContents(change, Quill.sources.USER);
+            this._editor.setSelection(range.index + images.length, Quill.sources.SILENT);
+          })
+          .catch((e) => {
+            // Do not lose the paste; the server-side sanitizer still
+            // enforces its limits on the original images
+            console.warn('[ERTE] Image ingest failed, inserting the original images', e);
+            originalHandler.call(uploader, range, files);
+          });
+      };
+    }
+
+    this._editor.on('text-change', (delta, oldDelta, source) => {
+      if (source !== Quill.sources.USER || !this._imageIngestActive()) return;
+      delta.ops.forEach((op) => {
+        const url = op.insert && op.insert.image;
+        if (typeof url !== 'string' || !url.startsWith('data:')) return;
+        // Kept after use: undo and redo insert processed images again
+        if (this.__ingestedImages.has(url)) return;
+        Promise.resolve()
+          .then(() => this._ingestImage(this._dataUrlToBlob(url)))
+          .then((result) => this._replaceImage(url, result))
+          .catch((e) => console.warn('[ERTE] Image ingest failed', e));
+      });
+    });
+  }
+
+  /** @protected */
+  _imageIngestActive() {
+    const policy = this.imageIngestPolicy;
+    return !!policy && !!(policy.maxWidth || policy.maxHeight || policy.format || policy.maxBytes);
+  }
+
+  /**
+   * Scales and re-encodes an image blob according to `imageIngestPolicy`.
+   * Resolves to the data URL to insert, or null if the image cannot be
+   * brought under `maxBytes`. The original is kept when it already meets
+   * the policy or when re-encoding does not make it smaller.
+   * @protected
+   */
+  async _ingestImage(blob) {
+    const policy = this.imageIngestPolicy;
+    const fits = (size) => !policy.maxBytes || size <= policy.maxBytes;
+    // Re-encoding would drop the animation of a GIF and rasterize SVG
+    if (blob.type === 'image/gif' || blob.type === 'image/svg+xml') {
+      return fits(blob.size) ? this._blobToDataUrl(blob) : null;
+    }
+
+    let bitmap;
+    try {
+      bitmap = await createImageBitmap(blob);
+    } catch (e) {
+      // Not decodable: leave it to the server-side sanitizer
+      return this._blobToDataUrl(blob);
+    }
+    try {
+      const type = policy.format || (/^image\/(png|jpeg|webp)$/.test(blob.type) ? blob.type : 'image/png');
+      const scale = Math.min(1,
+        policy.maxWidth ? policy.maxWidth / bitmap.width : 1,
+        policy.maxHeight ? policy.maxHeight / bitmap.height : 1);
+      if (scale === 1 && type === blob.type && fits(blob.size)) {
+        return this._blobToDataUrl(blob);
+      }
+
+      const lossy = type !== 'image/png';
+      let width = Math.max(1, Math.round(bitmap.width * scale));
+      let height = Math.max(1, Math.round(bitmap.height * scale));
+      let quality = policy.quality || 0.85;
+      for (let attempt = 0; attempt < 8; attempt++) {
+        const encoded = await this._encodeImage(bitmap, width, height, type, quality);
+        if (fits(encoded.size)) {
+          const smaller = scale === 1 && blob.size <= encoded.size && encoded.type === blob.type;
+          return this._blobToDataUrl(smaller ? blob : encoded);
+        }
+        if (lossy && quality > 0.5) {
+          quality = Math.max(0.5, quality - 0.15);
+        } else {
+          // Shrink by the square root of the overshoot, plus some margin
+          const shrink = Math.min(0.9, Math.sqrt(policy.maxBytes / encoded.size) * 0.95);
+          width = Math.max(1, Math.round(width * shrink));
+          height = Math.max(1, Math.round(height * shrink));
+        }
+      }
+      console.warn(`[ERTE] Image rejected: cannot encode it under ${policy.maxBytes} bytes`);
+      return null;
+    } finally {
+      bitmap.close();
+    }
+  }
+
+  /**
+   * Draws a bitmap at the given size and encodes it, on an OffscreenCanvas
+   * where available. Browsers fall back to PNG for types they cannot
+   * encode; the returned blob has the actual type.
+   * @protected
+   */
+  _encodeImage(bitmap, width, height, type, quality) {
+    const canvas = typeof OffscreenCanvas !== 'undefined'
+      ? new OffscreenCanvas(width, height)
+      : Object.assign(document.createElement('canvas'), { width, height });
+    const ctx = canvas.getContext('2d');
+    if (type === 'image/jpeg') {
+      // JPEG has no alpha channel; transparent areas would turn black
+      ctx.fillStyle = '#fff';
+      ctx.fillRect(0, 0, width, height);
+    }
+    ctx.imageSmoothingQuality = 'high';
+    ctx.drawImage(bitmap, 0, 0, width, height);
+    if (canvas.convertToBlob) {
+      return canvas.convertToBlob({ type, quality });
+    }
+    return new Promise((resolve) => canvas.toBlob(resolve, type, quality));
+  }
+
+  /**
+   * Replaces every image with the given data URL by its processed version
+   * or stored reference, or removes it if the result is null, keeping the
+   * image formats. The
+   * change is not recorded in the history, so undo does not bring back
+   * the original to be processed again. The recorded entries get the
+   * processed image instead, or are moved past a removed one.
+   * @protected
+   */
+  _replaceImage(url, result) {
+    if (result === url) return;
+    const Delta = Quill.import('delta');
+    const change = new Delta();
+    let last = 0;
+    this._editor.root.querySelectorAll('img').forEach((img) => {
+      if (img.getAttribute('src') !== url) return;
+      const blot = Quill.find(img);
+      if (!blot) return;
+      const index = this._editor.getIndex(blot);
+      const [op] = this._editor.getContents(index, 1).ops;
+      change.retain(index - last).delete(1);
+      if (result) {
+        this.__ingestedImages.add(result);
+        change.insert({ image: result }, op.attributes);
+      }
+      last = index + 1;
+    });
+    if (change.ops.length === 0) return;
+
+    const history = this._editor.history;
+    history.cutoff();
+    history.ignoreChange = true;
+    this._editor.updateContents(change, Quill.sources.USER);
+    history.ignoreChange = false;
+    if (!result) {
+      history.transform(change);
+      return;
+    }
+    // The replacement keeps every position, so the entries stay valid
+    ['undo', 'redo'].forEach(stack => history.stack[stack].forEach(entry => {
+      if (!entry.delta.ops.some(op => op.insert && op.insert.image === url)) return;
+      entry.delta = new Delta(entry.delta.ops.map(op => (op.insert && op.insert.image === url)
+        ? { ...op, insert: { image: result } }
+        : op));
+    }));
+  }
+
+  /**
+   * Called by the server with the references of the `data:` URL images its
+   * image store has stored, by the SHA-256 hash of the `data:` URL as hex.
+   * Replaces those images in place, so the value no longer carries them.
+   * Without SubtleCrypto (no secure context) the images are kept.
+   * @param {Object<string, string>} references the URLs by hash
+   * @protected
+   */
+  async _replaceStoredImages(references) {
+    if (!this._editor || !window.crypto || !crypto.subtle) return;
+    const urls = new Set();
+    this._editor.root.querySelectorAll('img').forEach((img) => {
+      const src = img.getAttribute('src');
+      if (src && src.startsWith('data:')) urls.add(src);
+    });
+    for (const url of urls) {
+      const digest = await crypto.subtle.digest('SHA-256', new TextEncoder().encode(url));
+      const hash = Array.from(new Uint8Array(digest), (b) => b.toString(16).padStart(2, '0')).join('');
+      if (references[hash]) this._replaceImage(url, references[hash]);
+    }
+  }
+
+  /** @protected */
+  _dataUrlToBlob(url) {
+    const comma = url.indexOf(',');
+    const header = url.substring(5, comma);
+    const type = header.split(';')[0];
+    const data = url.substring(comma + 1);
+    if (!header.endsWith(';base64')) {
+      return new Blob([decodeURIComponent(data)], { type });
+    }
+    const binary = atob(data);
+    const bytes = new Uint8Array(binary.length);
+    for (let i = 0; i < binary.length; i++) {
+      bytes[i] = binary.charCodeAt(i);
+    }
+    return new Blob([bytes], { type });
+  }
+
+  /** @protected */
+  _blobToDataUrl(blob) {
+    return new Promise((resolve, reject) => {
+      const reader = new FileReader();
+      reader.onload = () => resolve(reader.result);
+      reader.onerror = () => reject(reader.error);
+      reader.readAsDataURL(blob);
+    });
+  }
+
   // ==========================================================================
   // __updateHtmlValue override: preserve ERTE classes in htmlValue
   // ==========================================================================
 
   /** @private */
   __updateHtmlValue() {
+    // Coalesce updates according to the value sync policy (and delta sync
+    // mode); _flushHtmlValue() runs the deferred update.
+    if (!this.__forceHtmlValueUpdate && this._deferHtmlValueUpdate()) {
+      return;
+    }
     let content = this._editor.getSemanticHTML();
     // Remove Quill classes, except for align, indent, and ERTE-specific classes
     content = content.replace(/class="([^"]*)"/gu, (_match, group1) => {
@@ -1947,108 +2763,392 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
   // ==========================================================================
 
   /**
-   * Create reusable measure span for text width calculation.
+   * Creates the canvas context used for text width measurement, which
+   * measures text without touching the DOM or forcing a layout, and sets
+   * up the invalidation of cached widths: when web fonts finish loading
+   * (text measured with a fallback font is stale) and when the theme or
+   * styles of the host change.
+   * @protected
+   */
+  _createMeasureContext() {
+    if (this._measureContext) return;
+    const canvas = typeof OffscreenCanvas !== 'undefined'
+      ? new OffscreenCanvas(1, 1)
+      : document.createElement('canvas');
+    this._measureContext = canvas.getContext('2d');
+    this._measureFont = null;
+
+    this.__fontsLoaded = () => this._invalidateTextMeasurements();
+    document.fonts?.addEventListener('loadingdone', this.__fontsLoaded);
+    this.__beforePrint = () => this._flushPendingTabLayout();
+    window.addEventListener('beforeprint', this.__beforePrint);
+    new MutationObserver(() => this._invalidateTextMeasurements()).observe(this, {
+      attributes: true,
+      attributeFilter: ['theme', 'class', 'style', 'dir', 'data-application-theme']
+    });
+  }
+
+  /**
+   * Drops all cached text widths and lays out all tabs again.
    * @protected
    */
-  _createMeasureSpan() {
-    if (this._measureSpan) return;
-    this._measureSpan = document.createElement('span');
-    this._measureSpan.style.cssText = 'visibility:hidden;position:absolute;white-space:pre;left:-9999px;top:-9999px';
-    this.shadowRoot.appendChild(this._measureSpan);
+  _invalidateTextMeasurements() {
+    this._textWidthCache.clear();
+    this._requestTabUpdate();
+  }
+
+  /** @protected */
+  connectedCallback() {
+    super.connectedCallback();
+    if (this.__fontsLoaded) {
+      document.fonts?.addEventListener('loadingdone', this.__fontsLoaded);
+      window.addEventListener('beforeprint', this.__beforePrint);
+    }
+  }
+
+  /** @protected */
+  disconnectedCallback() {
+    super.disconnectedCallback();
+    if (this.__fontsLoaded) {
+      document.fonts?.removeEventListener('loadingdone', this.__fontsLoaded);
+      window.removeEventListener('beforeprint', this.__beforePrint);
+    }
   }
 
   /**
-   * RAF-based coalescing for tab width updates.
+   * RAF-based coalescing for tab width updates. By default all tabs are
+   * laid out again; with `full` false, only the lines marked dirty by
+   * `_markTabLinesDirty()` are.
+   * @param {boolean} [full=true] - whether to lay out all tabs
    * @protected
    */
-  _requestTabUpdate() {
+  _requestTabUpdate(full = true) {
+    if (full) this._tabLayoutAll = true;
     if (this._tabUpdateRafId) return;
     this._tabUpdateRafId = requestAnimationFrame(() => {
-      this._updateTabWidths();
       this._tabUpdateRafId = null;
+      this._updateTabWidths();
+    });
+  }
+
+  /**
+   * Marks the lines a text change touched for the next tab layout, with
+   * the offset of the first change in each line. Tabs before that offset
+   * keep their position, so only the tab before it and the tabs after it
+   * need a new width. Plain text and embed inserts keep the offset; any
+   * other change (newlines, deletes, formats) marks the whole line.
+   * @param {Delta} delta - the change, in the coordinates of the new contents
+   * @protected
+   */
+  _markTabLinesDirty(delta) {
+    if (this._tabLayoutAll) return;
+    const quill = this._editor;
+    const docLength = quill.getLength();
+    const mark = (index, length, keepOffset) => {
+      const start = Math.min(index, docLength - 1);
+      const [first, firstOffset] = quill.getLine(start);
+      const lines = quill.getLines(start, Math.max(1, Math.min(length + 1, docLength - start)));
+      lines.forEach(line => {
+        const offset = keepOffset && line === first ? firstOffset : 0;
+        const block = line.domNode;
+        const previous = this._tabDirtyBlocks.get(block);
+        this._tabDirtyBlocks.set(block, previous === undefined ? offset : Math.min(previous, offset));
+      });
+    };
+
+    let index = 0;
+    delta.ops.forEach(op => {
+      if (op.delete !== undefined) {
+        mark(index, 0, false);
+      } else if (op.retain !== undefined) {
+        const length = typeof op.retain === 'number' ? op.retain : 1;
+        if (op.attributes) mark(index, length, false);
+        index += length;
+      } else {
+        const text = typeof op.insert === 'string';
+        const length = text ? op.insert.length : 1;
+        mark(index, length, !op.attributes && !(text && op.insert.includes('\n')));
+        index += length;
+      }
     });
   }
 
   /**
-   * Core iterative tab width calculation engine.
-   * Processes tabs one by one: measure position -> calculate width -> set width -> next.
+   * Incremental tab width calculation engine. Lays out either all tabs or
+   * the tabs of the dirty lines, in three phases so that layout is
+   * computed once per frame instead of once per tab:
+   * 1. read the current position of every affected tab,
+   * 2. compute the new widths, shifting each tab by the width changes of
+   *    the tabs before it on the same visual line,
+   * 3. write the widths that changed.
+   * A block whose height changes after the writes has re-wrapped, which
+   * invalidates the computed positions; it is then laid out tab by tab.
    * @protected
    */
   _updateTabWidths() {
     if (!this._editor) return;
 
     const editorNode = this._editor.root;
-    const tabs = Array.from(editorNode.querySelectorAll('.ql-tab'));
-
-    if (tabs.length === 0) return;
+    const blocks = this._collectTabBlocks();
+    this._tabLayoutAll = false;
+    this._tabDirtyBlocks.clear();
+    if (blocks.size === 0) return;
 
     const charWidth8 = this._measureTextWidth('0'.repeat(TAB_DEFAULT_TAB_CHARS), editorNode);
     const fixedTabWidth = charWidth8 > 0 ? charWidth8 : TAB_FIXED_TAB_FALLBACK;
 
-    const blockVisualLines = new Map();
-
-    // Editor rect is hoisted outside the loop since the editor's outer dimensions
-    // don't change during iteration. Per-tab rects must be read inside the loop because
-    // each tab's position depends on the previous tab's width (iterative algorithm).
+    // Phase 1: reads only. Layout is clean, so none of them forces a reflow.
     const editorRect = editorNode.getBoundingClientRect();
+    const lines = [];
+    blocks.forEach((tabs, block) => {
+      const blockRect = block.getBoundingClientRect();
+      const computedStyle = this._getComputedStyleFor(block);
+      const lineHeight = parseFloat(computedStyle.lineHeight) ||
+                         parseFloat(computedStyle.fontSize) * 1.2;
+      lines.push({
+        block,
+        height: blockRect.height,
+        threshold: lineHeight * TAB_WRAP_DETECTION_MULTIPLIER,
+        tabs: tabs.map(tab => {
+          const tabRect = tab.getBoundingClientRect();
+          return {
+            tab,
+            left: tabRect.left - editorRect.left,
+            top: tabRect.top,
+            width: tabRect.width,
+            wrapped: this._isWrappedLine(tab, tabRect, block, blockRect)
+          };
+        })
+      });
+    });
 
-    tabs.forEach(tab => {
-      // CRITICAL (Spike Item 20): Measure OUTER .ql-tab rect, NOT contentNode.
-      // Guard nodes in Quill 2 are INSIDE the embed element.
-      const tabRect = tab.getBoundingClientRect();
-      const parentBlock = tab.closest(TAB_BLOCK_SELECTOR) || tab.parentElement;
-      const parentRect = parentBlock ? parentBlock.getBoundingClientRect() : null;
-      const startPos = tabRect.left - editorRect.left;
+    // Phase 2: compute. Text widths come from the measure cache.
+    lines.forEach(({ tabs, threshold }) => {
+      let lineTop = null;
+      let shift = 0;
+      tabs.forEach(entry => {
+        // Tabs on the same visual line move with the width changes of the
+        // tabs before them
+        if (lineTop === null || Math.abs(entry.top - lineTop) > threshold) {
+          lineTop = entry.top;
+          shift = 0;
+        }
+        entry.newWidth = this._computeTabWidth(entry.tab, entry.left + shift, entry.wrapped, fixedTabWidth);
+        shift += entry.newWidth - entry.width;
+      });
+    });
 
-      const isWrappedLine = this._isWrappedLine(tab, tabRect, parentBlock, parentRect);
+    // Phase 3: writes, skipping unchanged widths to avoid style invalidation
+    lines.forEach(({ tabs }) => {
+      tabs.forEach(({ tab, width, newWidth }) => {
+        if (Math.round(width) !== newWidth) tab.style.width = newWidth + 'px';
+      });
+    });
+
+    // A block that changed height has re-wrapped: fall back to one tab at
+    // a time. Reading the heights forces a single layout for all blocks.
+    lines
+      .filter(({ block, height }) => block.getBoundingClientRect().height !== height)
+      .forEach(({ tabs }) => this._layoutTabsSequentially(tabs.map(entry => entry.tab), fixedTabWidth));
+  }
+
+  /**
+   * Returns the tabs to lay out, grouped by block in document order: all
+   * tabs after a full layout request, otherwise the tabs of each dirty
+   * block from the last tab before its first changed offset on.
+   * @returns {Map<Element, Element[]>}
+   * @protected
+   */
+  _collectTabBlocks() {
+    const blocks = new Map();
+    const add = (tab) => {
+      const block = tab.closest(TAB_BLOCK_SELECTOR) || tab.parentElement;
+      if (!blocks.has(block)) blocks.set(block, []);
+      blocks.get(block).push(tab);
+    };
+
+    if (this._tabLayoutAll) {
+      const tabs = this._editor.root.querySelectorAll('.ql-tab');
+      tabs.forEach(add);
+      this._setViewportTabLayout(tabs.length >= TAB_VIEWPORT_LAYOUT_THRESHOLD);
+      if (this._tabBlockObserver && !this.__tabLayoutEager) {
+        blocks.forEach((_, block) => {
+          if (!this._isTabBlockVisible(block)) blocks.delete(block);
+        });
+      }
+      return blocks;
+    }
+
+    // The caret's line is laid out right away even if the observer has
+    // not reported it yet, e.g. a line that was just split off
+    const range = this._tabBlockObserver && this._editor.selection.lastRange;
+    const [caretLine] = range ? this._editor.getLine(range.index) : [null];
+    this._tabDirtyBlocks.forEach((offset, block) => {
+      if (!block.isConnected) return;
+      if (this._tabBlockObserver && !this.__tabLayoutEager
+          && block !== caretLine?.domNode && !this._isTabBlockVisible(block)) return;
+      const tabs = Array.from(block.querySelectorAll('.ql-tab'));
+      if (tabs.length === 0) return;
+      const line = Quill.find(block);
+      let first = 0;
+      if (offset > 0 && line) {
+        // The tab before the change may be right- or center-aligned to
+        // the changed text, so it is included
+        const next = tabs.findIndex(tab => {
+          const blot = Quill.find(tab);
+          return !blot || blot.offset(line) >= offset;
+        });
+        first = next < 0 ? tabs.length - 1 : Math.max(0, next - 1);
+      }
+      tabs.slice(first).forEach(add);
+    });
+    return blocks;
+  }
+
+  /**
+   * Switches the viewport tab layout on or off. While on, an
+   * IntersectionObserver tracks which tab blocks are in or near the
+   * viewport; other blocks are left pending and laid out when they scroll
+   * into view, so the cost of a layout pass does not grow with the
+   * document. Off, every block is laid out eagerly.
+   * @protected
+   */
+  _setViewportTabLayout(enabled) {
+    if (enabled && !this._tabBlockObserver) {
+      this._tabBlockObserver = new IntersectionObserver(
+        (entries) => this._onTabBlocksIntersect(entries),
+        { rootMargin: TAB_VIEWPORT_MARGIN }
+      );
+    } else if (!enabled && this._tabBlockObserver) {
+      this._tabBlockObserver.disconnect();
+      this._tabBlockObserver = null;
+      this._tabObservedBlocks.clear();
+      this._tabVisibleBlocks = new WeakSet();
+      this._tabPendingBlocks.clear();
+      return;
+    }
+    if (enabled) {
+      // Stop observing blocks that Quill has removed
+      this._tabObservedBlocks.forEach(block => {
+        if (block.isConnected) return;
+        this._tabBlockObserver.unobserve(block);
+        this._tabObservedBlocks.delete(block);
+        this._tabPendingBlocks.delete(block);
+      });
+    }
+  }
+
+  /**
+   * Returns whether a block is in or near the viewport. Blocks seen for
+   * the first time are observed and reported as not visible; the observer
+   * reports them right after the next rendering.
+   * @protected
+   */
+  _isTabBlockVisible(block) {
+    if (this._tabVisibleBlocks.has(block)) return true;
+    if (!this._tabObservedBlocks.has(block)) {
+      this._tabObservedBlocks.add(block);
+      this._tabBlockObserver.observe(block);
+    }
+    this._tabPendingBlocks.add(block);
+    return false;
+  }
 
-      // Auto-wrap indicator: DISABLED — only triggers for tabs that wrap,
-      // not for text wrapping. Inconsistent behavior, so deactivated for now.
-      // tab.classList.remove('ql-auto-wrap-start');
-      // if (isWrappedLine && parentBlock) {
-      //   const topPos = Math.round(tabRect.top);
-      //   if (!blockVisualLines.has(parentBlock)) {
-      //     blockVisualLines.set(parentBlock, new Set());
-      //   }
-      //   const seenTops = blockVisualLines.get(parentBlock);
-      //   if (!seenTops.has(topPos)) {
-      //     seenTops.add(topPos);
-      //     tab.classList.add('ql-auto-wrap-start');
-      //   }
-      // }
-
-      const contentWidth = this._measureContentWidth(tab);
-
-      let targetStop = null;
-      if (!isWrappedLine && this._tabStopsArray) {
-        targetStop = this._tabStopsArray.find(
-          stop => stop.pos > (startPos + TAB_MIN_TAB_WIDTH)
-        );
+  /**
+   * Lays out pending blocks that came into view.
+   * @protected
+   */
+  _onTabBlocksIntersect(entries) {
+    let pending = false;
+    entries.forEach(({ target, isIntersecting }) => {
+      if (!isIntersecting) {
+        this._tabVisibleBlocks.delete(target);
+        return;
+      }
+      this._tabVisibleBlocks.add(target);
+      if (this._tabPendingBlocks.delete(target)) {
+        this._tabDirtyBlocks.set(target, 0);
+        pending = true;
       }
+    });
+    if (pending) this._requestTabUpdate(false);
+  }
 
-      let widthNeeded = 0;
+  /**
+   * Lays out all pending blocks right away, e.g. before printing.
+   * @protected
+   */
+  _flushPendingTabLayout() {
+    if (this._tabPendingBlocks.size === 0) return;
+    this._tabPendingBlocks.forEach(block => this._tabDirtyBlocks.set(block, 0));
+    this._tabPendingBlocks.clear();
+    this.__tabLayoutEager = true;
+    try {
+      this._updateTabWidths();
+    } finally {
+      this.__tabLayoutEager = false;
+    }
+  }
 
-      if (targetStop) {
-        const stopPos = targetStop.pos;
-        const alignment = targetStop.align || 'left';
-        const rawDistance = stopPos - startPos;
+  /**
+   * Computes the width of a tab that starts at the given position.
+   * @param {Element} tab - the tab element
+   * @param {number} startPos - the tab's left edge relative to the editor
+   * @param {boolean} isWrappedLine - whether the tab is on a wrapped line
+   * @param {number} fixedTabWidth - the width of tabs without a tab stop
+   * @returns {number} the rounded width in pixels
+   * @protected
+   */
+  _computeTabWidth(tab, startPos, isWrappedLine, fixedTabWidth) {
+    let targetStop = null;
+    if (!isWrappedLine && this._tabStopsArray) {
+      targetStop = this._tabStopsArray.find(
+        stop => stop.pos > (startPos + TAB_MIN_TAB_WIDTH)
+      );
+    }
 
-        if (alignment === 'right') {
-          widthNeeded = rawDistance - contentWidth;
-        } else if (alignment === 'center') {
-          widthNeeded = rawDistance - (contentWidth / 2);
-        } else {
-          widthNeeded = rawDistance;
-        }
+    let widthNeeded = 0;
+
+    if (targetStop) {
+      const stopPos = targetStop.pos;
+      const alignment = targetStop.align || 'left';
+      const rawDistance = stopPos - startPos;
+
+      if (alignment === 'right') {
+        widthNeeded = rawDistance - this._measureContentWidth(tab);
+      } else if (alignment === 'center') {
+        widthNeeded = rawDistance - (this._measureContentWidth(tab) / 2);
       } else {
-        widthNeeded = fixedTabWidth;
+        widthNeeded = rawDistance;
       }
+    } else {
+      widthNeeded = fixedTabWidth;
+    }
 
-      if (widthNeeded < TAB_MIN_TAB_WIDTH) {
-        widthNeeded = TAB_MIN_TAB_WIDTH;
-      }
+    if (widthNeeded < TAB_MIN_TAB_WIDTH) {
+      widthNeeded = TAB_MIN_TAB_WIDTH;
+    }
+
+    return Math.round(widthNeeded);
+  }
 
-      tab.style.width = Math.round(widthNeeded) + 'px';
+  /**
+   * Lays out tabs one by one: measure position -> calculate width -> set
+   * width -> next. Used for blocks whose line wrapping changes with the
+   * tab widths, where each position depends on the previous writes.
+   * @protected
+   */
+  _layoutTabsSequentially(tabs, fixedTabWidth) {
+    const editorRect = this._editor.root.getBoundingClientRect();
+    tabs.forEach(tab => {
+      // CRITICAL (Spike Item 20): Measure OUTER .ql-tab rect, NOT contentNode.
+      // Guard nodes in Quill 2 are INSIDE the embed element.
+      const tabRect = tab.getBoundingClientRect();
+      const parentBlock = tab.closest(TAB_BLOCK_SELECTOR) || tab.parentElement;
+      const parentRect = parentBlock ? parentBlock.getBoundingClientRect() : null;
+      const startPos = tabRect.left - editorRect.left;
+      const isWrappedLine = this._isWrappedLine(tab, tabRect, parentBlock, parentRect);
+      tab.style.width = this._computeTabWidth(tab, startPos, isWrappedLine, fixedTabWidth) + 'px';
     });
   }
 
@@ -2151,14 +3251,20 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
   }
 
   /**
-   * Cached text width measurement with LRU eviction (max 500 entries).
+   * Cached text width measurement with LRU eviction (max
+   * TAB_TEXT_WIDTH_CACHE_SIZE entries), keyed by the computed font of the
+   * reference node and the text. Misses are measured with canvas
+   * `measureText()`, so no measurement forces a DOM layout.
    * @protected
    */
   _measureTextWidth(text, referenceNode) {
     if (!text) return 0;
 
     const computedStyle = this._getComputedStyleFor(referenceNode);
-    const cacheKey = `${text}|${computedStyle.fontFamily}|${computedStyle.fontSize}|${computedStyle.fontWeight}|${computedStyle.fontStyle}|${computedStyle.letterSpacing}`;
+    const smallCaps = computedStyle.fontVariantCaps === 'small-caps' ? 'small-caps ' : '';
+    const font = `${computedStyle.fontStyle} ${smallCaps}${computedStyle.fontWeight} ${computedStyle.fontSize} ${computedStyle.fontFamily}`;
+    const letterSpacing = computedStyle.letterSpacing;
+    const cacheKey = `${font}|${letterSpacing}|${text}`;
 
     if (this._textWidthCache.has(cacheKey)) {
       const value = this._textWidthCache.get(cacheKey);
@@ -2167,17 +3273,20 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
       return value;
     }
 
-    const measureSpan = this._measureSpan;
-    measureSpan.style.fontFamily = computedStyle.fontFamily;
-    measureSpan.style.fontSize = computedStyle.fontSize;
-    measureSpan.style.fontWeight = computedStyle.fontWeight;
-    measureSpan.style.fontStyle = computedStyle.fontStyle;
-    measureSpan.style.letterSpacing = computedStyle.letterSpacing;
-    measureSpan.textContent = text;
-
-    const width = measureSpan.getBoundingClientRect().width;
+    const ctx = this._measureContext;
+    if (this._measureFont !== font) {
+      ctx.font = font;
+      this._measureFont = font;
+    }
+    let width = ctx.measureText(text).width;
+    // Like the DOM, add the spacing after every character. Not every
+    // browser supports ctx.letterSpacing, so it is added here.
+    const spacing = parseFloat(letterSpacing);
+    if (spacing) {
+      width += spacing * text.length;
+    }
 
-    if (this._textWidthCache.size >= 500) {
+    if (this._textWidthCache.size >= TAB_TEXT_WIDTH_CACHE_SIZE) {
       const firstKey = this._textWidthCache.keys().next().value;
       this._textWidthCache.delete(firstKey);
     }
@@ -2298,7 +3407,7 @@ vcf-enhanced-rich-text-editor:where([data-application-theme="lumo"]) > vaadin-bu
         }
 
         quill.setSelection(insertPos, 0, Quill.sources.USER);
-        self._requestTabUpdate();
+        self._requestTabUpdate(false);
         return false;
       }
     };
@@ -0,0 +1,199 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link DeltaHtmlRenderer}.
+ */
+class DeltaHtmlRendererTest {
+
+    private static final DeltaHtmlRenderer RENDERER = DeltaHtmlRenderer
+            .create();
+
+    private static String render(String json) {
+        return RENDERER.render(json);
+    }
+
+    /** The renderer output must already be in sanitized form. */
+    private static void assertSanitized(String html) {
+        assertEquals(html, ErteSanitizer
+                .of(Set.of(), Map.of(), Set.of()).sanitize(html));
+    }
+
+    @Nested
+    @DisplayName("Blocks")
+    class Blocks {
+
+        @Test
+        void paragraphsAndEmptyLines() {
+            String html = render("[{\"insert\":\"Hello\\n\\nWorld\\n\"}]");
+            assertEquals("<p>Hello</p><p><br></p><p>World</p>", html);
+            assertSanitized(html);
+        }
+
+        @Test
+        void headersAlignAndIndent() {
+            String html = render("[{\"insert\":\"Title\"},{\"insert\":\"\\n\",\"attributes\":{\"header\":2}},"
+                    + "{\"insert\":\"Centered\"},{\"insert\":\"\\n\",\"attributes\":{\"align\":\"center\"}},"
+                    + "{\"insert\":\"Indented\"},{\"insert\":\"\\n\",\"attributes\":{\"indent\":1}}]");
+            assertEquals("<h2>Title</h2><p style=\"text-align: center\">Centered</p>"
+                    + "<p class=\"ql-indent-1\">Indented</p>", html);
+            assertSanitized(html);
+        }
+
+        @Test
+        void nestedLists() {
+            String html = render("[{\"insert\":\"a\"},{\"insert\":\"\\n\",\"attributes\":{\"list\":\"bullet\"}},"
+                    + "{\"insert\":\"b\"},{\"insert\":\"\\n\",\"attributes\":{\"list\":\"ordered\",\"indent\":1}},"
+                    + "{\"insert\":\"c\"},{\"insert\":\"\\n\",\"attributes\":{\"list\":\"bullet\"}},"
+                    + "{\"insert\":\"d\"},{\"insert\":\"\\n\",\"attributes\":{\"list\":\"ordered\"}},"
+                    + "{\"insert\":\"after\\n\"}]");
+            assertEquals("<ul><li>a<ol><li>b</li></ol></li><li>c</li></ul>"
+                    + "<ol><li>d</li></ol><p>after</p>", html);
+            assertSanitized(html);
+        }
+
+        @Test
+        void codeBlockJoinsLines() {
+            String html = render("[{\"insert\":\"a < b\"},{\"insert\":\"\\n\",\"attributes\":{\"code-block\":\"plain\"}},"
+                    + "{\"insert\":\"c\"},{\"insert\":\"\\n\",\"attributes\":{\"code-block\":\"plain\"}}]");
+            assertEquals("<pre>\na &lt; b\nc\n</pre>", html);
+        }
+    }
+
+    @Nested
+    @DisplayName("Inline")
+    class Inline {
+
+        @Test
+        void nestedFormatsAreMerged() {
+            String html = render("[{\"insert\":\"a\",\"attributes\":{\"bold\":true}},"
+                    + "{\"insert\":\"b\",\"attributes\":{\"italic\":true,\"bold\":true}},"
+                    + "{\"insert\":\"c\\n\"}]");
+            assertEquals("<p><strong>a<em>b</em></strong>c</p>", html);
+            assertSanitized(html);
+        }
+
+        @Test
+        void colorGoesOnOutermostElement() {
+            String html = render("[{\"insert\":\"x\",\"attributes\":{\"color\":\"rgb(230, 0, 0)\",\"underline\":true}},"
+                    + "{\"insert\":\"y\",\"attributes\":{\"background\":\"#ff0\"}},{\"insert\":\"\\n\"}]");
+            assertEquals("<p><u style=\"color: rgb(230, 0, 0)\">x</u>"
+                    + "<span style=\"background-color: #ff0\">y</span></p>", html);
+            assertSanitized(html);
+        }
+
+        @Test
+        void unsafeValuesAreDropped() {
+            String html = render("[{\"insert\":\"x\",\"attributes\":{\"link\":\"javascript:alert(1)\","
+                    + "\"color\":\"url(http://evil)\"}},{\"insert\":\"<b>\\n\"}]");
+            assertEquals("<p><a rel=\"nofollow\">x</a>&lt;b&gt;</p>", html);
+            assertSanitized(html);
+        }
+
+        @Test
+        void readonlyAndLinks() {
+            String html = render("[{\"insert\":\"locked\",\"attributes\":{\"readonly\":true}},"
+                    + "{\"insert\":\"site\",\"attributes\":{\"link\":\"https://vaadin.com?a=1&b=2\"}},{\"insert\":\"\\n\"}]");
+            assertEquals("<p><span class=\"ql-readonly\" contenteditable=\"false\" aria-readonly=\"true\">locked</span>"
+                    + "<a href=\"https://vaadin.com?a=1&amp;b=2\" rel=\"nofollow\">site</a></p>", html);
+            assertSanitized(html);
+        }
+    }
+
+    @Nested
+    @DisplayName("Embeds")
+    class Embeds {
+
+        @Test
+        void erteEmbeds() {
+            String html = render("[{\"insert\":\"a\"},{\"insert\":{\"tab\":true}},{\"insert\":{\"soft-break\":true}},"
+                    + "{\"insert\":{\"nbsp\":true}},{\"insert\":\"b\\n\"}]");
+            assertEquals("<p>a<span class=\"ql-tab\"><span contenteditable=\"false\"></span></span>"
+                    + "<span class=\"ql-soft-break\"><span contenteditable=\"false\"><br></span></span>"
+                    + "<span class=\"ql-nbsp\"><span contenteditable=\"false\">&nbsp;</span></span>b</p>", html);
+            assertSanitized(html);
+        }
+
+        @Test
+        void placeholderWithTagsAndFormat() {
+            DeltaHtmlRenderer renderer = RENDERER.withPlaceholderTags("[", "]");
+            String html = renderer.render("[{\"insert\":{\"placeholder\":{\"text\":\"Name\","
+                    + "\"format\":{\"bold\":true,\"color\":\"red\"},\"altFormat\":{}}}},{\"insert\":\"\\n\"}]");
+            assertEquals("<p><span class=\"ql-placeholder\" data-placeholder=\"{&quot;text&quot;:&quot;Name&quot;,"
+                    + "&quot;format&quot;:{&quot;bold&quot;:true,&quot;color&quot;:&quot;red&quot;},&quot;altFormat&quot;:{}}\">"
+                    + "<span contenteditable=\"false\" style=\"font-weight: bold; color: red\">[Name]</span></span></p>", html);
+            assertSanitized(html);
+        }
+
+        @Test
+        void placeholderAltAppearance() {
+            DeltaHtmlRenderer renderer = RENDERER
+                    .withPlaceholderAltAppearancePattern("\\(.*\\)");
+            String html = renderer.render("[{\"insert\":{\"placeholder\":{\"text\":\"Name (short)\","
+                    + "\"altAppearance\":true}}},{\"insert\":\"\\n\"}]");
+            assertTrue(html.contains("<span contenteditable=\"false\"><span>(short)</span></span>"), html);
+            assertSanitized(html);
+        }
+
+        @Test
+        void unsafeImageIsDropped() {
+            assertEquals("<p><br></p>", render(
+                    "[{\"insert\":{\"image\":\"data:image/svg+xml;base64,PHN2Zz4=\"}},{\"insert\":\"\\n\"}]"));
+            String html = render("[{\"insert\":{\"image\":\"https://example.com/a.png\"},"
+                    + "\"attributes\":{\"width\":\"100\"}},{\"insert\":\"\\n\"}]");
+            assertEquals("<p><img src=\"https://example.com/a.png\" width=\"100\"></p>", html);
+            assertSanitized(html);
+        }
+    }
+
+    @Nested
+    @DisplayName("Tables")
+    class Tables {
+
+        @Test
+        void cellsRowsAndTables() {
+            String html = RENDERER.withAllowedClasses(Set.of("tpl"))
+                    .render("[{\"insert\":\"a\"},{\"insert\":\"\\n\",\"attributes\":{\"td\":\"t1|r1|c1||||tpl\"}},"
+                            + "{\"insert\":\"b\"},{\"insert\":\"\\n\",\"attributes\":{\"td\":\"t1|r1|c2||2||\"}},"
+                            + "{\"insert\":\"c\"},{\"insert\":\"\\n\",\"attributes\":{\"td\":\"t1|r2|c3||||\"}},"
+                            + "{\"insert\":\"after\\n\"}]");
+            assertEquals("<table table_id=\"t1\" class=\"tpl\"><tbody><tr row_id=\"r1\">"
+                    + "<td class=\"td-q\" table_id=\"t1\" row_id=\"r1\" cell_id=\"c1\"><p>a</p></td>"
+                    + "<td class=\"td-q\" table_id=\"t1\" row_id=\"r1\" cell_id=\"c2\" colspan=\"2\"><p>b</p></td></tr>"
+                    + "<tr row_id=\"r2\"><td class=\"td-q\" table_id=\"t1\" row_id=\"r2\" cell_id=\"c3\"><p>c</p></td></tr>"
+                    + "</tbody></table><p>after</p>", html);
+            assertEquals(html, ErteSanitizer
+                    .of(Set.of("tpl"), Map.of(), Set.of()).sanitize(html));
+        }
+
+        @Test
+        void unknownTableClassIsDropped() {
+            String html = render("[{\"insert\":\"a\"},{\"insert\":\"\\n\",\"attributes\":{\"td\":\"t1|r1|c1||||evil\"}}]");
+            assertTrue(html.startsWith("<table table_id=\"t1\"><tbody>"), html);
+        }
+    }
+}
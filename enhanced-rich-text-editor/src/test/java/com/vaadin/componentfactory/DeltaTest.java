@@ -0,0 +1,458 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link Delta} and the server side of delta sync
+ * ({@link DeltaSync}).
+ */
+class DeltaTest {
+
+    private static final String DOC = "[{\"insert\":\"Hello World\\n\"}]";
+
+    // ================================================================
+    // Parsing and normalization
+    // ================================================================
+
+    @Nested
+    @DisplayName("Parsing")
+    class Parsing {
+
+        @Test
+        void mergesAdjacentInserts() {
+            Delta delta = Delta.fromJson(
+                    "[{\"insert\":\"Hello\"},{\"insert\":\" World\\n\"}]");
+            assertEquals(DOC, delta.toJsonString());
+        }
+
+        @Test
+        void acceptsOpsObject() {
+            Delta delta = Delta.fromJson("{\"ops\":" + DOC + "}");
+            assertEquals(DOC, delta.toJsonString());
+        }
+
+        @Test
+        void embedCountsAsOne() {
+            Delta delta = Delta.fromJson(
+                    "[{\"insert\":\"a\"},{\"insert\":{\"tab\":true}},{\"insert\":\"\\n\"}]");
+            assertEquals(3, delta.length());
+            assertEquals("tab", delta.getOps().get(1).getEmbedType());
+        }
+
+        @Test
+        void insertMovesBeforeDelete() {
+            Delta delta = Delta.fromJson(
+                    "[{\"delete\":1},{\"insert\":\"X\"}]");
+            assertEquals("[{\"insert\":\"X\"},{\"delete\":1}]",
+                    delta.toJsonString());
+        }
+
+        @Test
+        void invalidJsonThrows() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> Delta.fromJson("{\"insert\":1}"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> Delta.fromJson("[{\"retain\":-1}]"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> Delta.fromJson("not json"));
+        }
+
+        @Test
+        void lengthBeyondIntRangeThrows() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> Delta.fromJson("[{\"retain\":4294967297}]"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> Delta.fromJson("[{\"delete\":2147483648}]"));
+            assertThrows(IllegalArgumentException.class, () -> Delta
+                    .fromJson("[{\"retain\":100000000000000000000}]"));
+            assertEquals(Integer.MAX_VALUE, Delta
+                    .fromJson("[{\"retain\":2147483647}]").getOps().get(0)
+                    .length());
+        }
+    }
+
+    // ================================================================
+    // Compose
+    // ================================================================
+
+    @Nested
+    @DisplayName("Compose")
+    class Compose {
+
+        @Test
+        void replaceText() {
+            Delta doc = Delta.fromJson(DOC);
+            Delta change = Delta.fromJson(
+                    "[{\"retain\":6},{\"delete\":5},{\"insert\":\"There\"}]");
+            assertEquals("[{\"insert\":\"Hello There\\n\"}]",
+                    doc.compose(change).toJsonString());
+        }
+
+        @Test
+        void formatAndRemoveFormat() {
+            Delta doc = Delta.fromJson(
+                    "[{\"insert\":\"Hello\",\"attributes\":{\"bold\":true}},{\"insert\":\"\\n\"}]");
+            Delta change = Delta.fromJson(
+                    "[{\"retain\":5,\"attributes\":{\"bold\":null}}]");
+            assertEquals("[{\"insert\":\"Hello\\n\"}]",
+                    doc.compose(change).toJsonString());
+        }
+
+        @Test
+        void insertThenDeleteCancels() {
+            Delta doc = Delta.fromJson("[{\"insert\":\"abc\\n\"}]");
+            Delta change = Delta.fromJson(
+                    "[{\"retain\":1},{\"delete\":2}]");
+            assertEquals("[{\"insert\":\"a\\n\"}]",
+                    doc.compose(change).toJsonString());
+        }
+
+        @Test
+        void insertEmbedInsideText() {
+            Delta doc = Delta.fromJson(DOC);
+            Delta change = Delta.builder().retain(5)
+                    .insertEmbed(Delta.fromJson("[{\"insert\":{\"tab\":true}}]")
+                            .getOps().get(0).getEmbed(), null)
+                    .build();
+            assertEquals(
+                    "[{\"insert\":\"Hello\"},{\"insert\":{\"tab\":true}},{\"insert\":\" World\\n\"}]",
+                    doc.compose(change).toJsonString());
+        }
+
+        @Test
+        void clampKeepsTrailingNewline() {
+            Delta change = Delta.fromJson(
+                    "[{\"retain\":20},{\"insert\":\"x\"},{\"delete\":5}]");
+            assertEquals("[{\"retain\":11},{\"insert\":\"x\"}]",
+                    change.clampTo(12).toJsonString());
+            Delta format = Delta.fromJson(
+                    "[{\"retain\":11},{\"retain\":5,\"attributes\":{\"header\":1}}]");
+            assertEquals("[{\"retain\":11},{\"retain\":1,\"attributes\":{\"header\":1}}]",
+                    format.clampTo(12).toJsonString());
+        }
+    }
+
+    // ================================================================
+    // Transform and slice
+    // ================================================================
+
+    @Nested
+    @DisplayName("Transform")
+    class Transform {
+
+        @Test
+        void concurrentInsertsConverge() {
+            Delta doc = Delta.fromJson(DOC);
+            Delta a = Delta.fromJson("[{\"retain\":5},{\"insert\":\"A\"}]");
+            Delta b = Delta.fromJson("[{\"retain\":5},{\"insert\":\"B\"}]");
+            Delta viaA = doc.compose(a).compose(a.transform(b, true));
+            Delta viaB = doc.compose(b).compose(b.transform(a, false));
+            assertEquals(viaA, viaB);
+            assertEquals("[{\"insert\":\"HelloAB World\\n\"}]",
+                    viaA.toJsonString());
+        }
+
+        @Test
+        void insertIntoDeletedRangeSurvives() {
+            Delta doc = Delta.fromJson(DOC);
+            Delta delete = Delta.fromJson("[{\"retain\":2},{\"delete\":6}]");
+            Delta insert = Delta.fromJson("[{\"retain\":4},{\"insert\":\"X\"}]");
+            Delta viaDelete = doc.compose(delete)
+                    .compose(delete.transform(insert, true));
+            Delta viaInsert = doc.compose(insert)
+                    .compose(insert.transform(delete, false));
+            assertEquals(viaDelete, viaInsert);
+            assertEquals("[{\"insert\":\"HeXrld\\n\"}]",
+                    viaDelete.toJsonString());
+        }
+
+        @Test
+        void transformPosition() {
+            Delta change = Delta.fromJson("[{\"retain\":2},{\"insert\":\"xy\"},{\"delete\":1}]");
+            assertEquals(1, change.transformPosition(1, false));
+            assertEquals(4, change.transformPosition(2, false));
+            assertEquals(2, change.transformPosition(2, true));
+            assertEquals(5, change.transformPosition(4, false));
+        }
+
+        @Test
+        void sliceCutsOperations() {
+            Delta doc = Delta.fromJson(
+                    "[{\"insert\":\"Hello\",\"attributes\":{\"bold\":true}},{\"insert\":\" World\\n\"}]");
+            assertEquals(
+                    "[{\"insert\":\"lo\",\"attributes\":{\"bold\":true}},{\"insert\":\" W\"}]",
+                    doc.slice(3, 7).toJsonString());
+        }
+    }
+
+    // ================================================================
+    // Rope
+    // ================================================================
+
+    @Nested
+    @DisplayName("Rope")
+    class Rope {
+
+        @Test
+        void matchesCompose() {
+            Delta doc = Delta.fromJson(DOC);
+            DeltaRope rope = new DeltaRope(doc);
+            Delta[] changes = {
+                    Delta.fromJson("[{\"retain\":5},{\"insert\":\"!\"}]"),
+                    Delta.fromJson("[{\"retain\":2},{\"retain\":6,\"attributes\":{\"bold\":true}}]"),
+                    Delta.fromJson("[{\"retain\":1},{\"delete\":3},{\"insert\":{\"tab\":true}}]"),
+                    Delta.fromJson("[{\"retain\":3},{\"retain\":2,\"attributes\":{\"bold\":null}}]") };
+            for (Delta change : changes) {
+                doc = doc.compose(change);
+                rope.apply(change);
+                assertEquals(doc, rope.toDelta());
+                assertEquals(doc.length(), rope.length());
+            }
+            assertEquals(doc.slice(2, 6), rope.slice(2, 6));
+        }
+
+        @Test
+        void staysConsistentUnderManyEdits() {
+            Delta doc = Delta.fromJson(DOC);
+            DeltaRope rope = new DeltaRope(doc);
+            for (int i = 0; i < 500; i++) {
+                int position = (i * 7) % doc.length();
+                Delta change = i % 3 == 2
+                        ? Delta.builder().retain(position).delete(1).build()
+                        : Delta.builder().retain(position)
+                                .insert(String.valueOf(i % 10)).build();
+                if (i % 3 == 2 && position == doc.length() - 1) {
+                    continue;
+                }
+                doc = doc.compose(change);
+                rope.apply(change);
+            }
+            assertEquals(doc, rope.toDelta());
+        }
+
+        @Test
+        void rejectsChangeBeyondEnd() {
+            DeltaRope rope = new DeltaRope(Delta.fromJson(DOC));
+            assertThrows(IllegalArgumentException.class, () -> rope
+                    .apply(Delta.fromJson("[{\"retain\":20},{\"insert\":\"x\"}]")));
+        }
+    }
+
+    // ================================================================
+    // Delta sync
+    // ================================================================
+
+    @Nested
+    @DisplayName("Delta Sync")
+    class Sync {
+
+        @Test
+        void checksumMatchesClientAlgorithm() {
+            // Value computed by _deltaChecksum() in the web component
+            Delta doc = Delta.fromJson(
+                    "[{\"insert\":\"ab\"},{\"insert\":{\"tab\":true},\"attributes\":{\"b\":1,\"a\":\"x\"}},{\"insert\":\"\\n\"}]");
+            assertEquals(269878675L, doc.checksum());
+        }
+
+        @Test
+        void appliesChangesAfterSnapshot() {
+            DeltaSync sync = new DeltaSync();
+            Delta doc = Delta.fromJson(DOC);
+            assertEquals(DeltaSync.Result.APPLIED,
+                    sync.apply(1, true, doc, doc.checksum(), 0));
+            Delta change = Delta.fromJson(
+                    "[{\"retain\":5},{\"insert\":\"!\"}]");
+            assertEquals(DeltaSync.Result.APPLIED,
+                    sync.apply(2, false, change, null, 0));
+            assertEquals("[{\"insert\":\"Hello! World\\n\"}]",
+                    sync.getDocument().toJsonString());
+        }
+
+        @Test
+        void changeBeforeSnapshotRequiresResync() {
+            DeltaSync sync = new DeltaSync();
+            assertEquals(DeltaSync.Result.RESYNC_REQUIRED, sync.apply(1,
+                    false, Delta.fromJson("[{\"insert\":\"x\"}]"), null, 0));
+        }
+
+        @Test
+        void versionGapRequiresResync() {
+            DeltaSync sync = new DeltaSync();
+            sync.apply(1, true, Delta.fromJson(DOC), null, 0);
+            assertEquals(DeltaSync.Result.RESYNC_REQUIRED, sync.apply(3,
+                    false, Delta.fromJson("[{\"insert\":\"x\"}]"), null, 0));
+            assertNull(sync.getDocument());
+        }
+
+        @Test
+        void changeBeyondDocumentRequiresResync() {
+            DeltaSync sync = new DeltaSync();
+            sync.apply(1, true, Delta.fromJson(DOC), null, 0);
+            assertEquals(DeltaSync.Result.RESYNC_REQUIRED, sync.apply(2,
+                    false, Delta.fromJson("[{\"retain\":100},{\"insert\":\"x\"}]"),
+                    null, 0));
+        }
+
+        @Test
+        void checksumMismatchRequiresResync() {
+            DeltaSync sync = new DeltaSync();
+            sync.apply(1, true, Delta.fromJson(DOC), null, 0);
+            assertEquals(DeltaSync.Result.RESYNC_REQUIRED, sync.apply(2,
+                    false, Delta.fromJson("[{\"insert\":\"x\"}]"), 1L, 0));
+            assertEquals(1, sync.getResyncCount());
+        }
+
+        @Test
+        void unsafeImageIsRejected() {
+            DeltaSync sync = new DeltaSync();
+            sync.apply(1, true, Delta.fromJson(DOC), null, 0);
+            Delta change = Delta.fromJson(
+                    "[{\"insert\":{\"image\":\"data:image/svg+xml;base64,PHN2Zz4=\"}}]");
+            assertEquals(DeltaSync.Result.RESYNC_REQUIRED,
+                    sync.apply(2, false, change, null, 0));
+        }
+
+        @Test
+        void imageSourcesAreAllowlisted() {
+            for (String src : List.of("vbscript:x", "file:///etc/passwd",
+                    "java\\tscript:alert(1)", "javascript:alert(1)")) {
+                DeltaSync sync = new DeltaSync();
+                sync.apply(1, true, Delta.fromJson(DOC), null, 0);
+                Delta change = Delta.fromJson(
+                        "[{\"insert\":{\"image\":\"" + src + "\"}}]");
+                assertEquals(DeltaSync.Result.RESYNC_REQUIRED,
+                        sync.apply(2, false, change, null, 0), src);
+            }
+            DeltaSync sync = new DeltaSync();
+            sync.apply(1, true, Delta.fromJson(DOC), null, 0);
+            assertEquals(DeltaSync.Result.APPLIED, sync.apply(2, false,
+                    Delta.fromJson("[{\"insert\":{\"image\":"
+                            + "\"https://example.com/a.png\"}}]"),
+                    null, 0));
+            assertEquals(DeltaSync.Result.APPLIED, sync.apply(3, false,
+                    Delta.fromJson("[{\"insert\":{\"image\":"
+                            + "\"data:image/png;base64,AAAA\"}}]"),
+                    null, 0));
+        }
+
+        @Test
+        void unsafeLinkIsRejected() {
+            for (String link : List.of("javascript:alert(1)",
+                    " JavaScript:alert(1)", "java\\tscript:alert(1)",
+                    "vbscript:x", "data:text/html,x")) {
+                DeltaSync sync = new DeltaSync();
+                sync.apply(1, true, Delta.fromJson(DOC), null, 0);
+                Delta change = Delta.fromJson("[{\"retain\":5,"
+                        + "\"attributes\":{\"link\":\"" + link + "\"}}]");
+                assertEquals(DeltaSync.Result.RESYNC_REQUIRED,
+                        sync.apply(2, false, change, null, 0), link);
+            }
+        }
+
+        @Test
+        void safeLinksAreAccepted() {
+            DeltaSync sync = new DeltaSync();
+            sync.apply(1, true, Delta.fromJson(DOC), null, 0);
+            int version = 1;
+            for (String link : List.of("https://vaadin.com", "mailto:a@b.c",
+                    "tel:123", "about:blank", "/docs", "page.html#top")) {
+                Delta change = Delta.fromJson("[{\"retain\":5,"
+                        + "\"attributes\":{\"link\":\"" + link + "\"}}]");
+                assertEquals(DeltaSync.Result.APPLIED,
+                        sync.apply(++version, false, change, null, 0), link);
+            }
+            // Removing the format
+            assertEquals(DeltaSync.Result.APPLIED, sync.apply(++version,
+                    false, Delta.fromJson(
+                            "[{\"retain\":5,\"attributes\":{\"link\":null}}]"),
+                    null, 0));
+        }
+
+        @Test
+        void nonScalarFormatValueIsRejected() {
+            DeltaSync sync = new DeltaSync();
+            sync.apply(1, true, Delta.fromJson(DOC), null, 0);
+            assertEquals(DeltaSync.Result.RESYNC_REQUIRED, sync.apply(2,
+                    false, Delta.fromJson("[{\"retain\":5,"
+                            + "\"attributes\":{\"bold\":{\"a\":1}}}]"),
+                    null, 0));
+            sync.apply(1, true, Delta.fromJson(DOC), null, 0);
+            assertEquals(DeltaSync.Result.APPLIED, sync.apply(2, false,
+                    Delta.fromJson("[{\"retain\":5,"
+                            + "\"attributes\":{\"custom\":{\"a\":1}}}]"),
+                    null, 0));
+        }
+
+        @Test
+        void concurrentServerAndClientChangesConverge() {
+            DeltaSync sync = new DeltaSync();
+            Delta doc = Delta.fromJson(DOC);
+            sync.apply(1, true, doc, null, 0);
+
+            // The server inserts at the start while the client, not having
+            // seen that yet, appends before the newline
+            Delta server = Delta.fromJson("[{\"insert\":\">\"}]");
+            long seq = sync.applyLocal(server);
+            Delta client = Delta.fromJson("[{\"retain\":11},{\"insert\":\"!\"}]");
+            assertEquals(DeltaSync.Result.APPLIED,
+                    sync.apply(2, false, client, null, 0));
+
+            // Client side: the server change arrives after the client change
+            // was sent and is transformed against it
+            Delta clientDoc = doc.compose(client)
+                    .compose(client.transform(server, false));
+            assertEquals(clientDoc, sync.getDocument());
+            assertEquals("[{\"insert\":\">Hello World!\\n\"}]",
+                    clientDoc.toJsonString());
+
+            // Acknowledged: the checksum is verified again
+            assertEquals(DeltaSync.Result.APPLIED, sync.apply(3, false,
+                    Delta.empty(), clientDoc.checksum(), seq));
+        }
+
+        @Test
+        void snapshotWithUnacknowledgedServerChangesRequiresResync() {
+            DeltaSync sync = new DeltaSync();
+            sync.apply(1, true, Delta.fromJson(DOC), null, 0);
+            long seq = sync
+                    .applyLocal(Delta.fromJson("[{\"insert\":\">\"}]"));
+            assertTrue(sync.hasOutstandingChanges());
+
+            // The client may have edited the document before taking the
+            // snapshot; the server change cannot be rebased onto it
+            assertEquals(DeltaSync.Result.RESYNC_REQUIRED, sync.apply(2,
+                    true, Delta.fromJson("[{\"insert\":\"Hello World!\\n\"}]"),
+                    null, 0));
+            assertFalse(sync.hasDocument());
+
+            // A snapshot taken after applying it is accepted as is
+            Delta doc = Delta.fromJson("[{\"insert\":\">Hello World!\\n\"}]");
+            assertEquals(DeltaSync.Result.APPLIED,
+                    sync.apply(3, true, doc, doc.checksum(), seq));
+            assertFalse(sync.hasOutstandingChanges());
+            assertEquals(doc, sync.getDocument());
+        }
+    }
+}
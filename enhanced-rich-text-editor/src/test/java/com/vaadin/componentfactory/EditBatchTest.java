@@ -0,0 +1,145 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import com.vaadin.flow.internal.JacksonUtils;
+
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Unit tests for {@link EditBatch}.
+ */
+class EditBatchTest {
+
+    private static final String DOC = "[{\"insert\":\"Hello World\\n\"}]";
+
+    /**
+     * Returns an editor in delta sync mode that has received {@link #DOC}
+     * as snapshot from the client.
+     */
+    private static EnhancedRichTextEditor syncedEditor() {
+        EnhancedRichTextEditor editor = new EnhancedRichTextEditor();
+        editor.setDeltaSyncEnabled(true);
+        ObjectNode data = JacksonUtils.getMapper().createObjectNode();
+        data.put("event.detail.version", 1);
+        data.put("event.detail.full", true);
+        data.put("event.detail.ops", DOC);
+        data.put("event.detail.serverSeq", 0);
+        editor.onDeltaSync(data);
+        assertEquals(DOC, editor.getSyncedDelta().toJsonString());
+        return editor;
+    }
+
+    @Test
+    void composesOperationsInOrder() {
+        EditBatch batch = new EditBatch(null)
+                .insertText(0, "Dear ")
+                .insertPlaceholder(5, new Placeholder("Name"))
+                .insertText(6, ",")
+                .format(0, 4, Map.of("bold", true))
+                .delete(0, 1)
+                .insertText(0, "d", Map.of("bold", true));
+        assertEquals(6, batch.getOperationCount());
+        Delta doc = Delta.fromJson("[{\"insert\":\"\\n\"}]")
+                .compose(batch.getDelta());
+        assertEquals(
+                "[{\"insert\":\"dear\",\"attributes\":{\"bold\":true}},{\"insert\":\" \"},"
+                        + "{\"insert\":{\"placeholder\":{\"text\":\"Name\",\"format\":{},\"altFormat\":{}}}},"
+                        + "{\"insert\":\",\\n\"}]",
+                doc.toJsonString());
+    }
+
+    @Test
+    void removeFormatKeepsNull() {
+        EditBatch batch = new EditBatch(null).removeFormat(2, 3, "bold");
+        assertEquals("[{\"retain\":2},{\"retain\":3,\"attributes\":{\"bold\":null}}]",
+                batch.getDelta().toJsonString());
+    }
+
+    @Test
+    void negativeArgumentsThrow() {
+        EditBatch batch = new EditBatch(null);
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.insertText(-1, "x"));
+        assertThrows(IllegalArgumentException.class,
+                () -> batch.delete(0, -1));
+    }
+
+    @Test
+    void applyUpdatesSyncedDocument() {
+        EnhancedRichTextEditor editor = syncedEditor();
+        editor.batchEdit().insertText(5, ",").insertText(12, "!").apply();
+        assertEquals("[{\"insert\":\"Hello, World!\\n\"}]",
+                editor.getSyncedDelta().toJsonString());
+    }
+
+    @Test
+    void applyClampsToDocumentInDeltaSyncMode() {
+        EnhancedRichTextEditor editor = syncedEditor();
+        editor.batchEdit().insertText(20, "!").apply();
+        assertEquals("[{\"insert\":\"Hello World!\\n\"}]",
+                editor.getSyncedDelta().toJsonString());
+
+        // The trailing newline is kept
+        editor.batchEdit().delete(6, 50).apply();
+        assertEquals("[{\"insert\":\"Hello \\n\"}]",
+                editor.getSyncedDelta().toJsonString());
+
+        // Nothing left after clamping: the document is not touched
+        editor.batchEdit().delete(6, 5).apply();
+        assertEquals("[{\"insert\":\"Hello \\n\"}]",
+                editor.getSyncedDelta().toJsonString());
+    }
+
+    @Test
+    void applyDoesNothingWhenDisabledOrReadOnly() {
+        EnhancedRichTextEditor editor = syncedEditor();
+        editor.setEnabled(false);
+        editor.batchEdit().insertText(0, "x").apply();
+        assertEquals(DOC, editor.getSyncedDelta().toJsonString());
+
+        editor.setEnabled(true);
+        editor.setReadOnly(true);
+        EditBatch batch = editor.batchEdit().insertText(0, "x");
+        batch.apply();
+        assertEquals(DOC, editor.getSyncedDelta().toJsonString());
+        // The batch is cleared all the same
+        assertEquals(0, batch.getOperationCount());
+        assertTrue(batch.getDelta().isEmpty());
+    }
+
+    @Test
+    void applyResetsBatch() {
+        EnhancedRichTextEditor editor = syncedEditor();
+        EditBatch batch = editor.batchEdit().insertText(0, ">");
+        batch.apply();
+        assertEquals(0, batch.getOperationCount());
+        assertTrue(batch.getDelta().isEmpty());
+
+        // Applying again does not repeat the edits
+        batch.apply();
+        batch.insertText(0, ">").apply();
+        assertEquals("[{\"insert\":\">>Hello World\\n\"}]",
+                editor.getSyncedDelta().toJsonString());
+    }
+}
@@ -18,7 +18,15 @@ package com.vaadin.componentfactory;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -193,6 +201,97 @@ class ErteSanitizeTest {
         }
     }
 
+    // ================================================================
+    // Style Tokenizer
+    // ================================================================
+
+    @Nested
+    @DisplayName("Style Tokenizer")
+    class StyleTokenizer {
+
+        private final ErteSanitizer sanitizer = ErteSanitizer.of(Set.of(),
+                Map.of(), Set.of("box-shadow", "größe", "Tab-Size"));
+
+        private String style(String style) {
+            String html = sanitizer.sanitize("<p style=\"" + style + "\">t</p>");
+            return html.equals("<p>t</p>") ? ""
+                    : html.substring(10, html.length() - 7);
+        }
+
+        /** The filter before it was rewritten as a tokenizer. */
+        private String reference(String style) {
+            style = style.replaceAll("/\\*.*?\\*/", "");
+            StringBuilder filtered = new StringBuilder();
+            for (String decl : style.split(";")) {
+                decl = decl.trim();
+                int colon = decl.indexOf(':');
+                if (colon < 0) continue;
+                String property = decl.substring(0, colon).trim()
+                        .toLowerCase(Locale.ROOT);
+                String value = decl.substring(colon + 1).trim();
+                if (!ErteSanitizer.ALLOWED_CSS_PROPERTIES.contains(property)
+                        && !Set.of("box-shadow", "größe", "Tab-Size")
+                                .contains(property))
+                    continue;
+                String lower = value.toLowerCase(Locale.ROOT);
+                if (lower.contains("@import")) continue;
+                Matcher m = Pattern
+                        .compile("\\w+\\s*\\(").matcher(lower);
+                boolean unsafe = false;
+                while (m.find()) {
+                    unsafe |= !ErteSanitizer.SAFE_CSS_FUNCTIONS
+                            .contains(m.group());
+                }
+                if (unsafe) continue;
+                if (filtered.length() > 0) filtered.append("; ");
+                filtered.append(property).append(": ").append(value);
+            }
+            return filtered.toString();
+        }
+
+        @Test
+        void normalizesPropertiesAndSeparators() {
+            assertEquals("color: Red; font-size: 12px",
+                    style(" COLOR :Red;;font-size:12px ; ;"));
+        }
+
+        @Test
+        void functionNamesMustBeExact() {
+            assertEquals("", style("color: rgb (1, 2, 3)"));
+            assertEquals("", style("color: xrgb(1, 2, 3)"));
+            assertEquals("color: RGBA(1, 2, 3, 0)",
+                    style("color: RGBA(1, 2, 3, 0)"));
+            assertEquals("width: -moz-calc(1px + 2px)",
+                    style("width: -moz-calc(1px + 2px)"));
+            assertEquals("", style("color: @IMPORT x"));
+        }
+
+        @Test
+        void extraPropertiesAreMatchedLowerCased() {
+            assertEquals("box-shadow: 1px 1px red; größe: 1px",
+                    style("Box-Shadow: 1px 1px red; GRÖSSE: 2px; größe: 1px;"
+                            + " tab-size: 4"));
+        }
+
+        @Test
+        void agreesWithPreviousFilterOnRandomStyles() {
+            Random random = new Random(3);
+            String[] pieces = { "color", "COLOR", "width", "box-shadow",
+                    "größe", "Tab-Size", "evil", ":", ";", " ", "  ", "\t",
+                    "red", "1px", "rgb", "calc", "url", "var", "(", ")",
+                    "@import", "@IMPORT", "/*", "*/", "-", "_", "ä", "K",
+                    "\u212A" };
+            for (int i = 0; i < 5000; i++) {
+                StringBuilder style = new StringBuilder();
+                for (int j = random.nextInt(16); j > 0; j--) {
+                    style.append(pieces[random.nextInt(pieces.length)]);
+                }
+                assertEquals(reference(style.toString()),
+                        style(style.toString()), style.toString());
+            }
+        }
+    }
+
     // ================================================================
     // Data URL Filtering
     // ================================================================
@@ -414,6 +513,161 @@ class ErteSanitizeTest {
         }
     }
 
+    // ================================================================
+    // Tree-based filtering (attributes only, never text content)
+    // ================================================================
+
+    @Nested
+    @DisplayName("Tree-based Filtering")
+    class TreeBasedFiltering {
+
+        @Test
+        void textContentLookingLikeAttributesIsUntouched() {
+            String html = "<p>class=\"evil\" style=\"x\" contenteditable=\"true\"</p>";
+            String result = sanitize(html);
+            assertEquals(
+                    "<p>class=\"evil\" style=\"x\" contenteditable=\"true\"</p>",
+                    result);
+        }
+
+        @Test
+        void quotedFontFamilySurvives() {
+            String html = "<p style=\"font-family: &quot;Arial&quot;, sans-serif\">text</p>";
+            String result = sanitize(html);
+            assertTrue(result.contains(
+                    "font-family: &quot;Arial&quot;, sans-serif"),
+                    "Quoted font-family should survive intact: " + result);
+        }
+
+        @Test
+        void removedAttributesLeaveNoWhitespace() {
+            String html = "<span contenteditable=\"true\" style=\"behavior: url(x)\">text</span>";
+            String result = sanitize(html);
+            assertEquals("<span>text</span>", result);
+        }
+
+        @Test
+        void preservesContenteditableFalse() {
+            String html = "<span class=\"ql-readonly\" contenteditable=\"false\">text</span>";
+            String result = sanitize(html);
+            assertTrue(result.contains("contenteditable=\"false\""),
+                    "contenteditable=false should be preserved: " + result);
+        }
+
+        @Test
+        void tableClassFilteredLikeClass() {
+            String html = "<table><tr><td table-class=\"template1 evil-class\">text</td></tr></table>";
+            String result = EnhancedRichTextEditor.erteSanitize(html,
+                    Set.of("template1"));
+            assertTrue(result.contains("table-class=\"template1\""),
+                    "table-class filtered to allowed classes: " + result);
+        }
+    }
+
+    // ================================================================
+    // Compiled Policy Cache
+    // ================================================================
+
+    @Nested
+    @DisplayName("Compiled Policy Cache")
+    class CompiledPolicyCache {
+
+        @Test
+        void equalConfigurationsShareInstance() {
+            ErteSanitizer a = ErteSanitizer.of(Set.of("template1"),
+                    Map.of("span", Set.of("data-id")), Set.of("box-shadow"));
+            ErteSanitizer b = ErteSanitizer.of(
+                    new LinkedHashSet<>(List.of("template1")),
+                    Map.of("span", new LinkedHashSet<>(List.of("data-id"))),
+                    Set.of("box-shadow"));
+            assertSame(a, b);
+        }
+
+        @Test
+        void differentConfigurationsGetDifferentInstances() {
+            ErteSanitizer a = ErteSanitizer.of(Set.of("template1"),
+                    Map.of(), Set.of());
+            ErteSanitizer b = ErteSanitizer.of(Set.of("template2"),
+                    Map.of(), Set.of());
+            assertNotSame(a, b);
+        }
+
+        @Test
+        void policyIsIsolatedFromLaterMutation() {
+            Set<String> classes = new LinkedHashSet<>(List.of("template1"));
+            ErteSanitizer policy = ErteSanitizer.of(classes, Map.of(),
+                    Set.of());
+            classes.add("template2");
+            String result = policy
+                    .sanitize("<p class=\"template1 template2\">x</p>");
+            assertTrue(result.contains("class=\"template1\""),
+                    "Policy must not see later changes: " + result);
+        }
+    }
+
+    // ================================================================
+    // Metrics
+    // ================================================================
+
+    @Nested
+    @DisplayName("Metrics")
+    class Metrics {
+
+        private final List<SanitizerMetrics.Sample> samples = new ArrayList<>();
+
+        private String sanitizeMeasured(String html) {
+            return ErteSanitizer.of(Set.of(), Map.of(), Set.of())
+                    .sanitize(html, null, samples::add);
+        }
+
+        @Test
+        void recordsSizesAndStrippedCounts() {
+            String html = "<p class=\"ql-align-center evil\" onclick=\"x()\""
+                    + " style=\"color: red; foo: bar; color: expression(x)\">"
+                    + "<span data-x=\"1\">a</span><script>b</script>"
+                    + "<img src=\"data:image/svg+xml;base64,PHN2Zz4=\">"
+                    + "<a href=\"https://example.com\">l</a></p>";
+            String result = sanitizeMeasured(html);
+            assertEquals(ErteSanitizer.of(Set.of(), Map.of(), Set.of())
+                    .sanitize(html), result);
+
+            assertEquals(1, samples.size());
+            SanitizerMetrics.Sample sample = samples.get(0);
+            assertEquals(html.length(), sample.inputLength());
+            assertEquals(result.length(), sample.outputLength());
+            assertEquals(1, sample.strippedClasses());
+            assertEquals(2, sample.strippedStyles());
+            // onclick, data-x and the SVG src; the enforced rel of the
+            // link is not counted against them
+            assertEquals(3, sample.strippedAttributes());
+        }
+
+        @Test
+        void recordsStageTimes() {
+            sanitizeMeasured("<p class=\"ql-indent-1\" style=\"color: red\">"
+                    + "<img src=\"data:image/png;base64,AAAA\"></p>");
+            SanitizerMetrics.Sample sample = samples.get(0);
+            long stages = 0;
+            for (SanitizerMetrics.Stage stage : SanitizerMetrics.Stage
+                    .values()) {
+                assertTrue(sample.nanos(stage) >= 0, stage.getTagValue());
+                stages += sample.nanos(stage);
+            }
+            assertTrue(sample.cleanNanos() > 0);
+            assertTrue(sample.totalNanos() >= stages);
+            assertEquals(0, sample.strippedClasses());
+            assertEquals(0, sample.strippedStyles());
+            assertEquals(0, sample.strippedAttributes());
+        }
+
+        @Test
+        void emptyInputIsNotMeasured() {
+            assertEquals("", sanitizeMeasured(""));
+            assertNull(sanitizeMeasured(null));
+            assertTrue(samples.isEmpty());
+        }
+    }
+
     // ================================================================
     // Dynamic Allowed Classes
     // ================================================================
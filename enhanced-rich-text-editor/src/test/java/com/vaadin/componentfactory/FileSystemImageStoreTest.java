@@ -0,0 +1,212 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link FileSystemImageStore} and the {@code data:} URL
+ * offload of the sanitizer.
+ */
+class FileSystemImageStoreTest {
+
+    private static final byte[] IMAGE = { (byte) 0x89, 'P', 'N', 'G', 0, 1,
+            2, (byte) 0xFF };
+    private static final String DATA_URL = "data:image/png;base64,"
+            + Base64.getEncoder().encodeToString(IMAGE);
+
+    private static FileSystemImageStore store() throws IOException {
+        return new FileSystemImageStore(
+                Files.createTempDirectory("erte-images").resolve("images"),
+                URI.create("https://example.com/images"));
+    }
+
+    private static long fileCount(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void storesByContentHash() throws IOException {
+        FileSystemImageStore store = store();
+        String url = store.store("image/png", new ByteArrayInputStream(IMAGE));
+        assertTrue(url.matches("https://example\\.com/images/[0-9a-f]{64}\\.png"),
+                url);
+        assertEquals(url, store.store("IMAGE/PNG",
+                new ByteArrayInputStream(IMAGE)));
+        assertEquals(1, fileCount(store.getDirectory()));
+
+        String name = url.substring(url.lastIndexOf('/') + 1);
+        assertArrayEquals(IMAGE,
+                Files.readAllBytes(store.getFile(name).orElseThrow()));
+    }
+
+    @Test
+    void rejectsUnknownTypesAndFileNames() throws IOException {
+        FileSystemImageStore store = store();
+        assertThrows(IOException.class, () -> store.store("image/svg+xml",
+                new ByteArrayInputStream(IMAGE)));
+        assertTrue(store.getFile("../secret.png").isEmpty());
+        assertTrue(store.getFile("a".repeat(64) + ".png").isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> new FileSystemImageStore(Path.of("x"),
+                        URI.create("/images/")));
+    }
+
+    @Test
+    void failedUploadLeavesNoFile() throws IOException {
+        FileSystemImageStore store = store();
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("broken");
+            }
+        };
+        assertThrows(IOException.class,
+                () -> store.store("image/png", failing));
+        assertEquals(0, fileCount(store.getDirectory()));
+    }
+
+    @Test
+    void sanitizerReplacesDataUrlWithReference() throws IOException {
+        FileSystemImageStore store = store();
+        String html = ErteSanitizer.of(Set.of(), Map.of(), Set.of())
+                .sanitize("<p><img src=\"" + DATA_URL + "\" width=\"10\"></p>",
+                        store);
+        String url = store.store("image/png", new ByteArrayInputStream(IMAGE));
+        assertEquals("<p><img src=\"" + url + "\" width=\"10\"></p>", html);
+        // A sanitized value keeps its references
+        assertEquals(html, ErteSanitizer.of(Set.of(), Map.of(), Set.of())
+                .sanitize(html, store));
+    }
+
+    @Test
+    void sanitizerKeepsImageInlineForUnsafeReference() {
+        String html = "<p><img src=\"" + DATA_URL + "\"></p>";
+        for (String reference : new String[] { "javascript:alert(1)",
+                "java\tscript:alert(1)", "/images/a.png",
+                "data:image/png;base64,AAAA" }) {
+            assertEquals(html, ErteSanitizer.of(Set.of(), Map.of(), Set.of())
+                    .sanitize(html, (mime, data) -> reference), reference);
+        }
+    }
+
+    @Test
+    void sanitizerKeepsNonAsciiDataUrlInline() {
+        String html = "<p><img src=\"data:image/png;base64,iVBO\u0141Rw0K\"></p>";
+        assertEquals(html, ErteSanitizer.of(Set.of(), Map.of(), Set.of())
+                .sanitize(html, (mime, data) -> {
+                    data.readAllBytes();
+                    return "https://example.com/images/a.png";
+                }));
+    }
+
+    @Test
+    void storedImagesStoreEachImageOnce() throws IOException {
+        FileSystemImageStore fileStore = store();
+        AtomicInteger stores = new AtomicInteger();
+        ErteSanitizer.StoredImages storedImages = new ErteSanitizer.StoredImages(
+                (mime, data) -> {
+                    stores.incrementAndGet();
+                    return fileStore.store(mime, data);
+                });
+        ErteSanitizer sanitizer = ErteSanitizer.of(Set.of(), Map.of(),
+                Set.of());
+        String first = sanitizer.sanitize(
+                "<p>a<img src=\"" + DATA_URL + "\"></p>", storedImages, null);
+        // Every sync of the client sends the data: URL again
+        String second = sanitizer.sanitize(
+                "<p>ab<img src=\"" + DATA_URL + "\"></p>", storedImages,
+                null);
+        assertEquals(1, stores.get());
+        assertEquals(first.replace("a<img", "ab<img"), second);
+        assertFalse(second.contains("data:"), second);
+    }
+
+    @Test
+    void storedImagesHandOutReplacementsOnce() throws Exception {
+        FileSystemImageStore fileStore = store();
+        ErteSanitizer.StoredImages storedImages = new ErteSanitizer.StoredImages(
+                fileStore);
+        ErteSanitizer sanitizer = ErteSanitizer.of(Set.of(), Map.of(),
+                Set.of());
+        assertTrue(storedImages.drainReplacements().isEmpty());
+
+        String html = sanitizer.sanitize(
+                "<p><img src=\"" + DATA_URL + "\"></p>", storedImages, null);
+        String hash = HexFormat.of().formatHex(MessageDigest
+                .getInstance("SHA-256")
+                .digest(DATA_URL.getBytes(StandardCharsets.US_ASCII)));
+        Map<String, String> replacements = storedImages.drainReplacements();
+        assertEquals(Set.of(hash), replacements.keySet());
+        assertTrue(html.contains(replacements.get(hash)), html);
+        assertTrue(storedImages.drainReplacements().isEmpty());
+
+        // Sent again before the client replaced it
+        sanitizer.sanitize("<p><img src=\"" + DATA_URL + "\"></p>",
+                storedImages, null);
+        assertEquals(replacements, storedImages.drainReplacements());
+    }
+
+    @Test
+    void storedImagesRetryFailedImages() {
+        AtomicInteger stores = new AtomicInteger();
+        ErteSanitizer.StoredImages storedImages = new ErteSanitizer.StoredImages(
+                (mime, data) -> {
+                    stores.incrementAndGet();
+                    throw new IOException("full");
+                });
+        String html = "<p><img src=\"" + DATA_URL + "\"></p>";
+        ErteSanitizer sanitizer = ErteSanitizer.of(Set.of(), Map.of(),
+                Set.of());
+        assertEquals(html, sanitizer.sanitize(html, storedImages, null));
+        assertEquals(html, sanitizer.sanitize(html, storedImages, null));
+        assertEquals(2, stores.get());
+    }
+
+    @Test
+    void sanitizerKeepsImageInlineWhenStoreFails() {
+        String html = "<p><img src=\"" + DATA_URL + "\"></p>";
+        assertEquals(html, ErteSanitizer.of(Set.of(), Map.of(), Set.of())
+                .sanitize(html, (mime, data) -> {
+                    throw new IOException("full");
+                }));
+        assertEquals("<p><img></p>", ErteSanitizer.of(Set.of(), Map.of(),
+                Set.of()).sanitize("<p><img src=\"data:image/svg+xml;base64,"
+                        + "PHN2Zz4=\"></p>", (mime, data) -> {
+                            throw new AssertionError("Unsafe image stored");
+                        }));
+    }
+}
@@ -0,0 +1,98 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vaadin.componentfactory.ImageIngestPolicy.Format;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ImageIngestPolicy}.
+ */
+class ImageIngestPolicyTest {
+
+    @Test
+    void noneKeepsImages() {
+        ImageIngestPolicy none = ImageIngestPolicy.none();
+        assertEquals(0, none.getMaxWidth());
+        assertEquals(0, none.getMaxHeight());
+        assertEquals(Format.ORIGINAL, none.getFormat());
+        assertEquals(ImageIngestPolicy.DEFAULT_QUALITY, none.getQuality());
+        assertEquals(0, none.getMaxBytes());
+        assertEquals(none, ImageIngestPolicy.maxSize(0, 0));
+    }
+
+    @Test
+    void withCopiesChangeOneSetting() {
+        ImageIngestPolicy policy = ImageIngestPolicy.maxSize(1920, 1080);
+        ImageIngestPolicy webp = policy.withFormat(Format.WEBP)
+                .withQuality(0.5).withMaxBytes(500_000);
+
+        assertEquals(ImageIngestPolicy.maxSize(1920, 1080), policy);
+        assertEquals(Format.ORIGINAL, policy.getFormat());
+        assertEquals(1920, webp.getMaxWidth());
+        assertEquals(1080, webp.getMaxHeight());
+        assertEquals(Format.WEBP, webp.getFormat());
+        assertEquals(0.5, webp.getQuality());
+        assertEquals(500_000, webp.getMaxBytes());
+        assertEquals(640, webp.withMaxSize(640, 0).getMaxWidth());
+        assertEquals(webp, policy.withMaxBytes(500_000).withQuality(0.5)
+                .withFormat(Format.WEBP));
+        assertEquals(webp.hashCode(), policy.withMaxBytes(500_000)
+                .withQuality(0.5).withFormat(Format.WEBP).hashCode());
+        assertNotEquals(webp, webp.withQuality(0.6));
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        ImageIngestPolicy none = ImageIngestPolicy.none();
+        assertThrows(IllegalArgumentException.class,
+                () -> ImageIngestPolicy.maxSize(-1, 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> none.withMaxSize(100, -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> none.withQuality(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> none.withQuality(1.5));
+        assertThrows(IllegalArgumentException.class,
+                () -> none.withQuality(Double.NaN));
+        assertThrows(IllegalArgumentException.class,
+                () -> none.withMaxBytes(-1));
+        assertThrows(NullPointerException.class,
+                () -> none.withFormat(null));
+        assertEquals(1.0, none.withQuality(1).getQuality());
+    }
+
+    @Test
+    void jsonHasMimeTypeOrNullFormat() {
+        assertEquals("{\"maxWidth\":0,\"maxHeight\":0,\"format\":null,"
+                + "\"quality\":0.85,\"maxBytes\":0}",
+                ImageIngestPolicy.none().toJson().toString());
+        assertEquals("{\"maxWidth\":800,\"maxHeight\":600,"
+                + "\"format\":\"image/jpeg\",\"quality\":0.7,"
+                + "\"maxBytes\":100000}",
+                ImageIngestPolicy.maxSize(800, 600).withFormat(Format.JPEG)
+                        .withQuality(0.7).withMaxBytes(100_000).toJson()
+                        .toString());
+        assertEquals("\"image/png\"", ImageIngestPolicy.none()
+                .withFormat(Format.PNG).toJson().get("format").toString());
+        assertEquals("\"image/webp\"", ImageIngestPolicy.none()
+                .withFormat(Format.WEBP).toJson().get("format").toString());
+    }
+}
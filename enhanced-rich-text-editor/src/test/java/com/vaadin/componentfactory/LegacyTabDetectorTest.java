@@ -0,0 +1,111 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link LegacyTabDetector}.
+ */
+class LegacyTabDetectorTest {
+
+    private static boolean naive(String json) {
+        return json.contains("\"tabs-cont\"") || json.contains("\"pre-tab\"")
+                || json.contains("\"line-part\"")
+                || json.contains("\"tab\":\"");
+    }
+
+    private static void assertDetects(boolean expected, String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length)
+                .put(bytes).flip();
+        assertEquals(expected, LegacyTabDetector.mayContainLegacyTabs(json),
+                json);
+        assertEquals(expected, LegacyTabDetector
+                .mayContainLegacyTabs(new StringBuilder(json)), json);
+        assertEquals(expected, LegacyTabDetector.mayContainLegacyTabs(bytes),
+                json);
+        assertEquals(expected, LegacyTabDetector
+                .mayContainLegacyTabs(ByteBuffer.wrap(bytes)), json);
+        assertEquals(expected, LegacyTabDetector.mayContainLegacyTabs(direct),
+                json);
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    void detectsEachMarker() {
+        assertDetects(true, "[{\"attributes\":{\"tab\":\"1\"},\"insert\":\"\\uFEFF\"}]");
+        assertDetects(true, "[{\"attributes\":{\"pre-tab\":true}}]");
+        assertDetects(true, "[{\"attributes\":{\"line-part\":true}}]");
+        assertDetects(true, "[{\"attributes\":{\"tabs-cont\":\"TABS-CONT\"}}]");
+    }
+
+    @Test
+    void currentFormatIsNotDetected() {
+        assertDetects(false, "[{\"insert\":{\"tab\":true}},{\"insert\":\"tab line-part\\n\"}]");
+        assertDetects(false, "");
+        assertDetects(false, "\"tab\": \"1\"");
+        assertFalse(LegacyTabDetector.mayContainLegacyTabs((String) null));
+    }
+
+    @Test
+    void overlappingPrefixesAreMatched() {
+        // "tab" is a prefix of "tabs-cont"; the scan must fall back to it
+        assertDetects(true, "\"tabs\"tab\":\"");
+        assertDetects(true, "\"\"tab\"\"tabs-cont\"");
+        assertDetects(true, "\"pre-\"pre-tab\"");
+        assertDetects(false, "\"tabs-con\"\"line-par\"\"pre-ta\"\"tab\":");
+    }
+
+    @Test
+    void nonAsciiCharactersDoNotMatch() {
+        assertDetects(false, "[{\"insert\":\"Größe \u20ac \"tab\u201d:\"\"}]");
+        assertDetects(true, "[{\"insert\":\"Größe \u20ac\"},{\"attributes\":{\"line-part\":true}}]");
+    }
+
+    @Test
+    void byteRangeIsRespected() {
+        byte[] bytes = "\"line-part\" plain".getBytes(StandardCharsets.UTF_8);
+        assertTrue(LegacyTabDetector.mayContainLegacyTabs(bytes, 0, 11));
+        assertFalse(LegacyTabDetector.mayContainLegacyTabs(bytes, 0, 10));
+        assertFalse(LegacyTabDetector.mayContainLegacyTabs(bytes, 1, 11));
+        assertFalse(LegacyTabDetector
+                .mayContainLegacyTabs(ByteBuffer.wrap(bytes, 1, 16).slice()));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> LegacyTabDetector.mayContainLegacyTabs(bytes, 10, 10));
+    }
+
+    @Test
+    void agreesWithNaiveSearchOnRandomInput() {
+        Random random = new Random(7);
+        String[] pieces = { "\"", "tab", "s-cont", "pre-", "line-", "part",
+                ":", "\"1\"", "-", "x", "ü", "\"tab\":\"" };
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder json = new StringBuilder();
+            for (int j = random.nextInt(12); j > 0; j--) {
+                json.append(pieces[random.nextInt(pieces.length - 1)]);
+            }
+            assertDetects(naive(json.toString()), json.toString());
+        }
+    }
+}
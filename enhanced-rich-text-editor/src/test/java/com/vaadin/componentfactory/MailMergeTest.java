@@ -0,0 +1,195 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link MailMerge}.
+ */
+class MailMergeTest {
+
+    private static final String LETTER = "[{\"insert\":\"Dear \"},"
+            + "{\"insert\":{\"placeholder\":{\"text\":\"N-1=Name\",\"format\":{\"italic\":true},"
+            + "\"altFormat\":{\"bold\":true}}}},"
+            + "{\"insert\":\", welcome to \"},"
+            + "{\"insert\":{\"placeholder\":{\"text\":\"C-1=Company\"}},\"attributes\":{\"underline\":true}},"
+            + "{\"insert\":\". Regards, \"},"
+            + "{\"insert\":{\"placeholder\":{\"text\":\"N-1=Name\",\"altAppearance\":true,"
+            + "\"format\":{\"italic\":true},\"altFormat\":{\"bold\":true}}}},"
+            + "{\"insert\":\"\\n\"}]";
+
+    private static final Map<String, String> VALUES = Map.of("N-1=Name",
+            "Jane", "C-1=Company", "Vaadin");
+
+    @Test
+    void replacesPlaceholdersWithFormattedValues() {
+        Delta merged = MailMerge.create(PlaceholderResolver.of(VALUES))
+                .merge(Delta.fromJson(LETTER));
+        assertEquals(Delta.fromJson("[{\"insert\":\"Dear \"},"
+                + "{\"insert\":\"Jane\",\"attributes\":{\"italic\":true}},"
+                + "{\"insert\":\", welcome to \"},"
+                + "{\"insert\":\"Vaadin\",\"attributes\":{\"underline\":true}},"
+                + "{\"insert\":\". Regards, \"},"
+                + "{\"insert\":\"Jane\",\"attributes\":{\"italic\":true,\"bold\":true}},"
+                + "{\"insert\":\"\\n\"}]"), merged);
+    }
+
+    @Test
+    void altAppearanceCanBeForced() {
+        Delta merged = MailMerge.create(PlaceholderResolver.of(VALUES))
+                .withAltAppearance(false).merge(Delta.fromJson(LETTER));
+        assertEquals("Jane", merged.getOps().get(5).getText());
+        assertEquals("{\"italic\":true}",
+                merged.getOps().get(5).getAttributes().toString());
+    }
+
+    @Test
+    void resolverIsCalledOncePerDocumentWithDistinctTexts() {
+        List<Set<String>> calls = new ArrayList<>();
+        MailMerge.create(texts -> {
+            calls.add(Set.copyOf(texts));
+            return VALUES;
+        }).merge(Delta.fromJson(LETTER));
+        assertEquals(List.of(Set.of("N-1=Name", "C-1=Company")), calls);
+    }
+
+    @Test
+    void documentWithoutPlaceholdersIsReturnedUnchanged() {
+        Delta document = Delta.fromJson("[{\"insert\":\"Hello\\n\"}]");
+        AtomicInteger calls = new AtomicInteger();
+        assertSame(document, MailMerge.create(texts -> {
+            calls.incrementAndGet();
+            return Map.of();
+        }).merge(document));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void unresolvedPlaceholdersAreKeptOrRemoved() {
+        MailMerge merge = MailMerge
+                .create(PlaceholderResolver.of(Map.of("N-1=Name", "Jane")));
+        String kept = merge.merge(LETTER);
+        assertTrue(kept.contains("C-1=Company"), kept);
+
+        String removed = merge.withUnresolvedRemoved(true).merge(LETTER);
+        assertFalse(removed.contains("C-1=Company"), removed);
+        assertTrue(removed.contains("welcome to . Regards"), removed);
+    }
+
+    @Test
+    void styleFormatsAreConvertedToQuillAttributes() {
+        String document = "[{\"insert\":{\"placeholder\":{\"text\":\"X\",\"format\":"
+                + "{\"fontWeight\":\"bold\",\"backgroundColor\":\"yellow\",\"textDecoration\":\"underline\","
+                + "\"borderRadius\":\"2px\"}}}},{\"insert\":\"\\n\"}]";
+        Delta merged = MailMerge.create(PlaceholderResolver.of(Map.of("X", "x")))
+                .merge(Delta.fromJson(document));
+        assertEquals(Delta.fromJson("[{\"insert\":\"x\",\"attributes\":"
+                + "{\"bold\":true,\"background\":\"yellow\",\"underline\":true}},"
+                + "{\"insert\":\"\\n\"}]"), merged);
+    }
+
+    @Test
+    void fontWeightsAreParsedLeniently() {
+        String document = "[{\"insert\":{\"placeholder\":{\"text\":\"X\",\"format\":"
+                + "{\"fontWeight\":\"normal\"}}}},"
+                + "{\"insert\":{\"placeholder\":{\"text\":\"X\",\"format\":"
+                + "{\"font-weight\":\"700\"}}}},"
+                + "{\"insert\":{\"placeholder\":{\"text\":\"X\",\"format\":"
+                + "{\"fontWeight\":600}}}},{\"insert\":\"\\n\"}]";
+        Delta merged = MailMerge.create(PlaceholderResolver.of(Map.of("X", "x")))
+                .merge(Delta.fromJson(document));
+        assertEquals(Delta.fromJson("[{\"insert\":\"x\"},"
+                + "{\"insert\":\"xx\",\"attributes\":{\"bold\":true}},"
+                + "{\"insert\":\"\\n\"}]"), merged);
+    }
+
+    @Test
+    void nonBooleanFlagsAreIgnored() {
+        String document = "[{\"insert\":{\"placeholder\":{\"text\":\"X\",\"format\":"
+                + "{\"bold\":\"yes\",\"italic\":{},\"underline\":\"true\"},"
+                + "\"altAppearance\":\"maybe\",\"altFormat\":{\"strike\":true}}}},"
+                + "{\"insert\":\"\\n\"}]";
+        Delta merged = MailMerge.create(PlaceholderResolver.of(Map.of("X", "x")))
+                .merge(Delta.fromJson(document));
+        assertEquals(Delta.fromJson("[{\"insert\":\"x\",\"attributes\":"
+                + "{\"underline\":true}},{\"insert\":\"\\n\"}]"), merged);
+    }
+
+    @Test
+    void lineBreaksAndTabsBecomeEmbeds() {
+        String document = "[{\"insert\":{\"placeholder\":{\"text\":\"A\"}}},{\"insert\":\"\\n\"}]";
+        Delta merged = MailMerge
+                .create(PlaceholderResolver.of(Map.of("A", "Main St 1\r\n12345\tBerlin")))
+                .merge(Delta.fromJson(document));
+        assertEquals(Delta.fromJson("[{\"insert\":\"Main St 1\"},"
+                + "{\"insert\":{\"soft-break\":true}},{\"insert\":\"12345\"},"
+                + "{\"insert\":{\"tab\":true}},{\"insert\":\"Berlin\\n\"}]"), merged);
+    }
+
+    @Test
+    void mergesToHtml() {
+        String html = MailMerge.create(PlaceholderResolver.of(VALUES))
+                .mergeToHtml(Delta.fromJson(LETTER));
+        assertEquals("<p>Dear <em>Jane</em>, welcome to <u>Vaadin</u>. Regards, "
+                + "<strong><em>Jane</em></strong></p>", html);
+    }
+
+    @Test
+    void mergesDocumentsInParallelInOrder() throws Exception {
+        List<Delta> documents = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            documents.add(Delta.fromJson("[{\"insert\":{\"placeholder\":{\"text\":\"N\"}}},"
+                    + "{\"insert\":\" " + i + "\\n\"}]"));
+        }
+        MailMerge merge = MailMerge
+                .create(PlaceholderResolver.of(Map.of("N", "No.")));
+        List<String> html;
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            html = merge.mergeAllToHtml(documents, executor);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(50, html.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("<p>No. " + i + "</p>", html.get(i));
+        }
+    }
+
+    @Test
+    void failureOfOneDocumentIsRethrown() {
+        MailMerge merge = MailMerge.create(texts -> {
+            throw new IllegalStateException("lookup failed");
+        });
+        List<Delta> documents = List.of(Delta.fromJson(
+                "[{\"insert\":{\"placeholder\":{\"text\":\"N\"}}},{\"insert\":\"\\n\"}]"));
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> merge.mergeAll(documents, Runnable::run));
+        assertEquals("lookup failed", e.getMessage());
+    }
+}
@@ -0,0 +1,160 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import com.vaadin.componentfactory.EnhancedRichTextEditor.PlaceholderInsertedEvent;
+import com.vaadin.componentfactory.EnhancedRichTextEditor.PlaceholderPage;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.internal.JacksonUtils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Unit tests for the paging contract of
+ * {@link EnhancedRichTextEditor#setPlaceholderProvider} and the lookup of
+ * fetched placeholders in events.
+ */
+class PlaceholderProviderTest {
+
+    private static final int TOTAL = 1234;
+
+    private final List<Query<Placeholder, String>> queries = new ArrayList<>();
+    private EnhancedRichTextEditor editor;
+
+    @BeforeEach
+    void setUp() {
+        editor = new EnhancedRichTextEditor();
+        editor.setPlaceholderProvider(query -> {
+            queries.add(query);
+            String filter = query.getFilter().orElse("");
+            return IntStream.range(0, TOTAL)
+                    .mapToObj(i -> placeholder("F-" + i + "=Field " + i))
+                    .filter(p -> p.getText().contains(filter))
+                    .skip(query.getOffset()).limit(query.getLimit());
+        });
+    }
+
+    private static Placeholder placeholder(String text) {
+        Placeholder placeholder = new Placeholder(text);
+        placeholder.getFormat().put("bold", true);
+        return placeholder;
+    }
+
+    private static List<String> texts(PlaceholderPage page) {
+        return page.items().stream().map(Placeholder::getText).toList();
+    }
+
+    @Test
+    void pageProbesOneMoreItem() {
+        PlaceholderPage page = editor.fetchPlaceholderPage("", 50, 10);
+
+        assertEquals(1, queries.size());
+        assertEquals(50, queries.get(0).getOffset());
+        assertEquals(11, queries.get(0).getLimit());
+        assertEquals("F-50=Field 50", page.items().get(0).getText());
+        assertEquals(10, page.items().size());
+        // One more than the end of the page: more placeholders follow
+        assertEquals(61, page.size());
+    }
+
+    @Test
+    void lastPageHasExactSize() {
+        PlaceholderPage page = editor.fetchPlaceholderPage("", TOTAL - 3,
+                10);
+        assertEquals(3, page.items().size());
+        assertEquals(TOTAL, page.size());
+
+        PlaceholderPage filtered = editor.fetchPlaceholderPage("=Field 123",
+                0, 50);
+        assertEquals(List.of("F-123=Field 123", "F-1230=Field 1230",
+                "F-1231=Field 1231", "F-1232=Field 1232",
+                "F-1233=Field 1233"), texts(filtered));
+        assertEquals(5, filtered.size());
+        assertEquals("=Field 123",
+                queries.get(1).getFilter().orElseThrow());
+    }
+
+    @Test
+    void limitAndOffsetAreClamped() {
+        PlaceholderPage page = editor.fetchPlaceholderPage("", -5,
+                Integer.MAX_VALUE);
+        assertEquals(0, queries.get(0).getOffset());
+        assertEquals(EnhancedRichTextEditor.MAX_PLACEHOLDER_FETCH + 1,
+                queries.get(0).getLimit());
+        assertEquals(EnhancedRichTextEditor.MAX_PLACEHOLDER_FETCH,
+                page.items().size());
+
+        editor.fetchPlaceholderPage("", 0, 0);
+        assertEquals(2, queries.get(1).getLimit());
+    }
+
+    @Test
+    void eventsResolveFetchedPlaceholders() {
+        editor.fetchPlaceholderPage("", 0, 10);
+
+        ObjectNode detail = JacksonUtils.getMapper().createObjectNode();
+        ObjectNode entry = detail.putArray("placeholders").addObject();
+        entry.putObject("placeholder").put("text", "F-7=Field 7");
+        entry.put("index", 3);
+        List<Placeholder> placeholders = new PlaceholderInsertedEvent(editor,
+                true, detail).getPlaceholders();
+
+        assertEquals(1, placeholders.size());
+        assertEquals("F-7=Field 7", placeholders.get(0).getText());
+        assertEquals(Map.of("bold", true), placeholders.get(0).getFormat());
+        assertEquals(3, placeholders.get(0).getIndex());
+
+        Placeholder unknown = new Placeholder("F-99=Field 99");
+        assertSame(unknown, editor.getPlaceholder(unknown));
+    }
+
+    @Test
+    void fetchedPlaceholdersAreBounded() {
+        assertTrue(TOTAL > EnhancedRichTextEditor.FETCHED_PLACEHOLDER_CACHE_SIZE);
+        for (int offset = 0; offset < TOTAL; offset += 100) {
+            editor.fetchPlaceholderPage("", offset, 100);
+        }
+        // The placeholders fetched first are no longer kept
+        Placeholder first = new Placeholder("F-0=Field 0");
+        assertSame(first, editor.getPlaceholder(first));
+        Placeholder recent = new Placeholder("F-1200=Field 1200");
+        assertEquals(Map.of("bold", true),
+                editor.getPlaceholder(recent).getFormat());
+    }
+
+    @Test
+    void failingProviderIsAnsweredWithEmptyPage() {
+        editor.setPlaceholderProvider(query -> {
+            throw new IllegalStateException("unavailable");
+        });
+
+        PlaceholderPage page = editor.answerPlaceholderFetch("", 50, 10);
+        assertTrue(page.items().isEmpty());
+        // The list ends before the page
+        assertEquals(50, page.size());
+    }
+}
@@ -0,0 +1,161 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.vaadin.componentfactory.EnhancedRichTextEditor.PlaceholderInsertedEvent;
+import com.vaadin.flow.internal.JacksonUtils;
+
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+/**
+ * Unit tests for {@link Placeholder} and the lookup of registered
+ * placeholders by the editor.
+ */
+class PlaceholderTest {
+
+    @Test
+    void copyHasSameContent() {
+        Placeholder original = new Placeholder("N-1=Vaadin");
+        original.getFormat().put("bold", true);
+        original.getAltFormat().put("italic", true);
+        original.setIndex(7);
+
+        Placeholder copy = new Placeholder(original);
+
+        assertNotSame(original, copy);
+        assertEquals(original, copy);
+        assertEquals(Map.of("bold", true), copy.getFormat());
+        assertEquals(Map.of("italic", true), copy.getAltFormat());
+        assertEquals(7, copy.getIndex());
+        assertEquals(original.toJson(), copy.toJson());
+    }
+
+    @Test
+    void copyIsIndependent() {
+        Placeholder original = new Placeholder("N-1=Vaadin");
+        original.getFormat().put("bold", true);
+
+        Placeholder copy = new Placeholder(original);
+        copy.setIndex(3);
+        copy.getFormat().put("italic", true);
+        copy.getAltFormat().put("underline", true);
+
+        assertEquals(-1, original.getIndex());
+        assertEquals(Map.of("bold", true), original.getFormat());
+        assertTrue(original.getAltFormat().isEmpty());
+    }
+
+    @Test
+    void copyOfNullIsRejected() {
+        assertThrows(NullPointerException.class,
+                () -> new Placeholder((Placeholder) null));
+    }
+
+    private static Placeholder placeholder(String text, String format) {
+        Placeholder placeholder = new Placeholder(text);
+        placeholder.getFormat().put(format, true);
+        return placeholder;
+    }
+
+    private static List<Placeholder> inserted(EnhancedRichTextEditor editor,
+            String... texts) {
+        ObjectNode detail = JacksonUtils.getMapper().createObjectNode();
+        ArrayNode array = detail.putArray("placeholders");
+        for (int i = 0; i < texts.length; i++) {
+            ObjectNode entry = array.addObject();
+            entry.putObject("placeholder").put("text", texts[i]);
+            entry.put("index", i);
+        }
+        return new PlaceholderInsertedEvent(editor, true, detail)
+                .getPlaceholders();
+    }
+
+    @Test
+    void lookupFindsRegisteredPlaceholderByText() {
+        EnhancedRichTextEditor editor = new EnhancedRichTextEditor();
+        Placeholder company = placeholder("N-1=Vaadin", "bold");
+        Placeholder name = placeholder("A-1=Name", "italic");
+        editor.setPlaceholders(List.of(company, name));
+
+        assertSame(name, editor.getPlaceholder(new Placeholder("A-1=Name")));
+        assertSame(company,
+                editor.getPlaceholder(new Placeholder("N-1=Vaadin")));
+
+        Placeholder unknown = new Placeholder("X-1=Unknown");
+        assertSame(unknown, editor.getPlaceholder(unknown));
+        Placeholder withoutText = new Placeholder();
+        assertSame(withoutText, editor.getPlaceholder(withoutText));
+        assertNull(editor.getPlaceholder(null));
+    }
+
+    @Test
+    void lookupFollowsLatestPlaceholders() {
+        EnhancedRichTextEditor editor = new EnhancedRichTextEditor();
+        editor.setPlaceholders(List.of(placeholder("N-1=Vaadin", "bold")));
+        Placeholder replacement = placeholder("N-1=Vaadin", "italic");
+        editor.setPlaceholders(List.of(replacement));
+
+        assertSame(replacement,
+                editor.getPlaceholder(new Placeholder("N-1=Vaadin")));
+
+        editor.setPlaceholderProvider(query -> Stream.empty());
+        Placeholder probe = new Placeholder("N-1=Vaadin");
+        assertSame(probe, editor.getPlaceholder(probe));
+    }
+
+    @Test
+    void firstDefinitionOfTextWins() {
+        EnhancedRichTextEditor editor = new EnhancedRichTextEditor();
+        Placeholder first = placeholder("N-1=Vaadin", "bold");
+        Placeholder second = placeholder("N-1=Vaadin", "italic");
+        editor.setPlaceholders(List.of(first, second));
+
+        assertSame(first, editor.getPlaceholder(new Placeholder("N-1=Vaadin")));
+        assertEquals(Map.of("bold", true),
+                inserted(editor, "N-1=Vaadin").get(0).getFormat());
+    }
+
+    @Test
+    void eventsHandOutCopies() {
+        EnhancedRichTextEditor editor = new EnhancedRichTextEditor();
+        Placeholder registered = placeholder("N-1=Vaadin", "bold");
+        editor.setPlaceholders(List.of(registered));
+
+        List<Placeholder> first = inserted(editor, "N-1=Vaadin", "N-1=Vaadin");
+        assertEquals(2, first.size());
+        assertNotSame(registered, first.get(0));
+        assertNotSame(first.get(0), first.get(1));
+        assertEquals(0, first.get(0).getIndex());
+        assertEquals(1, first.get(1).getIndex());
+
+        first.get(0).getFormat().put("italic", true);
+        first.get(0).setIndex(5);
+        assertEquals(Map.of("bold", true), registered.getFormat());
+        assertEquals(-1, registered.getIndex());
+        assertEquals(Map.of("bold", true),
+                inserted(editor, "N-1=Vaadin").get(0).getFormat());
+    }
+}
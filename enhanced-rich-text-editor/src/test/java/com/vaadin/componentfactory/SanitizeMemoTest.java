@@ -0,0 +1,114 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the sanitizer memo of {@link EnhancedRichTextEditor} and
+ * its hit and miss counters.
+ */
+class SanitizeMemoTest {
+
+    private static final String DIRTY = "<p class=\"x\" onclick=\"evil()\">"
+            + "Hello</p>";
+
+    private EnhancedRichTextEditor editor;
+    private long hits;
+    private long misses;
+
+    @BeforeEach
+    void setUp() {
+        editor = new EnhancedRichTextEditor();
+        hits = editor.getSanitizeCacheHitCount();
+        misses = editor.getSanitizeCacheMissCount();
+    }
+
+    private void assertCounts(long expectedHits, long expectedMisses) {
+        assertEquals(expectedHits, editor.getSanitizeCacheHitCount() - hits,
+                "hits");
+        assertEquals(expectedMisses,
+                editor.getSanitizeCacheMissCount() - misses, "misses");
+    }
+
+    @Test
+    void sameInputIsAHit() {
+        String sanitized = editor.sanitizeMemoized(DIRTY);
+        assertFalse(sanitized.contains("onclick"), sanitized);
+        assertCounts(0, 1);
+
+        assertSame(sanitized, editor.sanitizeMemoized(DIRTY));
+        assertCounts(1, 1);
+    }
+
+    @Test
+    void echoedOutputIsAHit() {
+        String sanitized = editor.sanitizeMemoized(DIRTY);
+        // The client sends the sanitized value back as its htmlValue
+        assertSame(sanitized, editor.sanitizeMemoized(new String(sanitized)));
+        assertCounts(1, 1);
+    }
+
+    @Test
+    void otherInputIsAMiss() {
+        editor.sanitizeMemoized(DIRTY);
+        assertEquals("<p>Bye</p>", editor.sanitizeMemoized("<p>Bye</p>"));
+        assertCounts(0, 2);
+        // Only the last input and output are remembered
+        editor.sanitizeMemoized(DIRTY);
+        assertCounts(0, 3);
+    }
+
+    @Test
+    void allowlistChangeIsAMiss() {
+        editor.sanitizeMemoized(DIRTY);
+        editor.addAllowedHtmlClasses("x");
+        assertEquals("<p class=\"x\">Hello</p>",
+                editor.sanitizeMemoized(DIRTY));
+        assertCounts(0, 2);
+
+        editor.sanitizeMemoized(DIRTY);
+        assertCounts(1, 2);
+        editor.removeAllowedHtmlClasses("x");
+        assertFalse(editor.sanitizeMemoized(DIRTY).contains("\"x\""));
+        assertCounts(1, 3);
+    }
+
+    @Test
+    void imageStoreChangeIsAMiss() {
+        editor.sanitizeMemoized(DIRTY);
+        editor.setImageStore((mime, data) -> "https://example.com/image");
+        editor.sanitizeMemoized(DIRTY);
+        assertCounts(0, 2);
+
+        editor.sanitizeMemoized(DIRTY);
+        assertCounts(1, 2);
+        editor.setImageStore(null);
+        editor.sanitizeMemoized(DIRTY);
+        assertCounts(1, 3);
+    }
+
+    @Test
+    void emptyValuesAreNotCounted() {
+        assertNull(editor.sanitizeMemoized(null));
+        assertEquals("", editor.sanitizeMemoized(""));
+        assertCounts(0, 0);
+    }
+}
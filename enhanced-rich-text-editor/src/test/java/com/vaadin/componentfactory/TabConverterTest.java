@@ -399,4 +399,53 @@ class TabConverterTest {
         assertFalse(result.contains("tabs-cont"), "Should not contain old tabs-cont");
         assertFalse(result.contains("line-part"), "Should not contain old line-part");
     }
+
+    // ---- Tests for streaming convert(Reader, Writer) ----
+
+    private static String stream(String input, boolean expectConverted) {
+        java.io.StringWriter out = new java.io.StringWriter();
+        assertEquals(expectConverted,
+                TabConverter.convert(new java.io.StringReader(input), out));
+        return out.toString();
+    }
+
+    @Test
+    void stream_convertsArrayFormat() {
+        String input = """
+            [{"insert":"A"},{"attributes":{"tab":"2"},"insert":"\uFEFF"},
+             {"insert":"\uFEFF","attributes":{"line-part":true}},
+             {"insert":"B","attributes":{"line-part":true,"bold":true}},
+             {"insert":"\\n","attributes":{"tabs-cont":"TABS-CONT","align":"right"}}]
+            """;
+        String expected = """
+            [{"insert":"A"},{"insert":{"tab":true}},{"insert":{"tab":true}},
+             {"insert":"B","attributes":{"bold":true}},
+             {"insert":"\\n","attributes":{"align":"right"}}]
+            """;
+        assertJsonEquals(expected, stream(input, true));
+    }
+
+    @Test
+    void stream_copiesRegularOpsInEitherPropertyOrder() {
+        String input = "{\"ops\":[{\"attributes\":{\"bold\":true},\"insert\":\"x\"},"
+                + "{\"insert\":{\"image\":\"https://example.com/a.png\"},\"attributes\":{\"width\":\"10\"}},"
+                + "{\"retain\":3},{\"delete\":1}],\"meta\":{\"v\":[1,2]}}";
+        String output = stream(input, false);
+        assertEquals(input, output);
+    }
+
+    @Test
+    void stream_rejectsNonDelta() {
+        assertThrows(IllegalArgumentException.class,
+                () -> stream("{\"foo\":1}", false));
+        assertThrows(IllegalArgumentException.class,
+                () -> stream("[1,2]", false));
+    }
+
+    @Test
+    void convertIfNeeded_returnsInputWhenOnlyMarkerTextMatches() {
+        // Marker strings in text content, but no legacy attributes
+        String input = "[{\"insert\":\"\\\"tabs-cont\\\" is old\\n\"}]";
+        assertSame(input, TabConverter.convertIfNeeded(input));
+    }
 }
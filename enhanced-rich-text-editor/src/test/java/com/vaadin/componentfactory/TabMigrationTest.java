@@ -0,0 +1,251 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TabMigration} and {@link TabMigrationTool}.
+ */
+class TabMigrationTest {
+
+    private static final String LEGACY = "[{\"insert\":\"A\"},"
+            + "{\"attributes\":{\"tab\":\"1\"},\"insert\":\"\\uFEFF\"},"
+            + "{\"attributes\":{\"tabs-cont\":\"TABS-CONT\"},\"insert\":\"\\n\"}]";
+    private static final String CONVERTED = "[{\"insert\":\"A\"},"
+            + "{\"insert\":{\"tab\":true}},{\"insert\":\"\\n\"}]";
+    private static final String CURRENT = "[{\"insert\":\"B\\n\"}]";
+
+    private static Stream<TabMigration.Document> documents(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new TabMigration.Document("d" + i,
+                        i % 3 == 0 ? CURRENT : LEGACY));
+    }
+
+    @Test
+    void convertsOnlyLegacyDocuments() {
+        Map<String, String> written = new ConcurrentHashMap<>();
+        TabMigration.Result result = TabMigration.create()
+                .withParallelism(4)
+                .migrate(documents(300), d -> written.put(d.id(), d.delta()));
+
+        assertEquals(200, result.converted());
+        assertEquals(100, result.unchanged());
+        assertEquals(0, result.failed());
+        assertEquals(300, result.total());
+        assertEquals(200, written.size());
+        assertEquals(CONVERTED, written.get("d1"));
+        assertFalse(written.containsKey("d0"));
+    }
+
+    @Test
+    void markerInTextIsUnchanged() {
+        List<TabMigration.Document> written = new ArrayList<>();
+        TabMigration.Result result = TabMigration.create().migrate(
+                Stream.of(new TabMigration.Document("x",
+                        "[{\"insert\":\"\\\"tabs-cont\\\"\\n\"}]")),
+                written::add);
+        assertEquals(1, result.unchanged());
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    void invalidDocumentsAreReportedAndSkipped() {
+        TabMigration.Result result = TabMigration.create().migrate(
+                Stream.of(new TabMigration.Document("ok", LEGACY),
+                        new TabMigration.Document("bad",
+                                "{\"tabs-cont\":\"x\"}"),
+                        new TabMigration.Document("broken",
+                                "[{\"line-part\":")),
+                d -> {
+                });
+        assertEquals(1, result.converted());
+        assertEquals(2, result.failed());
+        assertEquals(List.of("bad", "broken"), result.failures().stream()
+                .map(TabMigration.Failure::id).sorted().toList());
+    }
+
+    @Test
+    void sourceIsReadWithBoundedLookahead() {
+        AtomicLong read = new AtomicLong();
+        AtomicLong processed = new AtomicLong();
+        AtomicLong maxAhead = new AtomicLong();
+        Iterator<TabMigration.Document> source = documents(500).peek(d -> {
+            long ahead = read.incrementAndGet() - processed.get();
+            maxAhead.accumulateAndGet(ahead, Math::max);
+        }).iterator();
+
+        TabMigration.create().withParallelism(2).withMaxInFlight(4)
+                .withProgressListener(p -> processed.set(p.processed()), 1)
+                .migrate(source, d -> {
+                });
+
+        // The documents in flight plus the one waiting for a permit
+        assertTrue(maxAhead.get() <= 5, "Read ahead " + maxAhead);
+        assertEquals(500, read.get());
+    }
+
+    @Test
+    void progressIsReportedAtIntervalsAndAtTheEnd() {
+        List<TabMigration.Progress> reports = new ArrayList<>();
+        TabMigration.create().withParallelism(3)
+                .withProgressListener(reports::add, 10)
+                .migrate(documents(35), d -> {
+                });
+        assertEquals(4, reports.size());
+        assertEquals(35, reports.get(3).processed());
+        assertEquals(35, reports.get(3).read());
+    }
+
+    @Test
+    void sinkFailureStopsTheMigration() {
+        AtomicInteger read = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("full");
+        Iterator<TabMigration.Document> source = Stream
+                .generate(() -> new TabMigration.Document("d", LEGACY))
+                .limit(10_000).peek(d -> read.incrementAndGet()).iterator();
+
+        IllegalStateException thrown = assertThrows(
+                IllegalStateException.class,
+                () -> TabMigration.create().withParallelism(2)
+                        .migrate(source, d -> {
+                            throw failure;
+                        }));
+        assertSame(failure, thrown);
+        assertTrue(read.get() < 10_000);
+    }
+
+    @Test
+    void sourceFailureIsRethrownAfterDocumentsInFlight() {
+        AtomicInteger converted = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("gone");
+        Iterator<TabMigration.Document> source = IntStream.range(0, 100)
+                .mapToObj(i -> {
+                    if (i == 50) {
+                        throw failure;
+                    }
+                    return new TabMigration.Document("d" + i, LEGACY);
+                }).iterator();
+
+        IllegalStateException thrown = assertThrows(
+                IllegalStateException.class,
+                () -> TabMigration.create().withParallelism(4)
+                        .migrate(source, d -> {
+                            sleep(1);
+                            converted.incrementAndGet();
+                        }));
+        assertSame(failure, thrown);
+        assertEquals(50, converted.get());
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        TabMigration migration = TabMigration.create().withParallelism(4);
+        assertThrows(IllegalArgumentException.class,
+                () -> migration.withParallelism(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> migration.withMaxInFlight(3));
+        assertThrows(IllegalArgumentException.class,
+                () -> migration.withMaxInFlight(4).withParallelism(5));
+    }
+
+    @Test
+    void toolMigratesDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("erte-migration");
+        Path legacy = Files.writeString(directory.resolve("legacy.json"),
+                LEGACY);
+        Path current = Files.writeString(directory.resolve("current.json"),
+                CURRENT);
+        Path other = Files.writeString(directory.resolve("notes.txt"),
+                LEGACY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream err = new PrintStream(new ByteArrayOutputStream());
+
+        assertEquals(0, TabMigrationTool.run(new String[] { "--dry-run",
+                "files", directory.toString() }, new PrintStream(out), err));
+        assertEquals(LEGACY, Files.readString(legacy));
+        assertTrue(out.toString().startsWith("2 documents: 1 to convert"),
+                out.toString());
+
+        assertEquals(0, TabMigrationTool.run(new String[] { "--threads", "2",
+                "files", directory.toString() }, new PrintStream(out), err));
+        assertEquals(CONVERTED, Files.readString(legacy));
+        assertEquals(CURRENT, Files.readString(current));
+        assertEquals(LEGACY, Files.readString(other));
+    }
+
+    @Test
+    void toolReportsUnreadableFiles() throws IOException {
+        Path directory = Files.createTempDirectory("erte-migration");
+        Path legacy = Files.writeString(directory.resolve("legacy.json"),
+                LEGACY);
+        // Not valid UTF-8
+        Path broken = Files.write(directory.resolve("broken.json"),
+                new byte[] { '[', (byte) 0xC3, '(', ']' });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream err = new PrintStream(new ByteArrayOutputStream());
+
+        TabMigration.Result result = TabMigrationTool.migrateFiles(
+                TabMigration.create(), directory, false);
+        assertEquals(1, result.converted());
+        assertEquals(1, result.failed());
+        assertEquals(broken.toString(), result.failures().get(0).id());
+        assertEquals(CONVERTED, Files.readString(legacy));
+
+        assertEquals(1, TabMigrationTool.run(new String[] { "files",
+                directory.toString() }, new PrintStream(out), err));
+        assertTrue(out.toString().contains(broken + ": Cannot read file"),
+                out.toString());
+    }
+
+    @Test
+    void toolRejectsInvalidArguments() {
+        PrintStream out = new PrintStream(new ByteArrayOutputStream());
+        PrintStream err = new PrintStream(new ByteArrayOutputStream());
+        assertEquals(2, TabMigrationTool.run(new String[] {}, out, err));
+        assertEquals(2, TabMigrationTool.run(new String[] { "jdbc",
+                "jdbc:h2:mem:", "docs; DROP TABLE docs", "id", "delta" },
+                out, err));
+        assertEquals(2, TabMigrationTool.run(
+                new String[] { "--threads" }, out, err));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TextStatistics}. HTML and delta forms of the same
+ * content must give the same result.
+ */
+class TextStatisticsTest {
+
+    @Test
+    void emptyValue() {
+        assertEquals(0, TextStatistics.of("").getLength());
+        assertEquals(0, TextStatistics.of("<p></p>").getLength());
+        assertEquals(0, TextStatistics.of("<p><br></p>").getLength());
+        assertEquals(0, TextStatistics
+                .of(Delta.fromJson("[{\"insert\":\"\\n\"}]")).getLength());
+    }
+
+    @Test
+    void paragraphsMatchQuillLength() {
+        TextStatistics html = TextStatistics
+                .of("<p>Hello <strong>big</strong> world</p><p>Bye</p>");
+        TextStatistics delta = TextStatistics.of(Delta.fromJson(
+                "[{\"insert\":\"Hello \"},{\"insert\":\"big\",\"attributes\":{\"bold\":true}},"
+                        + "{\"insert\":\" world\\nBye\\n\"}]"));
+        assertEquals(19, html.getLength());
+        assertEquals(4, html.getWords());
+        assertEquals(16, html.getCharacters());
+        assertEquals(html.getLength(), delta.getLength());
+        assertEquals(html.getWords(), delta.getWords());
+        assertEquals(html.getCharacters(), delta.getCharacters());
+    }
+
+    @Test
+    void embedsCountAsOne() {
+        TextStatistics html = TextStatistics.of(
+                "<p>a<span class=\"ql-tab\">\uFEFF<span contenteditable=\"false\"></span>\uFEFF</span>b"
+                        + "<span class=\"ql-placeholder\">\uFEFF<span>Name</span>\uFEFF</span>"
+                        + "<span class=\"ql-nbsp\">\u00A0</span>c</p>");
+        TextStatistics delta = TextStatistics.of(Delta.fromJson(
+                "[{\"insert\":\"a\"},{\"insert\":{\"tab\":true}},{\"insert\":\"b\"},"
+                        + "{\"insert\":{\"placeholder\":{\"text\":\"Name\"}}},"
+                        + "{\"insert\":{\"nbsp\":true}},{\"insert\":\"c\\n\"}]"));
+        assertEquals(6, html.getLength());
+        assertEquals(3, html.getWords());
+        assertEquals(4, html.getCharacters());
+        assertEquals(html.getLength(), delta.getLength());
+        assertEquals(html.getWords(), delta.getWords());
+    }
+
+    @Test
+    void listsAndWhitespaceBetweenBlocks() {
+        TextStatistics html = TextStatistics
+                .of("<ol>\n  <li>one</li>\n  <li>two</li>\n</ol>\n<p>x</p>");
+        assertEquals(9, html.getLength());
+        assertEquals(3, html.getWords());
+    }
+}
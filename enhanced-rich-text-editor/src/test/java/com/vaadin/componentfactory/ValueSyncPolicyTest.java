@@ -0,0 +1,85 @@
+/*-
+ * #%L
+ * Enhanced Rich Text Editor V25
+ * %%
+ * Copyright (C) 2019 - 2025 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+package com.vaadin.componentfactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.vaadin.componentfactory.ValueSyncPolicy.Mode;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ValueSyncPolicy}.
+ */
+class ValueSyncPolicyTest {
+
+    @Test
+    void factoriesSetModeAndDelay() {
+        assertPolicy(ValueSyncPolicy.eager(), Mode.EAGER, 0, 0);
+        assertSame(ValueSyncPolicy.eager(), ValueSyncPolicy.eager());
+        assertPolicy(ValueSyncPolicy.lazy(), Mode.LAZY,
+                ValueSyncPolicy.DEFAULT_DELAY, 0);
+        assertPolicy(ValueSyncPolicy.lazy(1000), Mode.LAZY, 1000, 0);
+        assertPolicy(ValueSyncPolicy.timeout(250), Mode.TIMEOUT, 250, 0);
+        assertPolicy(ValueSyncPolicy.onBlur(), Mode.ON_BLUR, 0, 0);
+    }
+
+    @Test
+    void withMaxLatencyKeepsModeAndDelay() {
+        ValueSyncPolicy lazy = ValueSyncPolicy.lazy(1000);
+        ValueSyncPolicy bounded = lazy.withMaxLatency(5000);
+
+        assertPolicy(bounded, Mode.LAZY, 1000, 5000);
+        assertPolicy(lazy, Mode.LAZY, 1000, 0);
+        assertEquals(bounded, ValueSyncPolicy.lazy(1000).withMaxLatency(5000));
+        assertEquals(bounded.hashCode(),
+                ValueSyncPolicy.lazy(1000).withMaxLatency(5000).hashCode());
+        assertNotEquals(bounded, ValueSyncPolicy.timeout(1000)
+                .withMaxLatency(5000));
+        assertEquals(lazy, bounded.withMaxLatency(0));
+    }
+
+    @Test
+    void negativeTimesAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ValueSyncPolicy.lazy(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> ValueSyncPolicy.timeout(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> ValueSyncPolicy.onBlur().withMaxLatency(-1));
+        assertPolicy(ValueSyncPolicy.lazy(0), Mode.LAZY, 0, 0);
+    }
+
+    @Test
+    void jsonHasModeNameAndTimes() {
+        assertEquals("{\"mode\":\"EAGER\",\"delay\":0,\"maxLatency\":0}",
+                ValueSyncPolicy.eager().toJson().toString());
+        assertEquals(
+                "{\"mode\":\"LAZY\",\"delay\":1000,\"maxLatency\":5000}",
+                ValueSyncPolicy.lazy(1000).withMaxLatency(5000).toJson()
+                        .toString());
+        assertEquals("{\"mode\":\"ON_BLUR\",\"delay\":0,\"maxLatency\":0}",
+                ValueSyncPolicy.onBlur().toJson().toString());
+    }
+
+    private static void assertPolicy(ValueSyncPolicy policy, Mode mode,
+            int delay, int maxLatency) {
+        assertEquals(mode, policy.getMode());
+        assertEquals(delay, policy.getDelay());
+        assertEquals(maxLatency, policy.getMaxLatency());
+    }
+}